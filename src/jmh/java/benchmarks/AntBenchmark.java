@@ -0,0 +1,134 @@
+package benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * AntBenchmark measures the individual ant behaviours that make up a turn:
+ * Forager movement and its loop handling, Soldier movement, Bala actions,
+ * and adding and removing ants from a ColonyNode. crowd sets how many
+ * friendly ants share the busy node in the middle of the colony, which is
+ * what the per-node ant lists scale with.
+ * @author Ryan McAllister-Grum
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AntBenchmark {
+    // SEED holds the seed the colony and the benchmarks' Random use.
+    private static final long SEED = 20240601L;
+    // SIZE holds the width and height of the colony.
+    private static final int SIZE = 64;
+    // HISTORY holds how many moves the looping Forager has made.
+    private static final int HISTORY = 256;
+
+    // crowd holds the number of friendly ants on the busy node.
+    @Param({"1", "100", "1000"})
+    int crowd;
+
+    // colony holds the Colony the ants live in.
+    private Object colony;
+    // rng supplies the ants' random numbers.
+    private Random rng;
+    // busyNode holds the ColonyNode shared by the crowd.
+    private Object busyNode;
+    // visitor holds a Forager that is added to and removed from busyNode.
+    private Object visitor;
+    // walker holds a Forager that wanders the colony.
+    private Object walker;
+    // looper holds a Forager with a long move history that stays put.
+    private Object looper;
+    // soldier holds a Soldier that wanders the colony.
+    private Object soldier;
+    // bala holds a Bala attacking the crowd on busyNode.
+    private Object bala;
+
+
+    /** setUp builds the colony and the ants for every iteration.
+     */
+    @Setup(Level.Iteration)
+    public void setUp() throws Throwable {
+        colony = Sim.colony(SIZE, SIZE, SEED);
+        rng = new Random(SEED);
+        int busyX = SIZE / 4;
+        int busyY = SIZE / 4;
+        busyNode = Sim.node(colony, busyX, busyY);
+        for (int i = 0; i < crowd; i++)
+            Sim.forager(colony, busyX, busyY);
+        visitor = Sim.forager(colony, busyX, busyY);
+        Sim.REMOVE_FRIENDLY_ANT.invoke(busyNode, visitor);
+
+        walker = Sim.forager(colony, SIZE / 2, SIZE / 2);
+        looper = Sim.forager(colony, SIZE / 2, SIZE / 2);
+        for (int i = 0; i < HISTORY; i++)
+            Sim.FORAGER_MOVE.invoke(looper, rng);
+        soldier = Sim.soldier(colony, SIZE / 2, SIZE / 2);
+        bala = Sim.bala(colony, busyX, busyY);
+    }
+
+    /** foragerMove measures a foraging Forager's move, including its loop
+     *  avoidance and removal.
+     */
+    @Benchmark
+    public void foragerMove() throws Throwable {
+        Sim.FORAGER_MOVE.invoke(walker, rng);
+    }
+
+    /** foragerAvoidLoop measures the search for another node when the
+     *  planned move would revisit the Forager's current node.
+     */
+    @Benchmark
+    public void foragerAvoidLoop() throws Throwable {
+        Sim.FORAGER_AVOID_LOOP.invoke(
+            looper, Sim.GET_LOCATION_X.invoke(looper), Sim.GET_LOCATION_Y.invoke(looper), rng
+        );
+    }
+
+    /** foragerRemoveLoop measures the check for a loop in a Forager's
+     *  move history.
+     */
+    @Benchmark
+    public void foragerRemoveLoop() throws Throwable {
+        Sim.FORAGER_REMOVE_LOOP.invoke(looper);
+    }
+
+    /** soldierMove measures a Soldier's move with no Balas nearby.
+     */
+    @Benchmark
+    public void soldierMove() throws Throwable {
+        Sim.SOLDIER_MOVE.invoke(soldier, rng);
+    }
+
+    /** balaTakeAction measures a Bala attacking the crowd. Killed ants
+     *  stay on the node, so the crowd does not shrink.
+     */
+    @Benchmark
+    public void balaTakeAction() throws Throwable {
+        Sim.BALA_TAKE_ACTION.invoke(bala, rng);
+        Sim.clearDead(colony);
+    }
+
+    /** nodeAddRemove measures adding an ant to the busy node and removing
+     *  it again.
+     */
+    @Benchmark
+    public void nodeAddRemove() throws Throwable {
+        Sim.ADD_FRIENDLY_ANT.invoke(busyNode, visitor);
+        Sim.REMOVE_FRIENDLY_ANT.invoke(busyNode, visitor);
+    }
+}
@@ -0,0 +1,80 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * ColonyBenchmark measures whole turns of Colony.processTurn() over a range
+ * of grid and population sizes. Every iteration starts from the same seeded,
+ * fully revealed colony with extra Foragers at the Queen's node, so results
+ * are comparable between runs and between commits.
+ * @author Ryan McAllister-Grum
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ColonyBenchmark {
+    // SEED holds the seed every colony is created with.
+    private static final long SEED = 20240601L;
+
+    // size holds the width and height of the colony.
+    @Param({"27", "256", "1024"})
+    int size;
+
+    // foragers holds the number of Foragers the colony starts with.
+    @Param({"50", "1000", "10000"})
+    int foragers;
+
+    // threads holds the number of worker threads, 0 for sequential turns.
+    @Param({"0"})
+    int threads;
+
+    // flowField holds whether Foragers follow the Queen's flow field home.
+    @Param({"false"})
+    boolean flowField;
+
+    // colony holds the Colony being benchmarked.
+    private Object colony;
+
+
+    /** setUp creates a fresh colony for every iteration.
+     */
+    @Setup(Level.Iteration)
+    public void setUp() throws Throwable {
+        colony = Sim.colony(size, size, SEED);
+        Sim.setThreads(colony, threads);
+        Sim.setFlowFieldReturn(colony, flowField);
+        // reset() already created 50 Foragers.
+        for (int i = 50; i < foragers; i++)
+            Sim.forager(colony, size / 2, size / 2);
+    }
+
+    /** tearDown stops the colony's worker threads.
+     */
+    @TearDown(Level.Iteration)
+    public void tearDown() throws Throwable {
+        Sim.setThreads(colony, 0);
+    }
+
+    /** processTurn measures one turn of the whole colony.
+     */
+    @Benchmark
+    public void processTurn() throws Throwable {
+        Sim.processTurn(colony);
+    }
+}
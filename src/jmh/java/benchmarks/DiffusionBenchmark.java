@@ -0,0 +1,70 @@
+package benchmarks;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * DiffusionBenchmark measures one turn of the continuous pheromone model
+ * (evaporation and 8-neighbour diffusion) over a side x side ColonyGrid,
+ * on the calling thread and shared between worker threads.
+ * @author Ryan McAllister-Grum
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class DiffusionBenchmark {
+    // side holds the width and height of the grid.
+    @Param({"256", "1024", "4096"})
+    int side;
+
+    // threads holds the number of worker threads, 0 for none.
+    @Param({"0", "4"})
+    int threads;
+
+    // grid holds the ColonyGrid being benchmarked.
+    private Object grid;
+    // workers holds the worker threads, or null for none.
+    private ForkJoinPool workers;
+
+
+    /** setUp fills a grid with random pheromone levels and turns on its
+     *  pheromone field.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        grid = Sim.grid(side, side, side);
+        Sim.GRID_SET_PHEROMONE_DIFFUSION.invoke(grid, 0.01, 0.2);
+        workers = threads == 0 ? null : new ForkJoinPool(threads);
+    }
+
+    /** tearDown stops the worker threads.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (workers != null)
+            workers.shutdown();
+    }
+
+    /** diffuse measures one turn of evaporation and diffusion.
+     */
+    @Benchmark
+    public void diffuse() throws Throwable {
+        Sim.GRID_DIFFUSE_PHEROMONE.invoke(grid, workers);
+    }
+}
@@ -0,0 +1,196 @@
+package benchmarks;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import dataStructures.CSRGraph;
+import dataStructures.ChebyshevHeuristic;
+import dataStructures.ListGraph;
+
+/**
+ * GraphBenchmark measures ListGraph's unweightedShortestPath and
+ * weightedShortestPath, and their A* and bidirectional counterparts, from
+ * one corner of a side x side grid to the other.
+ * The grid is 8-connected like the colony, and its edges cost between 1
+ * and 9. The same searches are measured on the CSRGraph built from it, and
+ * written with java.util collections (ArrayDeque breadth-first search and
+ * PriorityQueue Dijkstra over ArrayList adjacency lists) as a reference.
+ * @author Ryan McAllister-Grum
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class GraphBenchmark {
+    // side holds the width and height of the grid.
+    @Param({"32", "128", "512"})
+    int side;
+
+    // graph holds the grid as a ListGraph of boxed cell indexes.
+    private ListGraph graph;
+    // csr holds the graph in compressed sparse row form.
+    private CSRGraph csr;
+    // distance receives the CSRGraph searches' path costs.
+    private double[] distance;
+    // previous receives the CSRGraph searches' previous vertices.
+    private int[] previous;
+    // heap is the queue reused by csrWeighted.
+    private dataStructures.IndexedMinHeap heap;
+    // heuristic guides listGraphAStar across the grid.
+    private ChebyshevHeuristic heuristic;
+    // cells holds the boxed cell indexes used as the graph's items.
+    private Integer[] cells;
+    // adjacency holds each cell's {neighbour, cost} pairs for the
+    // java.util searches.
+    private ArrayList<ArrayList<int[]>> adjacency;
+
+
+    /** setUp builds the grid graph both ways.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random rng = new Random(side);
+        int count = side * side;
+        graph = new ListGraph();
+        cells = new Integer[count];
+        adjacency = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            cells[i] = i;
+            graph.add(cells[i]);
+            adjacency.add(new ArrayList<>(8));
+        }
+        for (int x = 0; x < side; x++)
+            for (int y = 0; y < side; y++)
+                for (int dx = -1; dx <= 1; dx++)
+                    for (int dy = -1; dy <= 1; dy++) {
+                        int nx = x + dx;
+                        int ny = y + dy;
+                        if ((dx != 0 || dy != 0) && nx >= 0 && ny >= 0 && nx < side && ny < side) {
+                            int cost = 1 + rng.nextInt(9);
+                            graph.addEdge(cells[x * side + y], cells[nx * side + ny], cost);
+                            adjacency.get(x * side + y).add(new int[] {nx * side + ny, cost});
+                        }
+                    }
+        csr = graph.toCSRGraph();
+        distance = new double[count];
+        previous = new int[count];
+        heap = new dataStructures.IndexedMinHeap(count);
+        heuristic = new ChebyshevHeuristic(side);
+    }
+
+    /** listGraphUnweighted measures ListGraph's breadth-first search.
+     */
+    @Benchmark
+    public double listGraphUnweighted() {
+        return graph.unweightedShortestPath(cells[0], cells[cells.length - 1]).getCost();
+    }
+
+    /** listGraphWeighted measures ListGraph's Dijkstra search.
+     */
+    @Benchmark
+    public double listGraphWeighted() {
+        return graph.weightedShortestPath(cells[0], cells[cells.length - 1]).getCost();
+    }
+
+    /** listGraphAStar measures ListGraph's A* search.
+     */
+    @Benchmark
+    public double listGraphAStar() {
+        return graph.aStarShortestPath(cells[0], cells[cells.length - 1], heuristic).getCost();
+    }
+
+    /** listGraphBidirectional measures ListGraph's bidirectional
+     *  breadth-first search.
+     */
+    @Benchmark
+    public double listGraphBidirectional() {
+        return graph.bidirectionalShortestPath(cells[0], cells[cells.length - 1]).getCost();
+    }
+
+    /** listGraphBidirectionalWeighted measures ListGraph's bidirectional
+     *  Dijkstra search.
+     */
+    @Benchmark
+    public double listGraphBidirectionalWeighted() {
+        return graph.bidirectionalWeightedShortestPath(cells[0], cells[cells.length - 1]).getCost();
+    }
+
+    /** csrUnweighted measures CSRGraph's breadth-first search.
+     */
+    @Benchmark
+    public double csrUnweighted() {
+        csr.unweightedShortestPaths(csr.indexOf(cells[0]), distance, previous);
+        return distance[csr.indexOf(cells[cells.length - 1])];
+    }
+
+    /** csrWeighted measures CSRGraph's Dijkstra search with a reused heap.
+     */
+    @Benchmark
+    public double csrWeighted() {
+        csr.weightedShortestPaths(csr.indexOf(cells[0]), distance, previous, heap);
+        return distance[csr.indexOf(cells[cells.length - 1])];
+    }
+
+    /** javaUtilUnweighted measures a breadth-first search with ArrayDeque.
+     */
+    @Benchmark
+    public int javaUtilUnweighted() {
+        int[] distance = new int[cells.length];
+        Arrays.fill(distance, -1);
+        ArrayDeque<Integer> frontier = new ArrayDeque<>();
+        distance[0] = 0;
+        frontier.add(0);
+        while (!frontier.isEmpty()) {
+            int cell = frontier.poll();
+            for (int[] edge : adjacency.get(cell))
+                if (distance[edge[0]] < 0) {
+                    distance[edge[0]] = distance[cell] + 1;
+                    frontier.add(edge[0]);
+                }
+        }
+        return distance[cells.length - 1];
+    }
+
+    /** javaUtilWeighted measures Dijkstra with java.util.PriorityQueue,
+     *  skipping stale entries rather than decreasing keys.
+     */
+    @Benchmark
+    public double javaUtilWeighted() {
+        double[] distance = new double[cells.length];
+        Arrays.fill(distance, Double.POSITIVE_INFINITY);
+        java.util.PriorityQueue<double[]> frontier =
+            new java.util.PriorityQueue<>((a, b) -> Double.compare(a[0], b[0]));
+        distance[0] = 0;
+        frontier.add(new double[] {0, 0});
+        while (!frontier.isEmpty()) {
+            double[] entry = frontier.poll();
+            int cell = (int) entry[1];
+            if (entry[0] > distance[cell])
+                continue;
+            for (int[] edge : adjacency.get(cell)) {
+                double through = distance[cell] + edge[1];
+                if (through < distance[edge[0]]) {
+                    distance[edge[0]] = through;
+                    frontier.add(new double[] {through, edge[0]});
+                }
+            }
+        }
+        return distance[cells.length - 1];
+    }
+}
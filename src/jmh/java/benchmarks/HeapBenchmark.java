@@ -0,0 +1,163 @@
+package benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import dataStructures.BinaryMinHeap;
+import dataStructures.IndexedMinHeap;
+import dataStructures.PriorityQueue;
+
+/**
+ * HeapBenchmark compares dataStructures.BinaryMinHeap, PriorityQueue and
+ * IndexedMinHeap with java.util.PriorityQueue: adding size random items and
+ * removing them all in order, and one add and remove on a heap that holds
+ * size items.
+ * @author Ryan McAllister-Grum
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class HeapBenchmark {
+    // size holds the number of items in each heap.
+    @Param({"100", "10000", "1000000", "10000000"})
+    int size;
+
+    // items holds random items, boxed up front so boxing is not measured.
+    private Integer[] items;
+    // next holds the position in items for the cycle benchmarks.
+    private int next;
+    // heap holds a BinaryMinHeap of size items.
+    private BinaryMinHeap heap;
+    // queue holds a dataStructures.PriorityQueue of size items.
+    private PriorityQueue queue;
+    // theirs holds a java.util.PriorityQueue of size items.
+    private java.util.PriorityQueue<Integer> theirs;
+    // indexed is the IndexedMinHeap reused by indexedSort.
+    private IndexedMinHeap indexed;
+
+
+    /** setUp creates the items and fills each heap.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random rng = new Random(size);
+        items = new Integer[size];
+        heap = new BinaryMinHeap();
+        queue = new PriorityQueue();
+        theirs = new java.util.PriorityQueue<>();
+        indexed = new IndexedMinHeap(size);
+        for (int i = 0; i < size; i++) {
+            items[i] = rng.nextInt();
+            heap.add(items[i]);
+            queue.add(items[i]);
+            theirs.add(items[i]);
+        }
+    }
+
+    /** nextItem returns the next item for the cycle benchmarks.
+     *  @return A random item.
+     */
+    private Integer nextItem() {
+        if (next == items.length)
+            next = 0;
+        return items[next++];
+    }
+
+    /** heapSort measures adding every item to a BinaryMinHeap and removing
+     *  them in order.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void heapSort(Blackhole sink) {
+        BinaryMinHeap fresh = new BinaryMinHeap();
+        for (Integer item : items)
+            fresh.add(item);
+        while (!fresh.isEmpty()) {
+            sink.consume(fresh.get());
+            fresh.remove();
+        }
+    }
+
+    /** priorityQueueSort measures adding every item to a
+     *  dataStructures.PriorityQueue and removing them in order.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void priorityQueueSort(Blackhole sink) {
+        PriorityQueue fresh = new PriorityQueue();
+        for (Integer item : items)
+            fresh.add(item);
+        while (!fresh.isEmpty()) {
+            sink.consume(fresh.get());
+            fresh.remove();
+        }
+    }
+
+    /** indexedSort measures adding every item's index to an IndexedMinHeap,
+     *  with the item as its priority, and removing them in order.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void indexedSort(Blackhole sink) {
+        indexed.clear();
+        for (int i = 0; i < items.length; i++)
+            indexed.add(i, items[i]);
+        while (!indexed.isEmpty())
+            sink.consume(indexed.removeMin());
+    }
+
+    /** theirsSort measures adding every item to a java.util.PriorityQueue
+     *  and removing them in order.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void theirsSort(Blackhole sink) {
+        java.util.PriorityQueue<Integer> fresh = new java.util.PriorityQueue<>();
+        for (Integer item : items)
+            fresh.add(item);
+        while (!fresh.isEmpty())
+            sink.consume(fresh.poll());
+    }
+
+    /** heapCycle measures removing the smallest item of the full
+     *  BinaryMinHeap and adding another.
+     */
+    @Benchmark
+    public boolean heapCycle() {
+        heap.remove();
+        return heap.add(nextItem());
+    }
+
+    /** priorityQueueCycle measures removing the smallest item of the full
+     *  dataStructures.PriorityQueue and adding another.
+     */
+    @Benchmark
+    public boolean priorityQueueCycle() {
+        queue.remove();
+        return queue.add(nextItem());
+    }
+
+    /** theirsCycle measures removing the smallest item of the full
+     *  java.util.PriorityQueue and adding another.
+     */
+    @Benchmark
+    public boolean theirsCycle() {
+        theirs.poll();
+        return theirs.add(nextItem());
+    }
+}
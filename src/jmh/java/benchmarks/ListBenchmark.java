@@ -0,0 +1,189 @@
+package benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * ListBenchmark compares dataStructures.ArrayList and LinkedList with their
+ * java.util namesakes: appending size items, reading a random index,
+ * removing a random index and appending again, and iterating over every
+ * item. Random index access on the linked lists is linear, so expect the
+ * largest sizes to be slow there.
+ * @author Ryan McAllister-Grum
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class ListBenchmark {
+
+    /** Items holds the boxed items and a rotating sequence of indexes.
+     */
+    @State(Scope.Thread)
+    public static class Items {
+        // size holds the number of items in each list.
+        @Param({"100", "10000", "1000000", "10000000"})
+        int size;
+
+        // items holds the items, boxed up front so boxing is not measured.
+        Integer[] items;
+        // picks holds random indexes into the lists.
+        int[] picks;
+        // next holds the position in picks.
+        int next;
+
+        /** setUp creates the items.
+         */
+        @Setup(Level.Trial)
+        public void setUp() {
+            items = new Integer[size];
+            for (int i = 0; i < size; i++)
+                items[i] = i;
+            Random rng = new Random(size);
+            picks = new int[1 << 16];
+            for (int i = 0; i < picks.length; i++)
+                picks[i] = rng.nextInt(size);
+        }
+
+        /** pick returns the next random index.
+         *  @return An index below size.
+         */
+        int pick() {
+            return picks[next++ & (picks.length - 1)];
+        }
+    }
+
+    /** Lists holds a full list of each kind.
+     */
+    @State(Scope.Thread)
+    public static class Lists {
+        // kind selects which list the benchmarks use.
+        @Param({"ArrayList", "LinkedList"})
+        String kind;
+
+        // ours holds the dataStructures list.
+        dataStructures.List ours;
+        // theirs holds the java.util list.
+        java.util.List<Integer> theirs;
+
+        /** setUp fills both lists.
+         *  @param items The items to add.
+         */
+        @Setup(Level.Trial)
+        public void setUp(Items items) {
+            ours = newOurs(kind);
+            theirs = newTheirs(kind);
+            for (Integer item : items.items) {
+                ours.add(item);
+                theirs.add(item);
+            }
+        }
+    }
+
+
+    /** newOurs creates an empty dataStructures list.
+     *  @param kind ArrayList or LinkedList.
+     *  @return The new list.
+     */
+    static dataStructures.List newOurs(String kind) {
+        return kind.equals("ArrayList") ? new dataStructures.ArrayList() : new dataStructures.LinkedList();
+    }
+
+    /** newTheirs creates an empty java.util list.
+     *  @param kind ArrayList or LinkedList.
+     *  @return The new list.
+     */
+    static java.util.List<Integer> newTheirs(String kind) {
+        return kind.equals("ArrayList") ? new java.util.ArrayList<>() : new java.util.LinkedList<>();
+    }
+
+    /** oursAdd measures appending every item to an empty list.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Object oursAdd(Items items, Lists lists) {
+        dataStructures.List list = newOurs(lists.kind);
+        for (Integer item : items.items)
+            list.add(item);
+        return list;
+    }
+
+    /** theirsAdd measures appending every item to an empty list.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Object theirsAdd(Items items, Lists lists) {
+        java.util.List<Integer> list = newTheirs(lists.kind);
+        for (Integer item : items.items)
+            list.add(item);
+        return list;
+    }
+
+    /** oursGet measures reading a random index.
+     */
+    @Benchmark
+    public Object oursGet(Items items, Lists lists) {
+        return lists.ours.get(items.pick());
+    }
+
+    /** theirsGet measures reading a random index.
+     */
+    @Benchmark
+    public Object theirsGet(Items items, Lists lists) {
+        return lists.theirs.get(items.pick());
+    }
+
+    /** oursRemoveAdd measures removing a random index and appending the
+     *  item again.
+     */
+    @Benchmark
+    public boolean oursRemoveAdd(Items items, Lists lists) {
+        int index = items.pick();
+        Object item = lists.ours.get(index);
+        lists.ours.remove(index);
+        return lists.ours.add(item);
+    }
+
+    /** theirsRemoveAdd measures removing a random index and appending the
+     *  item again.
+     */
+    @Benchmark
+    public boolean theirsRemoveAdd(Items items, Lists lists) {
+        return lists.theirs.add(lists.theirs.remove(items.pick()));
+    }
+
+    /** oursIterate measures visiting every item.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void oursIterate(Lists lists, Blackhole sink) {
+        dataStructures.Iterator iter = lists.ours.iterator();
+        while (iter.hasNext()) {
+            sink.consume(iter.getCurrent());
+            iter.next();
+        }
+    }
+
+    /** theirsIterate measures visiting every item.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void theirsIterate(Lists lists, Blackhole sink) {
+        for (Integer item : lists.theirs)
+            sink.consume(item);
+    }
+}
@@ -0,0 +1,315 @@
+package benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * MapBenchmark compares dataStructures.HashMap, IntHashMap and LongHashMap
+ * with java.util.HashMap: building a map of size keys, looking up, removing and
+ * re-adding a random key, and iterating over every entry. Each map is only
+ * built for the benchmarks that use it, so the largest sizes fit in the
+ * heap.
+ * @author Ryan McAllister-Grum
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class MapBenchmark {
+
+    /** Keys holds the boxed keys and a rotating sequence of random ones.
+     */
+    @State(Scope.Thread)
+    public static class Keys {
+        // size holds the number of keys in the map.
+        @Param({"100", "10000", "1000000", "10000000"})
+        int size;
+
+        // keys holds the keys, boxed up front so boxing is not measured.
+        Integer[] keys;
+        // longKeys holds the keys spread over all 64 bits, for LongHashMap.
+        long[] longKeys;
+        // picks holds random indexes into keys.
+        int[] picks;
+        // next holds the position in picks.
+        int next;
+
+        /** setUp creates the keys.
+         */
+        @Setup(Level.Trial)
+        public void setUp() {
+            keys = new Integer[size];
+            longKeys = new long[size];
+            for (int i = 0; i < size; i++) {
+                keys[i] = i * 0x9E3779B1;
+                longKeys[i] = i * 0x9E3779B97F4A7C15L;
+            }
+            Random rng = new Random(size);
+            picks = new int[1 << 16];
+            for (int i = 0; i < picks.length; i++)
+                picks[i] = rng.nextInt(size);
+        }
+
+        /** pick returns the next random key.
+         *  @return A key that is in the map.
+         */
+        Integer pick() {
+            return keys[picks[next++ & (picks.length - 1)]];
+        }
+
+        /** pickLong returns the next random long key.
+         *  @return A key that is in the LongHashMap.
+         */
+        long pickLong() {
+            return longKeys[picks[next++ & (picks.length - 1)]];
+        }
+    }
+
+    /** Ours holds a full dataStructures.HashMap.
+     */
+    @State(Scope.Thread)
+    public static class Ours {
+        // map holds every key mapped to itself.
+        dataStructures.HashMap<Integer, Integer> map;
+
+        /** setUp fills the map.
+         *  @param keys The keys to add.
+         */
+        @Setup(Level.Trial)
+        public void setUp(Keys keys) {
+            map = new dataStructures.HashMap<>();
+            for (Integer key : keys.keys)
+                map.add(key, key);
+        }
+    }
+
+    /** OursInt holds a full dataStructures.IntHashMap.
+     */
+    @State(Scope.Thread)
+    public static class OursInt {
+        // map holds every key mapped to itself.
+        dataStructures.IntHashMap map;
+
+        /** setUp fills the map.
+         *  @param keys The keys to add.
+         */
+        @Setup(Level.Trial)
+        public void setUp(Keys keys) {
+            map = new dataStructures.IntHashMap();
+            for (Integer key : keys.keys)
+                map.add(key, key);
+        }
+    }
+
+    /** OursLong holds a full dataStructures.LongHashMap.
+     */
+    @State(Scope.Thread)
+    public static class OursLong {
+        // map holds every long key mapped to the boxed int key.
+        dataStructures.LongHashMap map;
+
+        /** setUp fills the map.
+         *  @param keys The keys to add.
+         */
+        @Setup(Level.Trial)
+        public void setUp(Keys keys) {
+            map = new dataStructures.LongHashMap();
+            for (int i = 0; i < keys.size; i++)
+                map.add(keys.longKeys[i], keys.keys[i]);
+        }
+    }
+
+    /** Theirs holds a full java.util.HashMap.
+     */
+    @State(Scope.Thread)
+    public static class Theirs {
+        // map holds every key mapped to itself.
+        java.util.HashMap<Integer, Integer> map;
+
+        /** setUp fills the map.
+         *  @param keys The keys to add.
+         */
+        @Setup(Level.Trial)
+        public void setUp(Keys keys) {
+            map = new java.util.HashMap<>();
+            for (Integer key : keys.keys)
+                map.put(key, key);
+        }
+    }
+
+
+    /** oursAdd measures adding every key to an empty map.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Object oursAdd(Keys keys) {
+        dataStructures.HashMap<Integer, Integer> map = new dataStructures.HashMap<>();
+        for (Integer key : keys.keys)
+            map.add(key, key);
+        return map;
+    }
+
+    /** oursIntAdd measures adding every key to an empty IntHashMap.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Object oursIntAdd(Keys keys) {
+        dataStructures.IntHashMap map = new dataStructures.IntHashMap();
+        for (Integer key : keys.keys)
+            map.add(key, key);
+        return map;
+    }
+
+    /** oursLongAdd measures adding every key to an empty LongHashMap.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Object oursLongAdd(Keys keys) {
+        dataStructures.LongHashMap map = new dataStructures.LongHashMap();
+        for (int i = 0; i < keys.size; i++)
+            map.add(keys.longKeys[i], keys.keys[i]);
+        return map;
+    }
+
+    /** theirsPut measures putting every key in an empty map.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Object theirsPut(Keys keys) {
+        java.util.HashMap<Integer, Integer> map = new java.util.HashMap<>();
+        for (Integer key : keys.keys)
+            map.put(key, key);
+        return map;
+    }
+
+    /** oursGet measures looking up a random key.
+     */
+    @Benchmark
+    public Object oursGet(Keys keys, Ours ours) {
+        return ours.map.get(keys.pick());
+    }
+
+    /** oursIntGet measures looking up a random key in an IntHashMap.
+     */
+    @Benchmark
+    public Object oursIntGet(Keys keys, OursInt ours) {
+        return ours.map.get(keys.pick());
+    }
+
+    /** oursLongGet measures looking up a random key in a LongHashMap.
+     */
+    @Benchmark
+    public Object oursLongGet(Keys keys, OursLong ours) {
+        return ours.map.get(keys.pickLong());
+    }
+
+    /** theirsGet measures looking up a random key.
+     */
+    @Benchmark
+    public Object theirsGet(Keys keys, Theirs theirs) {
+        return theirs.map.get(keys.pick());
+    }
+
+    /** oursRemoveAdd measures removing a random key and adding it again.
+     */
+    @Benchmark
+    public boolean oursRemoveAdd(Keys keys, Ours ours) {
+        Integer key = keys.pick();
+        ours.map.remove(key);
+        return ours.map.add(key, key);
+    }
+
+    /** oursIntRemoveAdd measures removing a random key from an IntHashMap
+     *  and adding it again.
+     */
+    @Benchmark
+    public boolean oursIntRemoveAdd(Keys keys, OursInt ours) {
+        Integer key = keys.pick();
+        ours.map.remove(key);
+        return ours.map.add(key, key);
+    }
+
+    /** oursLongRemoveAdd measures removing a random key from a LongHashMap
+     *  and adding it again.
+     */
+    @Benchmark
+    public boolean oursLongRemoveAdd(Keys keys, OursLong ours) {
+        long key = keys.pickLong();
+        Object value = ours.map.get(key);
+        ours.map.remove(key);
+        return ours.map.add(key, value);
+    }
+
+    /** theirsRemovePut measures removing a random key and putting it again.
+     */
+    @Benchmark
+    public Object theirsRemovePut(Keys keys, Theirs theirs) {
+        Integer key = keys.pick();
+        theirs.map.remove(key);
+        return theirs.map.put(key, key);
+    }
+
+    /** oursIterate measures visiting every entry.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void oursIterate(Ours ours, Blackhole sink) {
+        dataStructures.MapIterator iter = ours.map.mapIterator();
+        while (iter.hasNext()) {
+            sink.consume(iter.getCurrentKey());
+            sink.consume(iter.getCurrent());
+            iter.next();
+        }
+    }
+
+    /** oursIntIterate measures visiting every entry of an IntHashMap.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void oursIntIterate(OursInt ours, Blackhole sink) {
+        dataStructures.IntHashMap.IntHashMapIterator iter = ours.map.iterator();
+        while (iter.hasNext()) {
+            sink.consume(iter.getCurrentKey());
+            sink.consume(iter.getCurrent());
+            iter.next();
+        }
+    }
+
+    /** oursLongIterate measures visiting every entry of a LongHashMap.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void oursLongIterate(OursLong ours, Blackhole sink) {
+        dataStructures.LongHashMap.LongHashMapIterator iter = ours.map.iterator();
+        while (iter.hasNext()) {
+            sink.consume(iter.getCurrentKey());
+            sink.consume(iter.getCurrent());
+            iter.next();
+        }
+    }
+
+    /** theirsIterate measures visiting every entry.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void theirsIterate(Theirs theirs, Blackhole sink) {
+        for (java.util.Map.Entry<Integer, Integer> entry : theirs.map.entrySet()) {
+            sink.consume(entry.getKey());
+            sink.consume(entry.getValue());
+        }
+    }
+}
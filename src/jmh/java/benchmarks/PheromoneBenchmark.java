@@ -0,0 +1,51 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * PheromoneBenchmark measures the daily pheromone decay over a side x side
+ * ColonyGrid. The grid is refilled with random levels before every
+ * iteration, so that decay does not reach all zeroes partway through.
+ * @author Ryan McAllister-Grum
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class PheromoneBenchmark {
+    // side holds the width and height of the grid.
+    @Param({"256", "1024", "4096"})
+    int side;
+
+    // grid holds the ColonyGrid being benchmarked.
+    private Object grid;
+
+
+    /** setUp fills a fresh grid with random pheromone levels.
+     */
+    @Setup(Level.Iteration)
+    public void setUp() throws Throwable {
+        grid = Sim.grid(side, side, side);
+    }
+
+    /** decay measures one day's decay of every cell's pheromone.
+     */
+    @Benchmark
+    public void decay() throws Throwable {
+        Sim.GRID_DECAY_PHEROMONE.invoke(grid);
+    }
+}
@@ -0,0 +1,144 @@
+package benchmarks;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import dataStructures.LinkedQueue;
+import dataStructures.LinkedStack;
+
+/**
+ * QueueBenchmark compares dataStructures.LinkedQueue and LinkedStack with
+ * java.util.ArrayDeque used as a queue and as a stack: filling with size
+ * items and draining again, and one add and remove on a collection that
+ * holds size items.
+ * @author Ryan McAllister-Grum
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class QueueBenchmark {
+    // size holds the number of items in each collection.
+    @Param({"100", "10000", "1000000", "10000000"})
+    int size;
+
+    // items holds the items, boxed up front so boxing is not measured.
+    private Integer[] items;
+    // queue holds a LinkedQueue of size items.
+    private LinkedQueue queue;
+    // stack holds a LinkedStack of size items.
+    private LinkedStack stack;
+    // deque holds an ArrayDeque of size items.
+    private ArrayDeque<Integer> deque;
+
+
+    /** setUp creates the items and fills each collection.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        items = new Integer[size];
+        queue = new LinkedQueue();
+        stack = new LinkedStack();
+        deque = new ArrayDeque<>();
+        for (int i = 0; i < size; i++) {
+            items[i] = i;
+            queue.enqueue(items[i]);
+            stack.push(items[i]);
+            deque.addLast(items[i]);
+        }
+    }
+
+    /** queueFillDrain measures enqueueing every item and dequeueing them.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void queueFillDrain(Blackhole sink) {
+        LinkedQueue fresh = new LinkedQueue();
+        for (Integer item : items)
+            fresh.enqueue(item);
+        while (!fresh.isEmpty())
+            sink.consume(fresh.dequeue());
+    }
+
+    /** dequeFillDrainFifo measures adding every item at the tail and
+     *  polling them from the head.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void dequeFillDrainFifo(Blackhole sink) {
+        ArrayDeque<Integer> fresh = new ArrayDeque<>();
+        for (Integer item : items)
+            fresh.addLast(item);
+        while (!fresh.isEmpty())
+            sink.consume(fresh.pollFirst());
+    }
+
+    /** stackFillDrain measures pushing every item and popping them.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void stackFillDrain(Blackhole sink) {
+        LinkedStack fresh = new LinkedStack();
+        for (Integer item : items)
+            fresh.push(item);
+        while (!fresh.isEmpty())
+            sink.consume(fresh.pop());
+    }
+
+    /** dequeFillDrainLifo measures pushing every item and popping them.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void dequeFillDrainLifo(Blackhole sink) {
+        ArrayDeque<Integer> fresh = new ArrayDeque<>();
+        for (Integer item : items)
+            fresh.push(item);
+        while (!fresh.isEmpty())
+            sink.consume(fresh.pop());
+    }
+
+    /** queueCycle measures moving the head of the full queue to its tail.
+     */
+    @Benchmark
+    public boolean queueCycle() {
+        return queue.enqueue(queue.dequeue());
+    }
+
+    /** dequeCycle measures moving the head of the full deque to its tail.
+     */
+    @Benchmark
+    public boolean dequeCycle() {
+        return deque.offerLast(deque.pollFirst());
+    }
+
+    /** stackCycle measures popping the top of the full stack and pushing
+     *  it back.
+     */
+    @Benchmark
+    public boolean stackCycle() {
+        return stack.push(stack.pop());
+    }
+
+    /** dequeStackCycle measures popping the top of the full deque and
+     *  pushing it back.
+     */
+    @Benchmark
+    public Integer dequeStackCycle() {
+        deque.push(deque.pop());
+        return deque.peek();
+    }
+}
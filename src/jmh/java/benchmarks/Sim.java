@@ -0,0 +1,266 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Sim gives the benchmarks access to the simulation classes. Those live in
+ * the default package, which a named package cannot import, so Sim looks
+ * them up by name once and calls them through MethodHandles held in static
+ * final fields, which the JIT compiles down to direct calls.
+ * @author Ryan McAllister-Grum
+ */
+final class Sim {
+    // TURNS_TO_YEAR mirrors Colony.TURNS_TO_YEAR, the lifespan of an ant.
+    static final Integer TURNS_TO_YEAR = 365 * 10;
+
+    // LOOKUP turns the reflected members below into MethodHandles.
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    // The simulation classes, loaded by name.
+    static final Class<?> COLONY = type("Colony");
+    static final Class<?> COLONY_NODE = type("ColonyNode");
+    static final Class<?> COLONY_GRID = type("ColonyGrid");
+    static final Class<?> ANT = type("Ant");
+    static final Class<?> FORAGER = type("Forager");
+    static final Class<?> SOLDIER = type("Soldier");
+    static final Class<?> BALA = type("Bala");
+
+    // Handles to the simulation's constructors, methods and fields.
+    private static final MethodHandle NEW_COLONY =
+        constructor(COLONY, Integer.class, Integer.class, Long.class);
+    private static final MethodHandle NEW_FORAGER =
+        constructor(FORAGER, COLONY, Integer.class, Integer.class, Integer.class, Integer.class);
+    private static final MethodHandle NEW_SOLDIER =
+        constructor(SOLDIER, COLONY, Integer.class, Integer.class, Integer.class, Integer.class);
+    private static final MethodHandle NEW_BALA =
+        constructor(BALA, COLONY, Integer.class, Integer.class, Integer.class, Integer.class);
+
+    private static final MethodHandle RESET = method(COLONY, "reset");
+    private static final MethodHandle PROCESS_TURN = method(COLONY, "processTurn");
+    private static final MethodHandle SET_THREADS = method(COLONY, "setThreads", Integer.class);
+    private static final MethodHandle SET_FLOW_FIELD_RETURN =
+        method(COLONY, "setFlowFieldReturn", Boolean.class);
+    private static final MethodHandle GET_NEXT_ID = method(COLONY, "getNextId");
+    private static final MethodHandle ADD_ANT = method(COLONY, "addAnt", ANT);
+    private static final MethodHandle GET_COLONY_NODE =
+        method(COLONY, "getColonyNode", Integer.class, Integer.class);
+    private static final MethodHandle GET_GRID = method(COLONY, "getGrid");
+    private static final MethodHandle DEAD_ANTS = field(COLONY, "deadAnts");
+    private static final MethodHandle CLEAR_QUEUE = method(type("dataStructures.LinkedQueue"), "clear");
+
+    private static final MethodHandle NEW_GRID = constructor(COLONY_GRID, int.class, int.class);
+    private static final MethodHandle GRID_SIZE = method(COLONY_GRID, "size");
+    private static final MethodHandle GRID_SET_PHEROMONE =
+        method(COLONY_GRID, "setPheromone", int.class, int.class);
+    static final MethodHandle GRID_DECAY_PHEROMONE = method(COLONY_GRID, "decayPheromone");
+    static final MethodHandle GRID_SET_PHEROMONE_DIFFUSION =
+        method(COLONY_GRID, "setPheromoneDiffusion", double.class, double.class);
+    static final MethodHandle GRID_DIFFUSE_PHEROMONE =
+        method(COLONY_GRID, "diffusePheromone", ForkJoinPool.class);
+    private static final MethodHandle GRID_SET_REVEALED =
+        method(COLONY_GRID, "setRevealed", int.class, boolean.class);
+
+    private static final MethodHandle ADD_FOOD = method(COLONY_NODE, "addFood", Integer.class);
+    static final MethodHandle ADD_FRIENDLY_ANT = method(COLONY_NODE, "addFriendlyAnt", ANT);
+    static final MethodHandle REMOVE_FRIENDLY_ANT = method(COLONY_NODE, "removeFriendlyAnt", ANT);
+
+    static final MethodHandle FORAGER_MOVE = method(FORAGER, "move", Random.class);
+    static final MethodHandle FORAGER_AVOID_LOOP =
+        method(FORAGER, "avoidLoop", Integer.class, Integer.class, Random.class);
+    static final MethodHandle FORAGER_REMOVE_LOOP = method(FORAGER, "removeLoop");
+    static final MethodHandle SOLDIER_MOVE = method(SOLDIER, "move", Random.class);
+    static final MethodHandle BALA_TAKE_ACTION = method(BALA, "takeAction", Random.class);
+    static final MethodHandle GET_LOCATION_X = method(ANT, "getLocationX");
+    static final MethodHandle GET_LOCATION_Y = method(ANT, "getLocationY");
+
+
+    /** Sim is not meant to be instantiated.
+     */
+    private Sim() {
+    }
+
+    /** colony creates a headless Colony, resets it to the normal starting
+     *  state, reveals every node, and gives the Queen enough food that she
+     *  does not starve while being benchmarked.
+     *  @param width The Colony's width.
+     *  @param height The Colony's height.
+     *  @param seed The Colony's seed.
+     *  @return The new Colony.
+     */
+    static Object colony(int width, int height, long seed) throws Throwable {
+        Object colony = NEW_COLONY.invoke((Integer) width, (Integer) height, (Long) seed);
+        RESET.invoke(colony);
+        Object grid = GET_GRID.invoke(colony);
+        int size = (int) GRID_SIZE.invoke(grid);
+        for (int i = 0; i < size; i++)
+            GRID_SET_REVEALED.invoke(grid, i, true);
+        ADD_FOOD.invoke(node(colony, width / 2, height / 2), (Integer) 100_000_000);
+        return colony;
+    }
+
+    /** grid creates a ColonyGrid whose cells hold random pheromone levels
+     *  up to 1000.
+     *  @param width The grid's width.
+     *  @param height The grid's height.
+     *  @param seed The seed for the pheromone levels.
+     *  @return The new ColonyGrid.
+     */
+    static Object grid(int width, int height, long seed) throws Throwable {
+        Object grid = NEW_GRID.invoke(width, height);
+        Random rng = new Random(seed);
+        for (int i = 0; i < width * height; i++)
+            GRID_SET_PHEROMONE.invoke(grid, i, rng.nextInt(1001));
+        return grid;
+    }
+
+    /** processTurn runs one turn of colony.
+     *  @param colony The Colony.
+     */
+    static void processTurn(Object colony) throws Throwable {
+        PROCESS_TURN.invoke(colony);
+    }
+
+    /** setThreads sets the number of worker threads of colony.
+     *  @param colony The Colony.
+     *  @param threads The number of threads, 0 for none.
+     */
+    static void setThreads(Object colony, int threads) throws Throwable {
+        SET_THREADS.invoke(colony, (Integer) threads);
+    }
+
+    /** setFlowFieldReturn sets whether the Foragers of colony follow the
+     *  Queen's flow field home.
+     *  @param colony The Colony.
+     *  @param useFlowField Whether to follow the flow field.
+     */
+    static void setFlowFieldReturn(Object colony, boolean useFlowField) throws Throwable {
+        SET_FLOW_FIELD_RETURN.invoke(colony, (Boolean) useFlowField);
+    }
+
+    /** node returns the x,y ColonyNode of colony.
+     *  @param colony The Colony.
+     *  @param x The node's x-coordinate.
+     *  @param y The node's y-coordinate.
+     *  @return The ColonyNode.
+     */
+    static Object node(Object colony, int x, int y) throws Throwable {
+        return GET_COLONY_NODE.invoke(colony, (Integer) x, (Integer) y);
+    }
+
+    /** forager creates a Forager at x,y and adds it to colony.
+     *  @param colony The Colony.
+     *  @param x The Forager's x-coordinate.
+     *  @param y The Forager's y-coordinate.
+     *  @return The new Forager.
+     */
+    static Object forager(Object colony, int x, int y) throws Throwable {
+        return add(colony, NEW_FORAGER, x, y);
+    }
+
+    /** soldier creates a Soldier at x,y and adds it to colony.
+     *  @param colony The Colony.
+     *  @param x The Soldier's x-coordinate.
+     *  @param y The Soldier's y-coordinate.
+     *  @return The new Soldier.
+     */
+    static Object soldier(Object colony, int x, int y) throws Throwable {
+        return add(colony, NEW_SOLDIER, x, y);
+    }
+
+    /** bala creates a Bala at x,y and adds it to colony.
+     *  @param colony The Colony.
+     *  @param x The Bala's x-coordinate.
+     *  @param y The Bala's y-coordinate.
+     *  @return The new Bala.
+     */
+    static Object bala(Object colony, int x, int y) throws Throwable {
+        return add(colony, NEW_BALA, x, y);
+    }
+
+    /** clearDead empties colony's queue of dead ants without removing
+     *  them, so benchmarks that kill ants do not pile up garbage.
+     *  @param colony The Colony.
+     */
+    static void clearDead(Object colony) throws Throwable {
+        CLEAR_QUEUE.invoke(DEAD_ANTS.invoke(colony));
+    }
+
+    /** add creates an ant with the given constructor and adds it to colony.
+     *  @param colony The Colony.
+     *  @param constructor The ant type's constructor.
+     *  @param x The ant's x-coordinate.
+     *  @param y The ant's y-coordinate.
+     *  @return The new ant.
+     */
+    private static Object add(Object colony, MethodHandle constructor, int x, int y) throws Throwable {
+        Object ant = constructor.invoke(
+            colony, (Integer) GET_NEXT_ID.invoke(colony), TURNS_TO_YEAR, (Integer) x, (Integer) y
+        );
+        ADD_ANT.invoke(colony, ant);
+        return ant;
+    }
+
+    /** type loads a simulation class by name.
+     *  @param name The class's binary name.
+     *  @return The class.
+     */
+    private static Class<?> type(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /** constructor looks up a constructor, whatever its access.
+     *  @param type The class to construct.
+     *  @param parameters The constructor's parameter types.
+     *  @return A MethodHandle for the constructor.
+     */
+    private static MethodHandle constructor(Class<?> type, Class<?>... parameters) {
+        try {
+            Constructor<?> constructor = type.getDeclaredConstructor(parameters);
+            constructor.setAccessible(true);
+            return LOOKUP.unreflectConstructor(constructor);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /** method looks up a method, whatever its access.
+     *  @param type The class declaring the method.
+     *  @param name The method's name.
+     *  @param parameters The method's parameter types.
+     *  @return A MethodHandle for the method.
+     */
+    private static MethodHandle method(Class<?> type, String name, Class<?>... parameters) {
+        try {
+            Method method = type.getDeclaredMethod(name, parameters);
+            method.setAccessible(true);
+            return LOOKUP.unreflect(method);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /** field looks up a getter for a field, whatever its access.
+     *  @param type The class declaring the field.
+     *  @param name The field's name.
+     *  @return A MethodHandle reading the field.
+     */
+    private static MethodHandle field(Class<?> type, String name) {
+        try {
+            Field field = type.getDeclaredField(name);
+            field.setAccessible(true);
+            return LOOKUP.unreflectGetter(field);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}
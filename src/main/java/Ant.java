@@ -1,3 +1,8 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Random;
+
 /**
  * Ant is the overarching superclass for the different ant types
  * (Queen, Forager, Scout, Soldier, Bala).
@@ -18,29 +23,41 @@ public class Ant implements Comparable {
     // Dead flags whether the ant is dead; used for skipping their turn
     // and eventual cleanup.
     private Boolean dead;
-    // Colony is a static reference to the ant colony for all Ant's use.
-    protected static Colony COLONY;
+    // Colony is a reference to the ant colony this Ant lives in.
+    private final Colony colony;
     // ColonyNode is a convenience attribute to the Ant's current ColonyNode location.
     private ColonyNode node;
+    // slot holds the Ant's index in its ColonyNode's AntSet, or -1.
+    private int slot;
+    // stream is this Ant's own source of random numbers for parallel turns,
+    // derived from the Colony's seed and the Ant's id; created on first use.
+    private ColonyRandom stream;
+    // effects collects the changes this Ant makes to the shared colony
+    // while its turn is worked out in parallel; null when changes are
+    // made straight away.
+    private TurnEffects effects;
     
     
     /** Constructor that creates a new Ant at the given x,y location with
      * with the given max turn age and id.
+     * @param newColony The Colony the ant lives in.
      * @param id The ant's new unique ID.
      * @param maxTurnAge The ant's maximum turn age before they die of old age.
      * @param newLocationX The ant's initial x-coordinate location in the colony.
      * @param newLocationY The ant's initial y-coordinate location in the colony.
      * @return The new Ant object.
      */
-    Ant(Integer id, Integer maxTurnAge, Integer newLocationX, Integer newLocationY) {
+    Ant(Colony newColony, Integer id, Integer maxTurnAge, Integer newLocationX, Integer newLocationY) {
         // Create new Ant.
+        colony = newColony;
         this.id = id;
         locationX = newLocationX;
         locationY = newLocationY;
         turnAge = 0;
         this.maxTurnAge = maxTurnAge;
         dead = false;
-        node = COLONY.getColonyNode(locationX, locationY);
+        node = colony.getColonyNode(locationX, locationY);
+        slot = -1;
     }
     
     /** Kill destroys an Ant by flagging it as dead and adding it to the
@@ -48,7 +65,31 @@ public class Ant implements Comparable {
      */
     void kill() {
         dead = true;
-        COLONY.addDead(this);
+        if (effects == null)
+            colony.addDead(this);
+        else
+            effects.dead(this);
+    }
+    
+    /** takeAction processes a turn for this Ant. Each Ant type overrides
+     *  it with its own behaviour.
+     *  @param rng Random used as part of adding random probability to actions.
+     */
+    void takeAction(Random rng) {
+    }
+    
+    /** takeTurn processes a turn for this Ant as part of a parallel turn:
+     *  the Ant uses its own random number stream, and its changes to the
+     *  shared colony are recorded in log instead of being made.
+     *  @param log The TurnEffects to record this Ant's changes in.
+     */
+    void takeTurn(TurnEffects log) {
+        effects = log;
+        try {
+            takeAction(getStream());
+        } finally {
+            effects = null;
+        }
     }
     
     /** Move relocates an Ant to a new ColonyNode based on its xy-coordinates.
@@ -56,12 +97,7 @@ public class Ant implements Comparable {
      * @param newLocationY The Y-coordinate of the new ColonyNode.
      */
     protected void move(Integer newLocationX, Integer newLocationY) {
-        // Depending on the Ant type, remove it from the appropriate
-        // enemy or friendly Ant collection in the ColonyNode.
-        if (this instanceof Bala)
-            getNode().removeBala((Bala) this);
-        else
-            getNode().removeFriendlyAnt(this);
+        ColonyNode from = getNode();
         
         // Set the new coordinates for the ant.
         locationX = newLocationX;
@@ -70,13 +106,58 @@ public class Ant implements Comparable {
         // Fetch the new ColonyNode for ease of reference.
         setNode();
         
-        
-        // Depending on the Ant type, add it to the appropriate
-        // enemy or friendly Ant collection in the ColonyNode.
-        if (this instanceof Bala)
-            getNode().addBala((Bala) this);
+        if (effects == null)
+            relocate(from);
         else
+            effects.move(this, from);
+    }
+    
+    /** relocate moves this Ant from the given ColonyNode's collections into
+     *  those of the ColonyNode it is now in.
+     *  @param from The ColonyNode the Ant has left.
+     */
+    void relocate(ColonyNode from) {
+        // Depending on the Ant type, remove it from the appropriate
+        // enemy or friendly Ant collection in the ColonyNode,
+        // then add it to the same collection in its new ColonyNode.
+        if (this instanceof Bala) {
+            from.removeBala((Bala) this);
+            getNode().addBala((Bala) this);
+        } else {
+            from.removeFriendlyAnt(this);
             getNode().addFriendlyAnt(this);
+        }
+    }
+    
+    /** killAnt kills another Ant, for Ants that attack.
+     *  @param target The Ant to kill.
+     */
+    protected void killAnt(Ant target) {
+        if (effects == null)
+            target.kill();
+        else
+            effects.kill(target);
+    }
+    
+    /** addFood adds food to a ColonyNode on this Ant's behalf.
+     *  @param colonyNode The ColonyNode receiving the food.
+     *  @param amount The amount of food to add.
+     */
+    protected void addFood(ColonyNode colonyNode, Integer amount) {
+        if (effects == null)
+            colonyNode.addFood(amount);
+        else
+            effects.addFood(colonyNode, amount);
+    }
+    
+    /** reveal reveals a hidden ColonyNode on this Ant's behalf.
+     *  @param colonyNode The ColonyNode to reveal.
+     */
+    protected void reveal(ColonyNode colonyNode) {
+        if (effects == null)
+            colonyNode.revealNode();
+        else
+            effects.reveal(colonyNode);
     }
     
     
@@ -133,18 +214,76 @@ public class Ant implements Comparable {
     
     /** getColony returns the attribute Colony for internal (to the Ant's)
      *  access to its methods.
-     *  @return The COLONY attribute.
+     *  @return The colony attribute.
      */
     protected Colony getColony() {
-        return COLONY;
+        return colony;
+    }
+    
+    /** getEffects returns where this Ant's changes to the shared colony are
+     *  being recorded during a parallel turn.
+     *  @return The Ant's effects attribute, or null outside parallel turns.
+     */
+    protected TurnEffects getEffects() {
+        return effects;
+    }
+    
+    /** getStream returns this Ant's own random number stream, creating it
+     *  from the Colony's seed and the Ant's id on first use, so the Ant
+     *  draws the same numbers whichever thread runs its turn.
+     *  @return The Ant's stream attribute.
+     */
+    ColonyRandom getStream() {
+        if (stream == null)
+            stream = new ColonyRandom(mix(colony.getSeed() + (id + 1) * 0x9E3779B97F4A7C15L));
+        return stream;
+    }
+    
+    /** mix scrambles the bits of a seed so that neighbouring Ant ids get
+     *  unrelated random number streams (SplitMix64 finalizer).
+     *  @param z The value to scramble.
+     *  @return The scrambled value.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
     }
     
-    /** setColony sets the static attribute Colony so that each Ant can
-     *  reference the overarching Colony's methods.
-     *  @param colony The new Colony.
+    /** writeState writes the parts of this Ant's state that change as it
+     *  lives (its age, whether it is dead and its random number stream) to
+     *  a Colony snapshot. Ant types with more state add theirs after it.
+     *  @param out Where to write the state.
+     *  @throws IOException If the state cannot be written.
      */
-    static protected void setColony(Colony colony) {
-        COLONY = colony;
+    void writeState(DataOutput out) throws IOException {
+        out.writeInt(turnAge);
+        out.writeBoolean(dead);
+        out.writeBoolean(stream != null);
+        if (stream != null)
+            out.writeLong(stream.getState());
+    }
+    
+    /** readState reads back what writeState wrote into a newly created Ant.
+     *  @param in Where to read the state from.
+     *  @throws IOException If the state cannot be read.
+     */
+    void readState(DataInput in) throws IOException {
+        turnAge = in.readInt();
+        dead = in.readBoolean();
+        if (in.readBoolean())
+            getStream().setState(in.readLong());
+    }
+    
+    /** copyState gives this newly created Ant the state writeState would
+     *  write for another Ant of the same kind, for forking a Colony.
+     *  @param other The Ant to copy.
+     */
+    void copyState(Ant other) {
+        turnAge = other.turnAge;
+        dead = other.dead;
+        if (other.stream != null)
+            getStream().setState(other.stream.getState());
     }
     
     /** getNode returns this Ant's ColonyNode.
@@ -154,10 +293,24 @@ public class Ant implements Comparable {
         return node;
     }
     
+    /** getSlot returns this Ant's index in its ColonyNode's AntSet.
+     *  @return The Ant's slot attribute, or -1 if it is in no AntSet.
+     */
+    int getSlot() {
+        return slot;
+    }
+    
+    /** setSlot records this Ant's index in its ColonyNode's AntSet.
+     *  @param newSlot The Ant's new slot, or -1 if it is in no AntSet.
+     */
+    void setSlot(int newSlot) {
+        slot = newSlot;
+    }
+    
     /** setNode sets this Ant's ColonyNode.
      */
     private void setNode() {
-        node = COLONY.getColonyNode(locationX, locationY);
+        node = colony.getColonyNode(locationX, locationY);
     }
     
     
@@ -0,0 +1,74 @@
+import java.util.Arrays;
+
+/**
+ * AntList holds the Colony's Ants of one type in the order they take their
+ * turns. Dead Ants are not taken out one by one; removeDead drops all of
+ * them in a single pass once a turn is over, so however many Ants die in a
+ * turn, removing them costs one walk over the list.
+ * @author Ryan McAllister-Grum
+ */
+final class AntList {
+    // ants holds the Ants in positions 0 to size - 1.
+    private Ant[] ants;
+    // size holds the number of Ants in the list.
+    private int size;
+
+
+    /** Default AntList constructor with room for a few Ants.
+     */
+    AntList() {
+        ants = new Ant[16];
+        size = 0;
+    }
+
+    /** add appends ant to the end of the list.
+     *  @param ant The Ant to add.
+     */
+    void add(Ant ant) {
+        if (size == ants.length)
+            ants = Arrays.copyOf(ants, size * 2);
+        ants[size++] = ant;
+    }
+
+    /** get returns the Ant at the given position.
+     *  @param index The position, from 0 to size() - 1.
+     *  @return The Ant at that position.
+     */
+    Ant get(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException(
+                "Error while getting Ant from AntList: index " + index
+                + " is out of bounds for size " + size + "!"
+            );
+        return ants[index];
+    }
+
+    /** removeDead removes every dead Ant from the list, keeping the order
+     *  of the Ants that are left.
+     *  @return The number of Ants removed.
+     */
+    int removeDead() {
+        int kept = 0;
+        for (int i = 0; i < size; i++)
+            if (!ants[i].isDead())
+                ants[kept++] = ants[i];
+        Arrays.fill(ants, kept, size, null);
+        int removed = size - kept;
+        size = kept;
+        return removed;
+    }
+
+    /** size returns the number of Ants in this list.
+     *  @return The size attribute.
+     */
+    int size() {
+        return size;
+    }
+
+    /** isEmpty returns whether this list has no Ants.
+     *  @return Whether size is zero.
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+}
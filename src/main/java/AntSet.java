@@ -0,0 +1,103 @@
+import java.util.Arrays;
+
+/**
+ * AntSet holds the Ants in one ColonyNode. Every Ant remembers its slot in
+ * the AntSet it belongs to, so adding, removing, checking membership and
+ * fetching the Ant at a given index all take constant time however crowded
+ * the node is. Removing an Ant moves the last Ant into its slot, so the
+ * order of the Ants is not kept.
+ * @author Ryan McAllister-Grum
+ */
+final class AntSet {
+    // ants holds the Ants in slots 0 to size - 1.
+    private Ant[] ants;
+    // size holds the number of Ants in the set.
+    private int size;
+
+
+    /** Default AntSet constructor with room for a few Ants.
+     */
+    AntSet() {
+        ants = new Ant[4];
+        size = 0;
+    }
+
+    /** add adds ant to the set, unless it is already in it.
+     *  @param ant The Ant to add.
+     *  @return Whether ant was added.
+     */
+    boolean add(Ant ant) {
+        if (contains(ant))
+            return false;
+        if (size == ants.length)
+            ants = Arrays.copyOf(ants, size * 2);
+        ants[size] = ant;
+        ant.setSlot(size);
+        size++;
+        return true;
+    }
+
+    /** remove removes ant from the set by moving the last Ant into its slot.
+     *  @param ant The Ant to remove.
+     *  @return Whether ant was in the set.
+     */
+    boolean remove(Ant ant) {
+        if (!contains(ant))
+            return false;
+        int slot = ant.getSlot();
+        size--;
+        if (slot != size) {
+            ants[slot] = ants[size];
+            ants[slot].setSlot(slot);
+        }
+        ants[size] = null;
+        ant.setSlot(-1);
+        return true;
+    }
+
+    /** contains returns whether ant is in this set.
+     *  @param ant The Ant to look for.
+     *  @return Whether ant is in the set.
+     */
+    boolean contains(Ant ant) {
+        int slot = ant.getSlot();
+        return slot >= 0 && slot < size && ants[slot] == ant;
+    }
+
+    /** get returns the Ant in the given slot.
+     *  @param index The slot, from 0 to size() - 1.
+     *  @return The Ant in that slot.
+     */
+    Ant get(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException(
+                "Error while getting Ant from AntSet: index " + index
+                + " is out of bounds for size " + size + "!"
+            );
+        return ants[index];
+    }
+
+    /** size returns the number of Ants in this set.
+     *  @return The size attribute.
+     */
+    int size() {
+        return size;
+    }
+
+    /** isEmpty returns whether this set has no Ants.
+     *  @return Whether size is zero.
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** clear removes every Ant from this set.
+     */
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            ants[i].setSlot(-1);
+            ants[i] = null;
+        }
+        size = 0;
+    }
+}
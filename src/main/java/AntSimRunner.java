@@ -1,8 +1,118 @@
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
 /** AntSimRunner is a class dedicated to running Java's main() method.
+ *  With no arguments the Swing Simulation is started. Passing --headless
+ *  instead runs a Colony without any GUI until the Queen dies or the turn
+ *  limit is reached, and --runs N runs a batch of N such Colonies (see
+ *  BatchRunner). See SimulationConfig for the supported options.
  * @author Ryan McAllister-Grum
  */
 public class AntSimRunner {
     public static void main(String[] args) {
-        Simulation sim = new Simulation();
+        SimulationConfig config = SimulationConfig.parse(args);
+        if (config.getRuns() > 0)
+            BatchRunner.run(config);
+        else if (config.isHeadless())
+            runHeadless(config);
+        else {
+            Simulation sim = new Simulation(config.getWidth(), config.getHeight(), config.getSeed());
+        }
     }
-}
\ No newline at end of file
+
+    /** runHeadless runs a Colony without a display until the Queen dies
+     *  or the configured turn limit is reached, then reports the turn rate.
+     *  The seed and checksums are printed so a run can be repeated and
+     *  compared against an earlier one. A run carried on from a snapshot
+     *  keeps going until the Colony's turn counter reaches the limit.
+     *  @param config The settings for the run.
+     */
+    private static void runHeadless(SimulationConfig config) {
+        Colony colony;
+        if (config.getRestore() == null) {
+            colony = newColony(config.getWidth(), config.getHeight(), config.getSeed(),
+                config.getGridFile(), config.isOverwrite());
+            colony.setFlowFieldReturn(config.isFlowField());
+            colony.setPheromoneDiffusion(config.getEvaporation(), config.getDiffusion());
+            colony.setLazyFood(config.isLazyFood());
+            colony.reset();
+        } else {
+            colony = Colony.loadSnapshot(Paths.get(config.getRestore()),
+                gridPath(config.getGridFile(), config.isOverwrite()));
+            System.out.println("Restored turn " + colony.getTurnCounter() + " from " + config.getRestore());
+        }
+        colony.setThreads(config.getThreads());
+        System.out.println("Seed " + colony.getSeed());
+
+        Integer interval = config.getChecksumInterval();
+        Integer snapshotInterval = config.getSnapshotInterval();
+        Integer firstTurn = colony.getTurnCounter();
+        long start = System.nanoTime();
+        while (!colony.isQueenDead && colony.getTurnCounter() < config.getTurns()) {
+            colony.processTurn();
+            if (interval > 0 && colony.getTurnCounter() % interval == 0)
+                printChecksum(colony);
+            if (config.getSnapshot() != null && snapshotInterval > 0
+                && colony.getTurnCounter() % snapshotInterval == 0
+            )
+                colony.saveSnapshot(Paths.get(config.getSnapshot()), config.isCompress());
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        printChecksum(colony);
+        colony.flushGrid();
+        if (config.getSnapshot() != null)
+            colony.saveSnapshot(Paths.get(config.getSnapshot()), config.isCompress());
+
+        Integer turns = colony.getTurnCounter() - firstTurn;
+        System.out.println("Processed " + turns + " turns in "
+            + String.format("%.3f", seconds) + "s ("
+            + String.format("%.0f", turns / seconds) + " turns/s)"
+            + (colony.isQueenDead ? ", queen died." : "."));
+    }
+
+    /** newColony creates a headless Colony for a new run, keeping its grid
+     *  in the given file if there is one.
+     *  @param width The Colony's width.
+     *  @param height The Colony's height.
+     *  @param seed The Colony's seed.
+     *  @param gridFile The path of the grid file, or null to keep the grid
+     *  on the heap.
+     *  @param overwrite Whether an existing grid file may be reused.
+     *  @return The new Colony.
+     */
+    static Colony newColony(Integer width, Integer height, Long seed, String gridFile, Boolean overwrite) {
+        Path path = gridPath(gridFile, overwrite);
+        return path == null ? new Colony(width, height, seed) : new Colony(width, height, seed, path);
+    }
+
+    /** gridPath returns the path of the grid file for a new Colony. The
+     *  Colony clears the grid it finds in the file, so an existing file is
+     *  only reused when asked to; a file that is not a grid of the right
+     *  size is refused when it is opened rather than overwritten.
+     *  @param gridFile The path of the grid file, or null for none.
+     *  @param overwrite Whether an existing grid file may be reused.
+     *  @return The path, or null to keep the grid on the heap.
+     *  @throws IllegalArgumentException If the file exists and overwrite is
+     *  false.
+     */
+    private static Path gridPath(String gridFile, Boolean overwrite) {
+        if (gridFile == null)
+            return null;
+        Path path = Paths.get(gridFile);
+        if (!overwrite && Files.exists(path))
+            throw new IllegalArgumentException(
+                "Error while creating Colony: " + gridFile
+                + " already exists; pass --overwrite true to reuse it!"
+            );
+        return path;
+    }
+
+    /** printChecksum prints the Colony's current turn and checksum.
+     *  @param colony The Colony to print the checksum of.
+     */
+    private static void printChecksum(Colony colony) {
+        System.out.println("Turn " + colony.getTurnCounter() + " checksum "
+            + String.format("%016x", colony.checksum()));
+    }
+}
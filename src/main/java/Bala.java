@@ -10,14 +10,15 @@ final class Bala extends Ant {
     /** Constructor that creates a new Bala ant with
      *  the given unique id, maximum turn age, and x and y
      *  coordinate location.
+     *  @param colony The Colony the ant lives in.
      *  @param id The Bala's ant's unique ID.
      *  @param maxTurnAge The oldest this Bala ant can in turn counts.
      *  @param locationX The x-coordinate to spawn the Bala ant.
      *  @param locationY The y-coordinate to spawn the Bala ant.
      *  @return A reference to this new Bala ant.
      */
-    Bala(Integer id, Integer maxTurnAge, Integer locationX, Integer locationY) {
-        super(id, maxTurnAge, locationX, locationY);
+    Bala(Colony colony, Integer id, Integer maxTurnAge, Integer locationX, Integer locationY) {
+        super(colony, id, maxTurnAge, locationX, locationY);
     }
     
     /** Move moves this Bala ant around the Colony grid while using the
@@ -38,8 +39,8 @@ final class Bala extends Ant {
         }
         while (
             (nodeChoiceX.equals(getLocationX()) && nodeChoiceY.equals(getLocationY())) ||
-            nodeChoiceX < 0 || nodeChoiceY < 0 || nodeChoiceX >= COLONY.getColonyWidth() ||
-            nodeChoiceY >= COLONY.getColonyHeight()
+            nodeChoiceX < 0 || nodeChoiceY < 0 || nodeChoiceX >= getColony().getColonyWidth() ||
+            nodeChoiceY >= getColony().getColonyHeight()
         );
         
         // Move the Bala to the chosen node.
@@ -59,7 +60,7 @@ final class Bala extends Ant {
             Ant ant = getFriendlyAnt(rng);
             if (ant != null)
                 if (rng.nextInt(100) < 50)
-                    ant.kill();
+                    killAnt(ant);
         }
     }
     
@@ -75,6 +76,7 @@ final class Bala extends Ant {
     /** takeAction processes this Bala ant's turn.
      *  @param rng Used in adding probability and randomness to actions.
      */
+    @Override
     void takeAction(Random rng) {
         // Cannot do anything if dead.
         if (!isDead()) {
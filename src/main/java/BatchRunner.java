@@ -0,0 +1,170 @@
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * BatchRunner runs many independent headless Colonies at once on a pool of
+ * threads, each with its own seed, until their Queen dies or the turn limit
+ * is reached. One CSV row is written per run as soon as it finishes, and
+ * the overall throughput is reported in colony-turns per second.
+ * @author Ryan McAllister-Grum
+ */
+final class BatchRunner {
+    // CSV_HEADER holds the column names of the CSV output.
+    static final String CSV_HEADER =
+        "run,seed,width,height,turns,queenDied,peakPopulation,foodCollected,seconds";
+
+
+    /** BatchRunner is not meant to be instantiated.
+     */
+    private BatchRunner() {
+    }
+
+    /** run executes config.getRuns() Colonies on config.getRunThreads()
+     *  threads, writing their outcomes to config.getCsv(), or to standard
+     *  output if no CSV file is given. Run seeds are drawn from
+     *  config.getSeed(), so the same batch can be repeated.
+     *  @param config The settings for the batch.
+     */
+    static void run(SimulationConfig config) {
+        // Draw every run's seed up front so they do not depend on timing.
+        SplittableRandom seeds = new SplittableRandom(config.getSeed());
+        long[] runSeeds = new long[config.getRuns()];
+        for (Integer i = 0; i < runSeeds.length; i++)
+            runSeeds[i] = seeds.nextLong();
+
+        PrintStream csv = openCsv(config.getCsv());
+        PrintStream report = csv == System.out ? System.err : System.out;
+        csv.println(CSV_HEADER);
+
+        ExecutorService pool = Executors.newFixedThreadPool(config.getRunThreads());
+        CompletionService<Outcome> outcomes = new ExecutorCompletionService<>(pool);
+        long start = System.nanoTime();
+        for (Integer i = 0; i < runSeeds.length; i++) {
+            final Integer run = i;
+            outcomes.submit(() -> runColony(config, run, runSeeds[run]));
+        }
+
+        // Write each row as soon as its run is done.
+        long colonyTurns = 0;
+        try {
+            for (Integer i = 0; i < runSeeds.length; i++) {
+                Outcome outcome = outcomes.take().get();
+                csv.println(outcome.toCsv());
+                csv.flush();
+                colonyTurns += outcome.turns;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Error while running batch: interrupted!", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error while running batch: a run failed!", e.getCause());
+        } finally {
+            pool.shutdownNow();
+            if (csv != System.out)
+                csv.close();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        report.println("Ran " + runSeeds.length + " colonies, " + colonyTurns
+            + " colony-turns in " + String.format("%.3f", seconds) + "s ("
+            + String.format("%.0f", colonyTurns / seconds) + " colony-turns/s).");
+    }
+
+    /** runColony runs a single Colony until its Queen dies or the turn
+     *  limit is reached.
+     *  @param config The settings for the batch.
+     *  @param run The run's number within the batch.
+     *  @param seed The run's seed.
+     *  @return The run's Outcome.
+     */
+    private static Outcome runColony(SimulationConfig config, Integer run, Long seed) {
+        Colony colony = AntSimRunner.newColony(config.getWidth(), config.getHeight(), seed,
+            config.getGridFile() == null ? null : config.getGridFile() + "." + run, config.isOverwrite());
+        colony.setThreads(config.getThreads());
+        colony.setFlowFieldReturn(config.isFlowField());
+        colony.setPheromoneDiffusion(config.getEvaporation(), config.getDiffusion());
+        colony.setLazyFood(config.isLazyFood());
+        colony.reset();
+
+        long start = System.nanoTime();
+        Integer peakPopulation = colony.getPopulation();
+        try {
+            while (!colony.isQueenDead && colony.getTurnCounter() < config.getTurns()) {
+                colony.processTurn();
+                peakPopulation = Math.max(peakPopulation, colony.getPopulation());
+            }
+        } finally {
+            colony.setThreads(0);
+        }
+        colony.flushGrid();
+
+        Outcome outcome = new Outcome();
+        outcome.run = run;
+        outcome.seed = seed;
+        outcome.width = config.getWidth();
+        outcome.height = config.getHeight();
+        outcome.turns = colony.getTurnCounter();
+        outcome.queenDied = colony.isQueenDead;
+        outcome.peakPopulation = peakPopulation;
+        outcome.foodCollected = colony.getFoodCollected();
+        outcome.seconds = (System.nanoTime() - start) / 1e9;
+        return outcome;
+    }
+
+    /** openCsv opens the file the CSV rows are written to.
+     *  @param path The CSV file's path, or null for standard output.
+     *  @return The stream to write the rows to.
+     */
+    private static PrintStream openCsv(String path) {
+        if (path == null)
+            return System.out;
+        try {
+            return new PrintStream(new FileOutputStream(path), false, "UTF-8");
+        } catch (FileNotFoundException | UnsupportedEncodingException e) {
+            throw new IllegalArgumentException(
+                "Error while running batch: unable to write " + path + "!", e
+            );
+        }
+    }
+
+    /** Outcome holds the results of one run in a batch.
+     */
+    private static final class Outcome {
+        // run holds the run's number within the batch.
+        Integer run;
+        // seed holds the run's seed.
+        Long seed;
+        // width holds the colony width.
+        Integer width;
+        // height holds the colony height.
+        Integer height;
+        // turns holds the number of turns the colony survived.
+        Integer turns;
+        // queenDied flags whether the run ended with the Queen's death.
+        Boolean queenDied;
+        // peakPopulation holds the largest population reached.
+        Integer peakPopulation;
+        // foodCollected holds the food Foragers brought to the Queen.
+        Long foodCollected;
+        // seconds holds how long the run took.
+        Double seconds;
+
+        /** toCsv formats this Outcome as a CSV row matching CSV_HEADER.
+         *  @return The CSV row.
+         */
+        String toCsv() {
+            return run + "," + seed + "," + width + "," + height + "," + turns + ","
+                + queenDied + "," + peakPopulation + "," + foodCollected + ","
+                + String.format(Locale.ROOT, "%.3f", seconds);
+        }
+    }
+}
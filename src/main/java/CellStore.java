@@ -0,0 +1,177 @@
+import java.util.BitSet;
+
+/**
+ * CellStore holds the state of every cell of a ColonyGrid: its food,
+ * pheromone, occupancy counts and whether it has been revealed. Cells are
+ * addressed by their grid index and grouped into chunks of
+ * ColonyGrid.CHUNK_CELLS consecutive cells. A chunk is only given room the
+ * first time one of its cells is changed, and until then every cell in it
+ * is hidden, empty and unoccupied.
+ *
+ * HeapCellStore keeps the chunks in arrays on the Java heap, and
+ * MappedCellStore keeps them in a file mapped into memory.
+ * @author Ryan McAllister-Grum
+ */
+interface CellStore {
+    /** FoodSource spawns the food of a chunk the first time it is
+     *  allocated, so that food need not be laid down across the whole grid
+     *  in advance.
+     */
+    interface FoodSource {
+        /** spawn fills in the food of a newly allocated chunk. It may be
+         *  called from several threads at once, so it must work the food
+         *  out from first alone.
+         *  @param first The index of the chunk's first cell.
+         *  @param count The number of cells in the chunk.
+         *  @param food The chunk's food, indexed from first, to add the
+         *  spawned food to.
+         */
+        void spawn(int first, int count, int[] food);
+    }
+
+    /** isAllocated returns whether the chunk holding the given cell has
+     *  been allocated.
+     *  @param index The cell's index.
+     *  @return Whether the cell's chunk is allocated.
+     */
+    boolean isAllocated(int index);
+
+    /** allocate allocates the chunk holding the given cell, spawning its
+     *  food, unless it is allocated already. Several threads may allocate
+     *  the same chunk at once.
+     *  @param index The cell's index.
+     */
+    void allocate(int index);
+
+    /** getFood returns the amount of food in the given cell. With a
+     *  FoodSource, this allocates the cell's chunk, since until then its
+     *  food has not been spawned.
+     *  @param index The cell's index.
+     *  @return The cell's food.
+     */
+    int getFood(int index);
+
+    /** setFood sets the amount of food in the given cell.
+     *  @param index The cell's index.
+     *  @param amount The new amount of food.
+     */
+    void setFood(int index, int amount);
+
+    /** getPheromone returns the pheromone level of the given cell.
+     *  @param index The cell's index.
+     *  @return The cell's pheromone level.
+     */
+    int getPheromone(int index);
+
+    /** setPheromone sets the pheromone level of the given cell.
+     *  @param index The cell's index.
+     *  @param level The new pheromone level.
+     */
+    void setPheromone(int index, int level);
+
+    /** getFriendlyCount returns the number of non-Bala ants in the cell.
+     *  @param index The cell's index.
+     *  @return The cell's friendly ant count.
+     */
+    int getFriendlyCount(int index);
+
+    /** addFriendlyCount adjusts the number of non-Bala ants in the cell.
+     *  @param index The cell's index.
+     *  @param delta The amount to add (negative to subtract).
+     */
+    void addFriendlyCount(int index, int delta);
+
+    /** getBalaCount returns the number of Bala ants in the cell.
+     *  @param index The cell's index.
+     *  @return The cell's Bala count.
+     */
+    int getBalaCount(int index);
+
+    /** addBalaCount adjusts the number of Bala ants in the cell.
+     *  @param index The cell's index.
+     *  @param delta The amount to add (negative to subtract).
+     */
+    void addBalaCount(int index, int delta);
+
+    /** isRevealed returns whether the given cell has been revealed.
+     *  @param index The cell's index.
+     *  @return Whether the cell is revealed.
+     */
+    boolean isRevealed(int index);
+
+    /** setRevealed reveals or hides the given cell.
+     *  @param index The cell's index.
+     *  @param isRevealed Whether the cell should be revealed.
+     */
+    void setRevealed(int index, boolean isRevealed);
+
+    /** addRevealed sets the bit of every revealed cell in the given set.
+     *  @param revealed The set to add the revealed cells' indexes to.
+     */
+    void addRevealed(BitSet revealed);
+
+    /** hideAll hides every cell.
+     */
+    void hideAll();
+
+    /** clearFoodAndPheromone zeroes the food and pheromone of every cell.
+     */
+    void clearFoodAndPheromone();
+
+    /** decayPheromone halves the pheromone level of every cell, rounding
+     *  up, except that a level of 1 drops to 0.
+     */
+    void decayPheromone();
+
+    /** absorbPheromone adds to field, for each of the cells first to
+     *  last - 1, how far the cell's pheromone level has moved from the
+     *  whole part of its field value. Cells in different chunks may be
+     *  absorbed from different threads at once.
+     *  @param field The fractional pheromone levels, indexed like the grid.
+     *  @param first The first cell.
+     *  @param last One past the last cell.
+     */
+    void absorbPheromone(float[] field, int first, int last);
+
+    /** storePheromone sets the pheromone level of each of the cells first
+     *  to last - 1 to the whole part of its field value, allocating a chunk
+     *  only if some level in it is at least 1. Cells may be stored from
+     *  different threads at once as long as no cell is stored twice.
+     *  @param field The fractional pheromone levels, indexed like the grid.
+     *  @param first The first cell.
+     *  @param last One past the last cell.
+     */
+    void storePheromone(float[] field, int first, int last);
+
+    /** setFoodSource sets what spawns the food of each chunk as it is
+     *  allocated. Chunks allocated before are left as they are.
+     *  @param source Spawns a new chunk's food, or null for none.
+     */
+    void setFoodSource(FoodSource source);
+
+    /** respawnFood spawns the food of every chunk allocated so far again,
+     *  adding it to whatever food is there.
+     */
+    void respawnFood();
+
+    /** checksum folds every cell's food, pheromone, friendly count, Bala
+     *  count and revealed flag (1 or 0) into hash with ColonyGrid.combine,
+     *  cell by cell, so that every CellStore holding the same cells gives
+     *  the same hash.
+     *  @param hash The hash so far.
+     *  @return The new hash.
+     */
+    long checksum(long hash);
+
+    /** fork returns a CellStore holding the same cells as this one, after
+     *  which each changes independently of the other.
+     *  @return The fork.
+     *  @throws IllegalStateException If the cells cannot be forked.
+     */
+    CellStore fork();
+
+    /** force writes any changes still held in memory to where the cells
+     *  are kept for good, if anywhere.
+     */
+    void force();
+}
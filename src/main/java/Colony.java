@@ -1,8 +1,15 @@
-import dataStructures.ArrayList;
-import dataStructures.Iterator;
-import dataStructures.LinkedList;
 import dataStructures.LinkedQueue;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * The class Colony is used to manage the ant colony.
@@ -13,27 +20,48 @@ final public class Colony {
     private Queen queen;
     // queenDead is for the Simulation to easily check whether the queen is dead.
     public Boolean isQueenDead;
-    // foragers is a LinkedList of the colony's forager ants.
-    private final LinkedList foragers;
-    // scouts is a LinkedList of the colony's scout ants.
-    private final LinkedList scouts;
-    // soldiers is a LinkedList of the colony's soldier ants.
-    private final LinkedList soldiers;
-    // balas is a LinkedList of the enemy bala ants in the colony.
-    private final LinkedList balas;
-    // ColonyNodes holds references to each node of the grid that makes up the colony.
-    private final ArrayList colonyNodes;
+    // foragers is an AntList of the colony's forager ants.
+    private final AntList foragers;
+    // scouts is an AntList of the colony's scout ants.
+    private final AntList scouts;
+    // soldiers is an AntList of the colony's soldier ants.
+    private final AntList soldiers;
+    // balas is an AntList of the enemy bala ants in the colony.
+    private final AntList balas;
+    // grid holds the per-cell state of the colony and its ColonyNodes.
+    private final ColonyGrid grid;
     // rng is used to provide random numbers for the simulation.
-    private final Random rng;
+    private final ColonyRandom rng;
+    // seed holds the master seed that rng and every Ant's own random
+    // number stream are derived from.
+    private final Long seed;
+    // workers runs the ants' turns in parallel; null when every turn is
+    // processed one ant after another on the calling thread.
+    private ForkJoinPool workers;
+    // flowFieldReturn flags whether Foragers carrying food follow the
+    // grid's QueenFlowField home instead of retracing their steps.
+    private Boolean flowFieldReturn;
+    // lazyFood flags whether food is spawned a chunk of nodes at a time,
+    // as the grid allocates each chunk, rather than across the whole grid.
+    private Boolean lazyFood;
+    // turnOrder holds the ants taking part in the current parallel phase,
+    // in the order their changes are applied.
+    private Ant[] turnOrder;
+    // turnEffects holds one TurnEffects per chunk of turnOrder.
+    private TurnEffects[] turnEffects;
     // currentMaxId holds the most recent ID used when creating new ants.
     private Integer currentMaxId;
     // turnCounter is used to keep track of the current turn for Ant aging.
     private Integer turnCounter;
+    // foodCollected counts the food Foragers have brought back to the Queen;
+    // atomic because Foragers may drop food from several threads at once.
+    private final AtomicLong foodCollected;
     // colonyWidth holds the width of this Colony.
     private final Integer colonyWidth;
     // colonyHeight holds the height of this Colony.
     private final Integer colonyHeight;
-    // View is used to reference the ColonyView used in AntSimGUI.
+    // View is used to reference the ColonyView used in AntSimGUI;
+    // null when the Colony is running headless.
     private final ColonyView view;
     // deadAnts holds a queue of dead ants to process at the end of each turn.
     // Done at the end so that Soldiers and Balas can de-reference their current
@@ -43,74 +71,256 @@ final public class Colony {
     static final Integer TURNS_TO_DAYS = 10;
     // TURNS_TO_YEAR holds the conversion amount for how many days are in a year.
     static final Integer TURNS_TO_YEAR = 365 * TURNS_TO_DAYS;
-    // Sim is used to reference the Simulation, primarily for when the Queen dies.
-    private static Simulation SIM;
+    // MIN_SIZE holds the smallest width or height a Colony can have, so that
+    // the Queen's node and the corner nodes revealed in foragerTest fit.
+    static final Integer MIN_SIZE = 5;
+    // CHUNK_SIZE holds the number of ants handed to a worker at once
+    // during a parallel turn.
+    static final Integer CHUNK_SIZE = 1024;
+    // Sim is used to reference the Simulation, primarily for when the Queen dies;
+    // null when the Colony is running headless.
+    private final Simulation sim;
     
     
+    /** Headless Colony constructor that specifies the colony grid size.
+     *  No Simulation or Swing components are created, so the Colony can be
+     *  driven directly through reset() and processTurn().
+     *  @param width The new Colony width.
+     *  @param height The new Colony height.
+     */
+    public Colony(Integer width, Integer height) {
+        this(width, height, (Simulation) null);
+    }
+    
+    /** Headless Colony constructor that specifies the colony grid size and
+     *  the seed, so that the run can be repeated exactly.
+     *  @param width The new Colony width.
+     *  @param height The new Colony height.
+     *  @param newSeed The seed for the Colony's random numbers.
+     */
+    public Colony(Integer width, Integer height, Long newSeed) {
+        this(width, height, null, newSeed);
+    }
+    
     /** Colony constructor that specifies the colony grid size, turnCounter,
      *  and Simulation.
      *  @param width The new Colony width.
      *  @param height The new Colony height.
-     *  @param newSim The Simulator to reference for when the Queen dies.
+     *  @param newSim The Simulator to reference for when the Queen dies,
+     *  or null to run the Colony headless.
      */
     public Colony(Integer width, Integer height, Simulation newSim) {
+        this(width, height, newSim, new Random().nextLong());
+    }
+    
+    /** Colony constructor that specifies the colony grid size, Simulation,
+     *  and the master seed for all of the Colony's random numbers.
+     *  @param width The new Colony width.
+     *  @param height The new Colony height.
+     *  @param newSim The Simulator to reference for when the Queen dies,
+     *  or null to run the Colony headless.
+     *  @param newSeed The seed for the Colony's random numbers.
+     */
+    public Colony(Integer width, Integer height, Simulation newSim, Long newSeed) {
+        this(width, height, newSim, newSeed, null);
+    }
+    
+    /** Headless Colony constructor that specifies the colony grid size, the
+     *  seed, and a file to keep the grid's nodes in. The file is mapped into
+     *  memory rather than the nodes being kept on the Java heap, so the
+     *  colony can be larger than the memory the JVM is given. Only the
+     *  parts of the grid ants reach take up room in the file. The file is
+     *  only scratch space: an existing file must be of the same size, and
+     *  its nodes are cleared. A run is carried on through saveSnapshot and
+     *  loadSnapshot instead.
+     *  @param width The new Colony width.
+     *  @param height The new Colony height.
+     *  @param newSeed The seed for the Colony's random numbers.
+     *  @param gridFile The file to keep the grid in.
+     */
+    public Colony(Integer width, Integer height, Long newSeed, Path gridFile) {
+        this(width, height, null, newSeed, gridFile);
+    }
+    
+    /** Colony constructor that specifies the colony grid size, Simulation,
+     *  master seed, and where the grid is kept.
+     *  @param width The new Colony width.
+     *  @param height The new Colony height.
+     *  @param newSim The Simulator to reference for when the Queen dies,
+     *  or null to run the Colony headless.
+     *  @param newSeed The seed for the Colony's random numbers.
+     *  @param gridFile The file to keep the grid in, or null to keep it on
+     *  the Java heap.
+     */
+    private Colony(Integer width, Integer height, Simulation newSim, Long newSeed, Path gridFile) {
+        if (width < MIN_SIZE || height < MIN_SIZE)
+            throw new IllegalArgumentException(
+                "Error while creating Colony: width and height must be at least "
+                + MIN_SIZE + "!"
+            );
+        if ((long) width * height > Integer.MAX_VALUE)
+            throw new IllegalArgumentException(
+                "Error while creating Colony: " + width + "x" + height
+                + " nodes exceeds the maximum grid size!"
+            );
+
         // Initialize colony.
         // Save the defined width and height.
         colonyWidth = width;
         colonyHeight = height;
         turnCounter = 0;
+        foodCollected = new AtomicLong();
 
-        // Set SIM to newSim.
-        SIM = newSim;
+        // Set sim to newSim.
+        sim = newSim;
 
-        // Set Ant's COLONY to this.
-        Ant.setColony(this);
-
-        // Create a new Random object.
-        rng = new Random();
+        // Create a new Random object from the seed.
+        seed = newSeed;
+        rng = new ColonyRandom(seed);
+        
+        // Turns are processed on the calling thread until setThreads is used.
+        workers = null;
+        turnOrder = new Ant[0];
+        turnEffects = new TurnEffects[0];
+        flowFieldReturn = false;
+        lazyFood = false;
 
-        // Initialize foragers, scouts, soldiers, balas, colonyNodes, deadAnts.
-        foragers = new LinkedList();
-        scouts = new LinkedList();
-        soldiers = new LinkedList();
-        balas = new LinkedList();
-        colonyNodes = new ArrayList();
+        // Initialize foragers, scouts, soldiers, balas, grid, deadAnts.
+        foragers = new AntList();
+        scouts = new AntList();
+        soldiers = new AntList();
+        balas = new AntList();
+        grid = gridFile == null ? new ColonyGrid(width, height) : new ColonyGrid(width, height, gridFile);
         deadAnts = new LinkedQueue();
 
-        // Initialize ColonyView.
-        view = new ColonyView(width, height);
+        // Queen and colony entrance go in the center of grid.
+        ColonyNode center = getColonyNode(width / 2, height / 2);
+        center.setQueenPresent(true);
+        center.addFood(1000);
 
-        // Then populate colonyNodes and view with the nodes.
-        ColonyNode node;
-        for (Integer i = 0; i < width; i++)
-            for (Integer j = 0; j < height; j++) {
-                // Queen and colony entrance go in the center of grid.
-                if (i == width / 2 && j == height / 2)
-                    node = new ColonyNode(i, j, 1000, true, 0, 0, 0, 0);
-                else
-                    node = new ColonyNode(i, j, 0, false, 0, 0, 0, 0);
-                colonyNodes.add(node);
-                view.addColonyNodeView(node.getNodeView(), i, j);
-            }
+        // Initialize ColonyView, unless running headless.
+        view = sim == null ? null : new ColonyView(height, width);
+
+        // Then populate view with a ColonyNodeView for every node.
+        // Headless colonies only create ColonyNodes as ants need them.
+        if (view != null)
+            for (Integer i = 0; i < width; i++)
+                for (Integer j = 0; j < height; j++) {
+                    ColonyNodeView nodeView = new ColonyNodeView();
+                    view.addColonyNodeView(nodeView, i, j);
+                    getColonyNode(i, j).setNodeView(nodeView);
+                }
 
         // Initialize currentMaxId.
         currentMaxId = 0;
     }
     
+    /** Colony constructor for fork(), copying the given Colony.
+     *  @param parent The Colony to copy.
+     */
+    private Colony(Colony parent) {
+        colonyWidth = parent.colonyWidth;
+        colonyHeight = parent.colonyHeight;
+        turnCounter = parent.turnCounter;
+        currentMaxId = parent.currentMaxId;
+        foodCollected = new AtomicLong(parent.foodCollected.get());
+        sim = null;
+        view = null;
+        seed = parent.seed;
+        rng = new ColonyRandom(seed);
+        rng.setState(parent.rng.getState());
+        workers = null;
+        turnOrder = new Ant[0];
+        turnEffects = new TurnEffects[0];
+        flowFieldReturn = parent.flowFieldReturn;
+        lazyFood = parent.lazyFood;
+        foragers = new AntList();
+        scouts = new AntList();
+        soldiers = new AntList();
+        balas = new AntList();
+        grid = parent.grid.fork();
+        if (lazyFood)
+            grid.setFoodSource(this::spawnFood);
+        deadAnts = new LinkedQueue();
+        
+        // Copy every Ant into the same place in its group and ColonyNode.
+        AntList placed = new AntList();
+        if (parent.queen != null) {
+            queen = (Queen) copyAnt(parent.queen);
+            isQueenDead = parent.isQueenDead;
+            placed.add(queen);
+        }
+        AntList[] groups = {scouts, foragers, soldiers, balas};
+        AntList[] parentGroups = {parent.scouts, parent.foragers, parent.soldiers, parent.balas};
+        for (int group = 0; group < groups.length; group++)
+            for (int i = 0; i < parentGroups[group].size(); i++) {
+                Ant ant = copyAnt(parentGroups[group].get(i));
+                groups[group].add(ant);
+                placed.add(ant);
+            }
+        placeAnts(placed);
+        
+        // The grid's occupancy counts already held the Ants before they were
+        // put back in their ColonyNodes, so take each one out once.
+        for (int i = 0; i < placed.size(); i++) {
+            Ant ant = placed.get(i);
+            if (ant.getSlot() < 0)
+                continue;
+            int index = ant.getNode().getIndex();
+            if (ant instanceof Bala)
+                grid.addBalaCount(index, -1);
+            else
+                grid.addFriendlyCount(index, -1);
+        }
+    }
+    
+    /** copyAnt creates a copy of another Colony's Ant in this one. The
+     *  copy has the slot the Ant holds, but is not in its ColonyNode.
+     *  @param ant The Ant to copy.
+     *  @return The copy.
+     */
+    private Ant copyAnt(Ant ant) {
+        Ant copy = newAnt(ant.getClass(), ant.getId(), ant.getMaxTurnAge(),
+            ant.getLocationX(), ant.getLocationY());
+        copy.setSlot(ant.getSlot());
+        copy.copyState(ant);
+        return copy;
+    }
+    
     /** resetColonyView resets the ColonyNodes to the default visibility
      *  (center 9 nodes visible).
      */
     private void resetColonyView() {
         // First hide all nodes.
-        for (Integer i = 0; i < colonyWidth; i++)
-            for (Integer j = 0; j < colonyHeight; j++)
-                ((ColonyNode)(colonyNodes.get(i * colonyWidth + j))).hideNode();
+        grid.hideAll();
+        updateViews();
         
         // Next, reveal the center 9 nodes.
         for (Integer x = (colonyWidth / 2) - 1; x < (colonyWidth / 2) + 2; x++)
             for (Integer y = (colonyHeight / 2) - 1; y < (colonyHeight / 2) + 2; y++)
                 getColonyNode(x, y).revealNode();
     }
+    
+    /** renderPheromone brings the pheromone shown by every ColonyNodeView
+     *  in line with the grid, touching only the views whose level changed.
+     *  Does nothing when headless.
+     */
+    private void renderPheromone() {
+        if (view == null)
+            return;
+        for (int i = 0; i < grid.size(); i++)
+            grid.getNodeIfPresent(i).updatePheromoneView();
+    }
+    
+    /** updateViews brings every ColonyNodeView in line with the grid after
+     *  the grid has been changed in bulk. Does nothing when headless.
+     */
+    private void updateViews() {
+        if (view == null)
+            return;
+        for (Integer i = 0; i < grid.size(); i++)
+            grid.getNodeIfPresent(i).updateView();
+    }
         
     /** QueenTest sets up the colony to only have a Queen.
      */
@@ -122,7 +332,7 @@ final public class Colony {
         resetColonyView();
 
         // Create a new Queen ant.
-        queen = new Queen(getNextId(), TURNS_TO_YEAR * 20, colonyWidth / 2, colonyHeight / 2);
+        queen = new Queen(this, getNextId(), TURNS_TO_YEAR * 20, colonyWidth / 2, colonyHeight / 2);
         addAnt(queen);
         isQueenDead = false;
         queen.getNode().addFood(1000);
@@ -142,14 +352,14 @@ final public class Colony {
         resetColonyView();
 
         // Create a new Queen ant.
-        queen = new Queen(getNextId(), TURNS_TO_YEAR * 20, colonyWidth / 2, colonyHeight / 2);
+        queen = new Queen(this, getNextId(), TURNS_TO_YEAR * 20, colonyWidth / 2, colonyHeight / 2);
         addAnt(queen);
         isQueenDead = false;
         queen.getNode().addFood(1000);
 
         // Create 10 new Scout ants.
         for (Integer i = 0; i < 10; i++)
-            addAnt(new Scout(getNextId(), TURNS_TO_YEAR, queen.getLocationX(), queen.getLocationY()));
+            addAnt(new Scout(this, getNextId(), TURNS_TO_YEAR, queen.getLocationX(), queen.getLocationY()));
     }
 
     /** foragerTest tests the functionality of Forager ants.
@@ -159,7 +369,7 @@ final public class Colony {
         destroy();
 
         // Create a new Queen ant.
-        queen = new Queen(getNextId(), TURNS_TO_YEAR * 20, colonyWidth / 2, colonyHeight / 2);
+        queen = new Queen(this, getNextId(), TURNS_TO_YEAR * 20, colonyWidth / 2, colonyHeight / 2);
         addAnt(queen);
         isQueenDead = false;
         queen.getNode().addFood(1000);
@@ -169,19 +379,18 @@ final public class Colony {
 
         // Create 100 new Forager ants.
         for (Integer i = 0; i < 100; i++)
-            addAnt(new Forager(getNextId(), TURNS_TO_YEAR, queen.getLocationX(), queen.getLocationY()));
+            addAnt(new Forager(this, getNextId(), TURNS_TO_YEAR, queen.getLocationX(), queen.getLocationY()));
         
         // Reveal the whole colony for Foragers to move around.
-        for (Integer i = 0; i < colonyWidth; i++)
-            for (Integer j = 0; j < colonyHeight; j++)
-                getColonyNode(i, j).hideNode();
         resetColonyView();
         
-        // Reveal corner nodes to test movement logic.
-        getColonyNode(11, 11).revealNode();
-        getColonyNode(15, 11).revealNode();
-        getColonyNode(11, 15).revealNode();
-        getColonyNode(15, 15).revealNode();
+        // Reveal the corner nodes two away from the Queen to test movement logic.
+        Integer centerX = colonyWidth / 2;
+        Integer centerY = colonyHeight / 2;
+        getColonyNode(centerX - 2, centerY - 2).revealNode();
+        getColonyNode(centerX + 2, centerY - 2).revealNode();
+        getColonyNode(centerX - 2, centerY + 2).revealNode();
+        getColonyNode(centerX + 2, centerY + 2).revealNode();
     }
     
     /** soldierTest tests the functionality of Soldier ants.
@@ -194,18 +403,18 @@ final public class Colony {
         resetColonyView();
 
         // Create a new Queen ant.
-        queen = new Queen(getNextId(), TURNS_TO_YEAR * 20, colonyWidth / 2, colonyHeight / 2);
+        queen = new Queen(this, getNextId(), TURNS_TO_YEAR * 20, colonyWidth / 2, colonyHeight / 2);
         addAnt(queen);
         isQueenDead = false;
         queen.getNode().addFood(1000);
 
         // Create 20 new Soldier ants.
         for (Integer i = 0; i < 20; i++)
-            addAnt(new Soldier(getNextId(), TURNS_TO_YEAR, queen.getLocationX(), queen.getLocationY()));
+            addAnt(new Soldier(this, getNextId(), TURNS_TO_YEAR, queen.getLocationX(), queen.getLocationY()));
         
-        // Create 20 new Bala ants.
+        // Create 20 new Bala ants diagonally next to the Queen.
         for (Integer i = 0; i < 20; i++)
-            addAnt(new Bala(getNextId(), TURNS_TO_YEAR, 12, 14));
+            addAnt(new Bala(this, getNextId(), TURNS_TO_YEAR, colonyWidth / 2 - 1, colonyHeight / 2 + 1));
     }
     
     /** addDead adds an Ant to the deadAnts queue.
@@ -216,31 +425,46 @@ final public class Colony {
         if (ant instanceof Queen) {
             isQueenDead = true;
             queen.getNode().removeFriendlyAnt(ant);
-            SIM.getGui().setTime("Queen is dead, simulation over!");
-            SIM.stop();
+            setTime("Queen is dead, simulation over!");
+            if (sim != null)
+                sim.stop();
         } else
             deadAnts.enqueue(ant);
     }
     
     /** processDead handles removing all dead ants from all lists and ColonyNodes.
+     *  Each ant is taken out of its ColonyNode straight away, while every
+     *  list that lost an ant is compacted once at the end.
      */
     private void processDead() {
+        Boolean foragerDied = false;
+        Boolean scoutDied = false;
+        Boolean soldierDied = false;
+        Boolean balaDied = false;
         while(!deadAnts.isEmpty()) {
             Ant ant = (Ant) deadAnts.dequeue();
             if (ant instanceof Forager) {
-                foragers.remove(ant);
+                foragerDied = true;
                 ant.getNode().removeFriendlyAnt(ant);
             } else if (ant instanceof Scout) {
-                scouts.remove(ant);
+                scoutDied = true;
                 ant.getNode().removeFriendlyAnt(ant);
             } else if (ant instanceof Soldier) {
-                soldiers.remove(ant);
+                soldierDied = true;
                 ant.getNode().removeFriendlyAnt(ant);
             } else if (ant instanceof Bala) {
-                balas.remove(ant);
+                balaDied = true;
                 ant.getNode().removeBala((Bala)ant);
             }
         }
+        if (foragerDied)
+            foragers.removeDead();
+        if (scoutDied)
+            scouts.removeDead();
+        if (soldierDied)
+            soldiers.removeDead();
+        if (balaDied)
+            balas.removeDead();
     }
     
     /** processTurn processes a turn in the Colony for all Ants.
@@ -248,60 +472,48 @@ final public class Colony {
      */
     public void processTurn() {
         // Set GUI heading to the current day turn count.
-        SIM.getGui().setTime("Day " + ((turnCounter / 10) + 1) + ", turn " + ((turnCounter % 10) + 1));
-        
-        // If it is the first turn of a day, reduce pheromone
-        // levels by half.
-        if (turnCounter % TURNS_TO_DAYS == 0 && turnCounter > 0)
-            for (Integer i = 0; i < getColonyWidth(); i++)
-                for (Integer j = 0; j < getColonyHeight(); j++)
-                    getColonyNode(i, j).reducePheromone(
-                            getColonyNode(i, j).getPheromone().equals(1) ? 1 :
-                                    getColonyNode(i, j).getPheromone() / 2
-                    );
+        setTime("Day " + ((turnCounter / 10) + 1) + ", turn " + ((turnCounter % 10) + 1));
+        
+        // With the pheromone field, pheromone evaporates and spreads
+        // every turn. Otherwise, if it is the first turn of a day,
+        // reduce pheromone levels by half.
+        if (grid.hasPheromoneField()) {
+            grid.diffusePheromone(workers);
+            renderPheromone();
+        } else if (turnCounter % TURNS_TO_DAYS == 0 && turnCounter > 0) {
+            grid.decayPheromone();
+            renderPheromone();
+        }
         
                 
+        // Bring the Foragers' way home up to date before anyone moves.
+        if (flowFieldReturn)
+            grid.getFlowField();
+        
         // First process turns for all friendly Ants.
         queen.takeAction(rng);
         
-        // Next, Scouts.
-        if (!scouts.isEmpty()) {
-            Iterator iter = scouts.iterator();
-            while (iter.hasNext()) {
-                Scout scout = (Scout) iter.getCurrent();
-                scout.takeAction(rng);
-                iter.next();
-            }
-        }
+        if (workers == null) {
+            // Next, Scouts.
+            for (int i = 0; i < scouts.size(); i++)
+                scouts.get(i).takeAction(rng);
         
-        // Then Foragers.
-        if (!foragers.isEmpty()) {
-            Iterator iter = foragers.iterator();
-            while (iter.hasNext()) {
-                Forager forager = (Forager) iter.getCurrent();
-                forager.takeAction(rng);
-                iter.next();
-            }
-        }
+            // Then Foragers.
+            for (int i = 0; i < foragers.size(); i++)
+                foragers.get(i).takeAction(rng);
         
-        // Then Soldiers.
-        if (!soldiers.isEmpty()) {
-            Iterator iter = soldiers.iterator();
-            while (iter.hasNext()) {
-                Soldier soldier = (Soldier) iter.getCurrent();
-                soldier.takeAction(rng);
-                iter.next();
-            }
-        }
+            // Then Soldiers.
+            for (int i = 0; i < soldiers.size(); i++)
+                soldiers.get(i).takeAction(rng);
         
-        // Then process turns for Bala ants.
-        if (!balas.isEmpty()) {
-            Iterator iter = balas.iterator();
-            while (iter.hasNext()) {
-                Bala bala = (Bala) iter.getCurrent();
-                bala.takeAction(rng);
-                iter.next();
-            }
+            // Then process turns for Bala ants.
+            for (int i = 0; i < balas.size(); i++)
+                balas.get(i).takeAction(rng);
+        } else {
+            // All friendly ants work out their turns against the same
+            // colony, then Balas do the same against the result.
+            processParallel(scouts, foragers, soldiers);
+            processParallel(balas);
         }
         
         // Process any dead Ants.
@@ -316,15 +528,381 @@ final public class Colony {
         turnCounter++;
     }
     
+    /** processParallel processes a turn for every Ant in the given lists
+     *  on the worker threads. Each Ant acts with its own random number
+     *  stream and records its changes to the colony rather than making
+     *  them; the changes are then applied in list order on this thread.
+     *  The outcome therefore only depends on the seed, never on the
+     *  number of threads.
+     *  @param groups The AntLists of Ants to process.
+     */
+    private void processParallel(AntList... groups) {
+        // Gather the ants into turnOrder.
+        Integer count = 0;
+        for (AntList group : groups)
+            count += group.size();
+        if (count.equals(0))
+            return;
+        if (turnOrder.length < count)
+            turnOrder = new Ant[Math.max(count, turnOrder.length * 2)];
+        Integer position = 0;
+        for (AntList group : groups)
+            for (int i = 0; i < group.size(); i++)
+                turnOrder[position++] = group.get(i);
+        
+        // Make sure there is a TurnEffects for every chunk.
+        Integer chunks = (count + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        if (turnEffects.length < chunks) {
+            TurnEffects[] grown = new TurnEffects[chunks];
+            System.arraycopy(turnEffects, 0, grown, 0, turnEffects.length);
+            for (Integer i = turnEffects.length; i < chunks; i++)
+                grown[i] = new TurnEffects();
+            turnEffects = grown;
+        }
+        
+        // Work out every turn, then apply the changes chunk by chunk.
+        workers.invoke(new TurnChunks(0, chunks, count));
+        for (Integer i = 0; i < chunks; i++)
+            turnEffects[i].apply();
+        Arrays.fill(turnOrder, 0, count, null);
+    }
+    
+    /** TurnChunks processes the turns of a range of chunks of turnOrder,
+     *  splitting the range in half until a single chunk is left.
+     */
+    private final class TurnChunks extends RecursiveAction {
+        // serialVersionUID versions the form RecursiveAction is serialized in.
+        private static final long serialVersionUID = 1L;
+        // first holds the first chunk in the range.
+        private final int first;
+        // last holds one past the last chunk in the range.
+        private final int last;
+        // count holds the number of ants in turnOrder.
+        private final int count;
+        
+        /** TurnChunks constructor for the chunks first to last - 1.
+         *  @param first The first chunk.
+         *  @param last One past the last chunk.
+         *  @param count The number of ants in turnOrder.
+         */
+        TurnChunks(int first, int last, int count) {
+            this.first = first;
+            this.last = last;
+            this.count = count;
+        }
+        
+        /** compute processes the range's turns.
+         */
+        @Override
+        protected void compute() {
+            if (last - first == 1) {
+                int end = Math.min(count, last * CHUNK_SIZE);
+                for (int i = first * CHUNK_SIZE; i < end; i++)
+                    turnOrder[i].takeTurn(turnEffects[first]);
+            } else {
+                int middle = (first + last) >>> 1;
+                invokeAll(new TurnChunks(first, middle, count), new TurnChunks(middle, last, count));
+            }
+        }
+    }
+    
+    /** setThreads sets how many threads process the ants' turns. With zero,
+     *  every turn is processed on the calling thread using the Colony's
+     *  single Random, as the GUI does. With one or more, ants act through
+     *  processParallel, and a given seed gives the same run whatever the
+     *  number of threads.
+     *  @param threads The number of worker threads, or zero for none.
+     */
+    public void setThreads(Integer threads) {
+        if (threads < 0)
+            throw new IllegalArgumentException(
+                "Error while setting Colony threads: threads cannot be negative!"
+            );
+        if (workers != null)
+            workers.shutdown();
+        workers = threads.equals(0) ? null : new ForkJoinPool(threads);
+    }
+    
+    /** setFlowFieldReturn sets how Foragers carrying food find the Queen.
+     *  By default they retrace the moves they made while foraging, which
+     *  each Forager has to remember. With the flow field they instead step
+     *  to whichever revealed neighbour is closest to the Queen, which the
+     *  Colony works out once for every Forager.
+     *  @param useFlowField Whether Foragers follow the flow field home.
+     */
+    public void setFlowFieldReturn(Boolean useFlowField) {
+        flowFieldReturn = useFlowField;
+    }
+    
+    /** setPheromoneDiffusion sets how pheromone fades. By default every
+     *  node's pheromone halves at the start of each day. With a non-zero
+     *  evaporation or diffusion, pheromone instead follows a continuous
+     *  model: each turn the evaporation fraction of it is lost, and the
+     *  diffusion fraction of what is left spreads evenly to the 8 nodes
+     *  around, which the worker threads share when there are any.
+     *  @param evaporation The fraction of pheromone lost each turn.
+     *  @param diffusion The fraction of pheromone spread each turn.
+     */
+    public void setPheromoneDiffusion(Double evaporation, Double diffusion) {
+        if (!(evaporation >= 0 && evaporation <= 1) || !(diffusion >= 0 && diffusion <= 1))
+            throw new IllegalArgumentException(
+                "Error while setting Colony pheromone diffusion: evaporation and diffusion must be between 0 and 1!"
+            );
+        grid.setPheromoneDiffusion(evaporation, diffusion);
+    }
+    
+    /** setLazyFood sets how food is disbursed when the Colony is reset.
+     *  By default every node gets its chance of food at once, which means
+     *  every node's storage is allocated. With lazy food, the grid's nodes
+     *  get their food a chunk at a time as ants first reach them, so a
+     *  large colony only takes room for the part of it that is explored.
+     *  The food differs from the default for the same seed, but is still
+     *  the same from run to run.
+     *  @param spawnLazily Whether to spawn food as chunks are allocated.
+     */
+    public void setLazyFood(Boolean spawnLazily) {
+        lazyFood = spawnLazily;
+    }
+    
+    /** flushGrid writes the grid's nodes out to the grid file, so that they
+     *  are there when the file is opened again even if the machine stops.
+     *  Does nothing when the grid is kept on the Java heap.
+     */
+    public void flushGrid() {
+        grid.force();
+    }
+    
+    /** saveSnapshot writes the whole state of the Colony to the given
+     *  file, replacing it: the settings it was created with, the grid's
+     *  nodes, every Ant, and the state of every random number stream, so
+     *  that loadSnapshot can carry on the run exactly where it was. Only
+     *  call it between turns. The number of worker threads is not saved.
+     *  @param file The snapshot file.
+     *  @param compress Whether to deflate the snapshot.
+     *  @throws IllegalArgumentException If the file cannot be written.
+     */
+    public void saveSnapshot(Path file, Boolean compress) {
+        try (DataOutputStream out = ColonySnapshot.create(file, compress)) {
+            out.writeInt(colonyWidth);
+            out.writeInt(colonyHeight);
+            out.writeLong(seed);
+            out.writeInt(turnCounter);
+            out.writeInt(currentMaxId);
+            out.writeLong(foodCollected.get());
+            out.writeLong(rng.getState());
+            out.writeBoolean(flowFieldReturn);
+            out.writeBoolean(lazyFood);
+            grid.writeCells(out);
+            
+            // Each kind of Ant is written as a group, in turn order.
+            out.writeBoolean(queen != null);
+            if (queen != null) {
+                writeAnt(out, queen);
+                out.writeBoolean(isQueenDead);
+            }
+            for (AntList group : new AntList[] {scouts, foragers, soldiers, balas}) {
+                out.writeInt(group.size());
+                for (int i = 0; i < group.size(); i++)
+                    writeAnt(out, group.get(i));
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException(
+                "Error while saving Colony snapshot: unable to write " + file + "!", e
+            );
+        }
+    }
+    
+    /** loadSnapshot creates a headless Colony from a file saveSnapshot
+     *  wrote, keeping its grid on the Java heap.
+     *  @param file The snapshot file.
+     *  @return The restored Colony.
+     *  @throws IllegalArgumentException If the file cannot be read or is
+     *  not a snapshot.
+     */
+    public static Colony loadSnapshot(Path file) {
+        return loadSnapshot(file, null);
+    }
+    
+    /** loadSnapshot creates a headless Colony from a file saveSnapshot
+     *  wrote. The Colony has the settings, nodes, Ants and random numbers
+     *  it had when it was saved, so its next turns are the ones it would
+     *  have had; only the number of worker threads must be set again.
+     *  @param file The snapshot file.
+     *  @param gridFile The new file to keep the grid in, or null to keep it
+     *  on the Java heap.
+     *  @return The restored Colony.
+     *  @throws IllegalArgumentException If the file cannot be read or is
+     *  not a snapshot.
+     */
+    public static Colony loadSnapshot(Path file, Path gridFile) {
+        try (DataInputStream in = ColonySnapshot.open(file)) {
+            Integer width = in.readInt();
+            Integer height = in.readInt();
+            Colony colony = new Colony(width, height, null, in.readLong(), gridFile);
+            colony.readSnapshot(in);
+            return colony;
+        } catch (IOException e) {
+            throw new IllegalArgumentException(
+                "Error while loading Colony snapshot: unable to read " + file + "!", e
+            );
+        }
+    }
+    
+    /** readSnapshot restores the state saveSnapshot wrote after the
+     *  Colony's size and seed into this newly created Colony.
+     *  @param in Where to read the state from.
+     *  @throws IOException If the state cannot be read.
+     */
+    private void readSnapshot(DataInput in) throws IOException {
+        turnCounter = in.readInt();
+        currentMaxId = in.readInt();
+        foodCollected.set(in.readLong());
+        rng.setState(in.readLong());
+        flowFieldReturn = in.readBoolean();
+        lazyFood = in.readBoolean();
+        
+        // Clear what the constructor put in the grid, then read the nodes
+        // back before any food source is set, so that they keep the food
+        // they had.
+        grid.clearFoodAndPheromone();
+        grid.hideAll();
+        grid.readCells(in);
+        if (lazyFood)
+            grid.setFoodSource(this::spawnFood);
+        
+        // Read every Ant back into its group, noting the slot it held in its
+        // ColonyNode.
+        AntList placed = new AntList();
+        if (in.readBoolean()) {
+            queen = (Queen) readAnt(in, Queen.class);
+            isQueenDead = in.readBoolean();
+            placed.add(queen);
+        }
+        AntList[] groups = {scouts, foragers, soldiers, balas};
+        Class<?>[] kinds = {Scout.class, Forager.class, Soldier.class, Bala.class};
+        for (int group = 0; group < groups.length; group++)
+            for (int i = in.readInt(); i > 0; i--) {
+                Ant ant = readAnt(in, kinds[group]);
+                groups[group].add(ant);
+                placed.add(ant);
+            }
+        
+        placeAnts(placed);
+    }
+    
+    /** placeAnts puts newly created Ants in their ColonyNodes in the order
+     *  of the slots they have been given, so that each node's AntSets come
+     *  back in the order the Ants pick targets from.
+     *  @param placed The Ants to put in their ColonyNodes.
+     */
+    private static void placeAnts(AntList placed) {
+        long[] order = new long[placed.size()];
+        for (int i = 0; i < placed.size(); i++)
+            order[i] = (long) placed.get(i).getSlot() << 32 | i;
+        Arrays.sort(order);
+        for (long entry : order) {
+            Ant ant = placed.get((int) entry);
+            ant.setSlot(-1);
+            if (entry < 0)
+                continue;
+            if (ant instanceof Bala)
+                ant.getNode().addBala((Bala) ant);
+            else
+                ant.getNode().addFriendlyAnt(ant);
+        }
+    }
+    
+    /** writeAnt writes one Ant to a snapshot: its id, maximum age,
+     *  location and ColonyNode slot, then the rest of its state.
+     *  @param out Where to write the Ant.
+     *  @param ant The Ant to write.
+     *  @throws IOException If the Ant cannot be written.
+     */
+    private static void writeAnt(DataOutput out, Ant ant) throws IOException {
+        out.writeInt(ant.getId());
+        out.writeInt(ant.getMaxTurnAge());
+        out.writeInt(ant.getLocationX());
+        out.writeInt(ant.getLocationY());
+        out.writeInt(ant.getSlot());
+        ant.writeState(out);
+    }
+    
+    /** readAnt creates an Ant of the given kind from what writeAnt wrote.
+     *  The Ant's slot is the one it held, but it is not in its ColonyNode.
+     *  @param in Where to read the Ant from.
+     *  @param kind The Ant's class.
+     *  @return The Ant.
+     *  @throws IOException If the Ant cannot be read or lies off the grid.
+     */
+    private Ant readAnt(DataInput in, Class<?> kind) throws IOException {
+        Integer id = in.readInt();
+        Integer maxTurnAge = in.readInt();
+        Integer x = in.readInt();
+        Integer y = in.readInt();
+        if (!grid.contains(x, y))
+            throw new IOException("Error while reading Ant " + id + ": " + x + "," + y + " is outside the Colony!");
+        Ant ant = newAnt(kind, id, maxTurnAge, x, y);
+        ant.setSlot(in.readInt());
+        ant.readState(in);
+        return ant;
+    }
+    
+    /** newAnt creates an Ant of the given kind in this Colony, without
+     *  adding it anywhere.
+     *  @param kind The Ant's class.
+     *  @param id The Ant's id.
+     *  @param maxTurnAge The Ant's maximum turn age.
+     *  @param x The Ant's x-coordinate.
+     *  @param y The Ant's y-coordinate.
+     *  @return The new Ant.
+     */
+    private Ant newAnt(Class<?> kind, Integer id, Integer maxTurnAge, Integer x, Integer y) {
+        if (kind == Queen.class)
+            return new Queen(this, id, maxTurnAge, x, y);
+        else if (kind == Scout.class)
+            return new Scout(this, id, maxTurnAge, x, y);
+        else if (kind == Forager.class)
+            return new Forager(this, id, maxTurnAge, x, y);
+        else if (kind == Soldier.class)
+            return new Soldier(this, id, maxTurnAge, x, y);
+        else
+            return new Bala(this, id, maxTurnAge, x, y);
+    }
+    
+    /** fork returns a headless copy of this Colony that from then on runs
+     *  independently of it, as a what-if branch of the run. The fork has
+     *  this Colony's settings, nodes, Ants and random numbers, so without
+     *  changes its turns are the ones this Colony would have had; only the
+     *  number of worker threads must be set again. The two Colonies share
+     *  the grid's nodes until one of them changes a chunk of them, so a
+     *  fork costs the Ants and what the two go on to change rather than
+     *  the whole grid. Only call it between turns.
+     *  @return The fork.
+     *  @throws IllegalStateException If the grid is kept in a file.
+     */
+    public Colony fork() {
+        return new Colony(this);
+    }
+    
+    /** isFlowFieldReturn returns whether Foragers follow the flow field home.
+     *  @return The flowFieldReturn attribute.
+     */
+    Boolean isFlowFieldReturn() {
+        return flowFieldReturn;
+    }
+    
     /** Reset resets the Colony to the default state.
      */
     public void reset() {
         // First, clear the Colony.
         destroy();
         
-        // Then set turnCounter and currentMaxId to zero.
+        // Then set turnCounter and currentMaxId to zero, and restart
+        // the random numbers so every reset replays the same run.
         turnCounter = 0;
         currentMaxId = 0;
+        rng.setSeed(seed);
+        foodCollected.set(0);
         
         // Setup the initial state of ant colony in the center:
         // 1 Queen
@@ -332,22 +910,22 @@ final public class Colony {
         // 50 Foragers
         // 4 Scouts
         // First create the queen (lives for 20 years).
-        queen = new Queen(getNextId(), TURNS_TO_YEAR * 20, colonyWidth / 2, colonyHeight / 2);
+        queen = new Queen(this, getNextId(), TURNS_TO_YEAR * 20, colonyWidth / 2, colonyHeight / 2);
         addAnt(queen);
         isQueenDead = false;
         queen.getNode().addFood(1000);
         
         // Then the Soldiers (all other ants live 1 year).
         for (Integer i = 0; i < 10; i++)
-            addAnt(new Soldier(getNextId(), TURNS_TO_YEAR, queen.getLocationX(), queen.getLocationY()));
+            addAnt(new Soldier(this, getNextId(), TURNS_TO_YEAR, queen.getLocationX(), queen.getLocationY()));
         
         // Then the Foragers.
         for (Integer i = 0; i < 50; i++)
-            addAnt(new Forager(getNextId(), TURNS_TO_YEAR, queen.getLocationX(), queen.getLocationY()));
+            addAnt(new Forager(this, getNextId(), TURNS_TO_YEAR, queen.getLocationX(), queen.getLocationY()));
 
         // Finally, the Scouts.
         for (Integer i = 0; i < 4; i++)
-            addAnt(new Scout(getNextId(), TURNS_TO_YEAR, queen.getLocationX(), queen.getLocationY()));
+            addAnt(new Scout(this, getNextId(), TURNS_TO_YEAR, queen.getLocationX(), queen.getLocationY()));
 
         // Next, randomly disburse up to 1000 food to ColonyNodes (10% chance).
         spawnFood();
@@ -357,14 +935,48 @@ final public class Colony {
     }
     
     /** spawnFood randomly disburse between 500 to 1000 food to ColonyNodes (25% chance).
-     *  Ignores the node where the Queen resides.
+     *  Ignores the node where the Queen resides. With lazyFood, only the
+     *  chunks the grid has already allocated get their food now, and the
+     *  rest get theirs as they are allocated.
      */
     private void spawnFood() {
-        // Loop through colonyNodes and add food.
+        if (lazyFood) {
+            grid.setFoodSource(this::spawnFood);
+            grid.respawnFood();
+            updateViews();
+            return;
+        }
+        grid.setFoodSource(null);
+        
+        // Loop through the grid and add food.
         for (Integer i = 0; i < colonyWidth; i++)
             for (Integer j = 0; j < colonyHeight; j++)
-                if (rng.nextInt(100) < 25 && !i.equals(queen.getLocationX()) && !j.equals(queen.getLocationY()))
-                    getColonyNode(i, j).addFood(rng.nextInt(501) + 500);
+                if (rng.nextInt(100) < 25 && !i.equals(queen.getLocationX()) && !j.equals(queen.getLocationY())) {
+                    int index = grid.index(i, j);
+                    grid.setFood(index, grid.getFood(index) + rng.nextInt(501) + 500);
+                }
+        updateViews();
+    }
+    
+    /** spawnFood disburses food over one chunk of the grid the same way
+     *  as over the whole grid, using a random number stream of the chunk's
+     *  own, so that the food is the same whenever and from whichever
+     *  thread the chunk is allocated.
+     *  @param first The index of the chunk's first node.
+     *  @param count The number of nodes in the chunk.
+     *  @param food The chunk's food, indexed from first.
+     */
+    private void spawnFood(int first, int count, int[] food) {
+        Random chunkRng = new Random(ColonyGrid.combine(seed, first));
+        // The Queen's node is always in the center.
+        int queenX = colonyWidth / 2;
+        int queenY = colonyHeight / 2;
+        for (int i = 0; i < count; i++) {
+            int x = (first + i) / colonyHeight;
+            int y = (first + i) % colonyHeight;
+            if (chunkRng.nextInt(100) < 25 && x != queenX && y != queenY)
+                food[i] += chunkRng.nextInt(501) + 500;
+        }
     }
     
     /** getNextId gets the next currentMaxId for an Ant and then increments it.
@@ -388,62 +1000,45 @@ final public class Colony {
         }
         
         // Then the rest of the ants.
-        if (!foragers.isEmpty()) {
-            Iterator iter = foragers.iterator();
-            while (iter.hasNext()) {
-                Forager forager = (Forager) iter.getCurrent();
-                addDead(forager);
-                iter.next();
-            }
-        }
-        if (!scouts.isEmpty()) {
-            Iterator iter = scouts.iterator();
-            while (iter.hasNext()) {
-                Scout scout = (Scout) iter.getCurrent();
-                addDead(scout);
-                iter.next();
-            }
-        }
-        if (!soldiers.isEmpty()) {
-            Iterator iter = soldiers.iterator();
-            while (iter.hasNext()) {
-                Soldier soldier = (Soldier) iter.getCurrent();
-                addDead(soldier);
-                iter.next();
-            }
-        }
-        if (!balas.isEmpty()) {
-            Iterator iter = balas.iterator();
-            while (iter.hasNext()) {
-                Bala bala = (Bala) iter.getCurrent();
-                addDead(bala);
-                iter.next();
-            }
-        }
+        for (int i = 0; i < foragers.size(); i++)
+            foragers.get(i).kill();
+        for (int i = 0; i < scouts.size(); i++)
+            scouts.get(i).kill();
+        for (int i = 0; i < soldiers.size(); i++)
+            soldiers.get(i).kill();
+        for (int i = 0; i < balas.size(); i++)
+            balas.get(i).kill();
         
         // Process all the dead ants.
         processDead();
         
         // Next, zero all ColonyNodes.
-        for (Integer i = 0; i < colonyWidth; i++)
-            for (Integer j = 0; j < colonyHeight; j++) {
-                getColonyNode(i, j).reducePheromone(getColonyNode(i, j).getPheromone());
-                getColonyNode(i, j).takeFood(getColonyNode(i, j).getFoodAvailable());
-            }
+        grid.clearFoodAndPheromone();
+        updateViews();
         
         // Clear the GUI's message.
-        SIM.getGui().setTime("");
+        setTime("");
         
         // Finally, stop the Simulation.
-        SIM.stop();
+        if (sim != null)
+            sim.stop();
+    }
+    
+    /** setTime displays the given message in the GUI's time label.
+     *  Does nothing when the Colony is running headless.
+     *  @param message The message to display.
+     */
+    private void setTime(String message) {
+        if (sim != null)
+            sim.getGui().setTime(message);
     }
     
     /** addAnt adds an Ant to their specified ColonyNode and appropriate
-     *  LinkedList of Ant type (Scout, Forager, Soldier, Bala).
+     *  AntList of Ant type (Scout, Forager, Soldier, Bala).
      *  @param ant The Ant to add.
      */
     void addAnt(Ant ant) {
-        // Depending on Ant's type, add it to the appropriate LinkedList group,
+        // Depending on Ant's type, add it to the appropriate AntList group,
         // as well as its designated ColonyNode, based on its x and y location.
         if (ant instanceof Queen)
             ant.getNode().addFriendlyAnt(ant);
@@ -467,16 +1062,16 @@ final public class Colony {
      */
     void createBala(Random rng) {
         // First determine where the Bala will spawn.
-        Integer locationX = rng.nextInt(27);
+        Integer locationX = rng.nextInt(colonyWidth);
         Integer locationY;
-        // If somewhere between top and bottom, then
+        // If somewhere between the left and right edges, then
         // locationY has to be top or bottom.
-        if (locationX > 0 && locationX < 27)
-            locationY = rng.nextInt(2) == 1 ? 26 : 0;
-        else // locationY can be any number between 0 and 27.
-            locationY = rng.nextInt(27);
+        if (locationX > 0 && locationX < colonyWidth - 1)
+            locationY = rng.nextInt(2) == 1 ? colonyHeight - 1 : 0;
+        else // On the left or right edge, locationY can be any row.
+            locationY = rng.nextInt(colonyHeight);
         
-        Bala bala = new Bala(getNextId(), TURNS_TO_YEAR, locationX, locationY);
+        Bala bala = new Bala(this, getNextId(), TURNS_TO_YEAR, locationX, locationY);
         addAnt(bala);
     }
     
@@ -485,11 +1080,12 @@ final public class Colony {
      *  @return the ColonyNode's ColonyNodeView.
      */
     ColonyNodeView getNodeView(Integer index) {
-        return ((ColonyNode)colonyNodes.get(index)).getNodeView();
+        ColonyNode node = grid.getNodeIfPresent(index);
+        return node == null ? null : node.getNodeView();
     }
     
     /** getColonyView returns this Colony's ColonyView reference.
-     *  @return The Colony's ColonyView attribute.
+     *  @return The Colony's ColonyView attribute, or null if headless.
      */
     public ColonyView getColonyView() {
         return view;
@@ -501,14 +1097,106 @@ final public class Colony {
      *  @return The specified ColonyNode.
      */
     ColonyNode getColonyNode(Integer locationX, Integer locationY) {
-        // In a grid, position is calculated x * width + y.
-        return ((ColonyNode)colonyNodes.get(locationX * colonyWidth + locationY));
+        return grid.getNode(locationX, locationY);
+    }
+    
+    /** getDistanceToQueen returns the number of moves from the x,y node to
+     *  the Queen's node over revealed nodes. Call it between turns; during a
+     *  parallel turn only Foragers may read the flow field.
+     *  @param x The node's x-coordinate.
+     *  @param y The node's y-coordinate.
+     *  @return The node's distance, or -1 if it cannot reach the Queen.
+     */
+    public Integer getDistanceToQueen(Integer x, Integer y) {
+        return grid.getDistanceToQueen(grid.index(x, y));
+    }
+    
+    /** getGrid returns the ColonyGrid holding the per-cell state, for
+     *  ants that scan many cells at once.
+     *  @return The Colony's grid attribute.
+     */
+    ColonyGrid getGrid() {
+        return grid;
+    }
+    
+    /** isHeadless returns whether this Colony runs without a Simulation
+     *  and ColonyView.
+     *  @return Whether the Colony is headless.
+     */
+    public boolean isHeadless() {
+        return view == null;
+    }
+    
+    /** checksum returns a hash of the Colony's state: the turn, every
+     *  node, and every Ant's type, id, location, age and carried food.
+     *  Runs with the same seed have the same checksum turn for turn, so
+     *  comparing checksums shows whether a change kept the behaviour.
+     *  @return The hash of the Colony.
+     */
+    public Long checksum() {
+        long hash = ColonyGrid.combine(grid.checksum(), turnCounter);
+        hash = ColonyGrid.combine(hash, currentMaxId);
+        if (queen != null)
+            hash = checksum(hash, queen);
+        for (AntList group : new AntList[] {scouts, foragers, soldiers, balas})
+            for (int i = 0; i < group.size(); i++)
+                hash = checksum(hash, group.get(i));
+        return hash;
+    }
+    
+    /** checksum folds one Ant's state into hash.
+     *  @param hash The hash so far.
+     *  @param ant The Ant to add.
+     *  @return The new hash.
+     */
+    private long checksum(long hash, Ant ant) {
+        hash = ColonyGrid.combine(hash, ant.getClass().getName().hashCode());
+        hash = ColonyGrid.combine(hash, ant.getId());
+        hash = ColonyGrid.combine(hash, ant.getLocationX());
+        hash = ColonyGrid.combine(hash, ant.getLocationY());
+        hash = ColonyGrid.combine(hash, ant.getTurnAge());
+        hash = ColonyGrid.combine(hash, ant.isDead() ? 1 : 0);
+        if (ant instanceof Forager)
+            hash = ColonyGrid.combine(hash, ((Forager) ant).getFoodCarrying());
+        return hash;
+    }
+    
+    /** addFoodCollected adds to the amount of food Foragers have brought
+     *  back to the Queen.
+     *  @param amount The amount of food delivered.
+     */
+    void addFoodCollected(Integer amount) {
+        foodCollected.addAndGet(amount);
+    }
+    
+    /** getFoodCollected returns the amount of food Foragers have brought
+     *  back to the Queen since the last reset.
+     *  @return The food collected.
+     */
+    public Long getFoodCollected() {
+        return foodCollected.get();
+    }
+    
+    /** getPopulation returns the number of living friendly ants, Queen
+     *  included.
+     *  @return The Colony's population.
+     */
+    public Integer getPopulation() {
+        return scouts.size() + foragers.size() + soldiers.size()
+            + (queen == null || isQueenDead ? 0 : 1);
+    }
+    
+    /** getSeed returns the master seed of the Colony's random numbers.
+     *  @return The Colony's seed attribute.
+     */
+    public Long getSeed() {
+        return seed;
     }
     
     /** getTurnCounter returns the Colony's turnCounter attribute.
      *  @return The Colony's turnCounter attribute.
      */
-    Integer getTurnCounter() {
+    public Integer getTurnCounter() {
         return turnCounter;
     }
     
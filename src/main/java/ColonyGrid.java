@@ -0,0 +1,552 @@
+import dataStructures.CSRGraph;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * ColonyGrid holds the per-cell state of the colony, indexed by
+ * x * height + y. The cells' food, pheromone, visibility and occupancy
+ * counts are kept by a CellStore in primitive form (structure of arrays),
+ * so that scans over neighbouring cells read contiguous memory instead of
+ * chasing ColonyNode references. ColonyNodes are created lazily as handles
+ * over a cell the first time a cell is asked for.
+ *
+ * Cells are grouped into chunks of CHUNK_CELLS consecutive cells (a
+ * stretch of one x-line on a tall grid), and a chunk is only given room
+ * the first time one of its cells is changed or asked for as a ColonyNode,
+ * so a large colony whose ants only ever visit a small part of it takes
+ * room for that part alone. A cell whose chunk was never allocated is
+ * hidden, empty and unoccupied. Finding a cell's chunk is a shift and its
+ * place in the chunk a mask, so the index stays the only way cells are
+ * addressed.
+ * @author Ryan McAllister-Grum
+ */
+final class ColonyGrid {
+    // FNV_OFFSET holds the starting value for checksums.
+    static final long FNV_OFFSET = 0xCBF29CE484222325L;
+    // FNV_PRIME holds the multiplier used when combining checksum values.
+    private static final long FNV_PRIME = 0x100000001B3L;
+    // CHUNK_SHIFT holds the number of bits of an index within its chunk.
+    static final int CHUNK_SHIFT = 10;
+    // CHUNK_CELLS holds the number of cells in a chunk.
+    static final int CHUNK_CELLS = 1 << CHUNK_SHIFT;
+    // CHUNK_MASK picks an index's place within its chunk.
+    static final int CHUNK_MASK = CHUNK_CELLS - 1;
+    // EMPTY_CELL holds what combining a cell whose five values are all
+    // zero multiplies the hash by.
+    private static final long EMPTY_CELL = power(FNV_PRIME, 5);
+    // EMPTY_CHUNK holds the same for a whole chunk of such cells.
+    private static final long EMPTY_CHUNK = power(EMPTY_CELL, CHUNK_CELLS);
+    // width holds the number of cells along the x-axis.
+    private final int width;
+    // height holds the number of cells along the y-axis.
+    private final int height;
+    // size holds the number of cells in the grid.
+    private final int size;
+    // cells holds the state of every cell.
+    private final CellStore cells;
+    // nodes holds the ColonyNode handles of each chunk of cells, or null
+    // for a chunk none has been asked for in.
+    private final AtomicReferenceArray<AtomicReferenceArray<ColonyNode>> nodes;
+    // queenIndex holds the index of the cell containing the Queen's
+    // chamber, or -1 if there is none.
+    private int queenIndex;
+    // flowField holds each cell's way back to the Queen, created the first
+    // time it is asked for.
+    private QueenFlowField flowField;
+    // pheromoneField evaporates and spreads pheromone every turn; null
+    // when pheromone only decays once a day.
+    private PheromoneField pheromoneField;
+
+
+    /** ColonyGrid constructor that allocates an empty, hidden grid of the
+     *  given dimensions on the Java heap.
+     *  @param width The number of cells along the x-axis.
+     *  @param height The number of cells along the y-axis.
+     */
+    ColonyGrid(int width, int height) {
+        this(width, height, new HeapCellStore(width * height));
+    }
+
+    /** ColonyGrid constructor for a grid of the given dimensions whose
+     *  cells are kept in the given file, mapped into memory. A new file
+     *  starts empty and hidden, and so does an existing one once cleared.
+     *  @param width The number of cells along the x-axis.
+     *  @param height The number of cells along the y-axis.
+     *  @param file The grid file.
+     */
+    ColonyGrid(int width, int height, Path file) {
+        this(width, height, new MappedCellStore(file, width, height));
+    }
+
+    /** ColonyGrid constructor for a grid of the given dimensions whose
+     *  cells are kept by the given CellStore.
+     *  @param width The number of cells along the x-axis.
+     *  @param height The number of cells along the y-axis.
+     *  @param cells The CellStore keeping the cells.
+     */
+    private ColonyGrid(int width, int height, CellStore cells) {
+        this.width = width;
+        this.height = height;
+        size = width * height;
+        this.cells = cells;
+        nodes = new AtomicReferenceArray<>(chunkCount(size));
+        queenIndex = -1;
+    }
+
+    /** chunkCount returns the number of chunks a grid of the given number
+     *  of cells is cut into.
+     *  @param size The number of cells.
+     *  @return The number of chunks.
+     */
+    static int chunkCount(int size) {
+        return (int) (((long) size + CHUNK_MASK) >>> CHUNK_SHIFT);
+    }
+
+    /** chunkCells returns the number of cells in the given chunk, which is
+     *  CHUNK_CELLS for every chunk but maybe the last.
+     *  @param size The number of cells in the grid.
+     *  @param number The chunk's number.
+     *  @return The number of cells in the chunk.
+     */
+    static int chunkCells(int size, int number) {
+        return Math.min(CHUNK_CELLS, size - (number << CHUNK_SHIFT));
+    }
+
+    /** index returns the array index of the x,y cell.
+     *  @param x The x-coordinate of the cell.
+     *  @param y The y-coordinate of the cell.
+     *  @return The cell's index into the grid arrays.
+     */
+    int index(int x, int y) {
+        return x * height + y;
+    }
+
+    /** contains returns whether x,y lies within the grid.
+     *  @param x The x-coordinate to check.
+     *  @param y The y-coordinate to check.
+     *  @return Whether the coordinates are inside the grid.
+     */
+    boolean contains(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height;
+    }
+
+    /** getWidth returns the number of cells along the x-axis.
+     *  @return The grid's width.
+     */
+    int getWidth() {
+        return width;
+    }
+
+    /** getHeight returns the number of cells along the y-axis.
+     *  @return The grid's height.
+     */
+    int getHeight() {
+        return height;
+    }
+
+    /** size returns the total number of cells in the grid.
+     *  @return width * height.
+     */
+    int size() {
+        return size;
+    }
+
+    /** getNode returns the ColonyNode for the x,y cell, creating it on
+     *  first access. Ants working out their turns in parallel may ask for
+     *  the same new cell at once; they all get the same ColonyNode.
+     *  @param x The x-coordinate of the cell.
+     *  @param y The y-coordinate of the cell.
+     *  @return The cell's ColonyNode.
+     */
+    ColonyNode getNode(int x, int y) {
+        int index = index(x, y);
+        AtomicReferenceArray<ColonyNode> chunk = nodes.get(index >>> CHUNK_SHIFT);
+        if (chunk == null) {
+            // Asking for a node counts as using its chunk.
+            cells.allocate(index);
+            nodes.compareAndSet(index >>> CHUNK_SHIFT, null, new AtomicReferenceArray<>(CHUNK_CELLS));
+            chunk = nodes.get(index >>> CHUNK_SHIFT);
+        }
+        ColonyNode node = chunk.get(index & CHUNK_MASK);
+        if (node == null) {
+            node = new ColonyNode(this, x, y);
+            if (!chunk.compareAndSet(index & CHUNK_MASK, null, node))
+                node = chunk.get(index & CHUNK_MASK);
+        }
+        return node;
+    }
+
+    /** getNodeIfPresent returns the ColonyNode for the given cell without
+     *  creating one.
+     *  @param index The cell's index.
+     *  @return The cell's ColonyNode, or null if it was never requested.
+     */
+    ColonyNode getNodeIfPresent(int index) {
+        AtomicReferenceArray<ColonyNode> chunk = nodes.get(index >>> CHUNK_SHIFT);
+        return chunk == null ? null : chunk.get(index & CHUNK_MASK);
+    }
+
+    /** getFood returns the amount of food in the given cell.
+     *  @param index The cell's index.
+     *  @return The cell's food.
+     */
+    int getFood(int index) {
+        return cells.getFood(index);
+    }
+
+    /** setFood sets the amount of food in the given cell.
+     *  @param index The cell's index.
+     *  @param amount The new amount of food.
+     */
+    void setFood(int index, int amount) {
+        cells.setFood(index, amount);
+    }
+
+    /** setFoodSource sets what spawns the food of each chunk as it is
+     *  allocated. Chunks allocated before are left as they are.
+     *  @param source Spawns a new chunk's food, or null for none.
+     */
+    void setFoodSource(CellStore.FoodSource source) {
+        cells.setFoodSource(source);
+    }
+
+    /** respawnFood spawns the food of every chunk allocated so far again,
+     *  adding it to whatever food is there.
+     */
+    void respawnFood() {
+        cells.respawnFood();
+    }
+
+    /** getPheromone returns the pheromone level of the given cell.
+     *  @param index The cell's index.
+     *  @return The cell's pheromone level.
+     */
+    int getPheromone(int index) {
+        return cells.getPheromone(index);
+    }
+
+    /** setPheromone sets the pheromone level of the given cell.
+     *  @param index The cell's index.
+     *  @param level The new pheromone level.
+     */
+    void setPheromone(int index, int level) {
+        cells.setPheromone(index, level);
+    }
+
+    /** decayPheromone halves the pheromone level of every cell, rounding
+     *  up, except that a level of 1 drops to 0.
+     */
+    void decayPheromone() {
+        cells.decayPheromone();
+    }
+
+    /** absorbPheromone adds to field, for each of the cells first to
+     *  last - 1, how far the cell's pheromone level has moved from the
+     *  whole part of its field value.
+     *  @param field The fractional pheromone levels, indexed like the grid.
+     *  @param first The first cell.
+     *  @param last One past the last cell.
+     */
+    void absorbPheromone(float[] field, int first, int last) {
+        cells.absorbPheromone(field, first, last);
+    }
+
+    /** storePheromone sets the pheromone level of each of the cells first
+     *  to last - 1 to the whole part of its field value.
+     *  @param field The fractional pheromone levels, indexed like the grid.
+     *  @param first The first cell.
+     *  @param last One past the last cell.
+     */
+    void storePheromone(float[] field, int first, int last) {
+        cells.storePheromone(field, first, last);
+    }
+
+    /** setPheromoneDiffusion switches between pheromone decaying once a
+     *  day and the continuous PheromoneField model. The field takes in the
+     *  current levels on its first step; both fractions 0 turn it off.
+     *  @param evaporation The fraction of pheromone lost each turn.
+     *  @param diffusion The fraction of the remaining pheromone that spreads
+     *  to the cells around each turn.
+     */
+    void setPheromoneDiffusion(double evaporation, double diffusion) {
+        if (evaporation == 0 && diffusion == 0)
+            pheromoneField = null;
+        else
+            pheromoneField = new PheromoneField(this, evaporation, diffusion);
+    }
+
+    /** hasPheromoneField returns whether pheromone follows the continuous
+     *  PheromoneField model.
+     *  @return Whether there is a PheromoneField.
+     */
+    boolean hasPheromoneField() {
+        return pheromoneField != null;
+    }
+
+    /** diffusePheromone evaporates and spreads every cell's pheromone for
+     *  one turn. Does nothing without a PheromoneField.
+     *  @param workers The threads to share the work between, or null to
+     *  do it all on the calling thread.
+     */
+    void diffusePheromone(ForkJoinPool workers) {
+        if (pheromoneField != null)
+            pheromoneField.step(workers);
+    }
+
+    /** isRevealed returns whether the given cell has been revealed.
+     *  @param index The cell's index.
+     *  @return Whether the cell is revealed.
+     */
+    boolean isRevealed(int index) {
+        return cells.isRevealed(index);
+    }
+
+    /** setRevealed reveals or hides the given cell.
+     *  @param index The cell's index.
+     *  @param isRevealed Whether the cell should be revealed.
+     */
+    void setRevealed(int index, boolean isRevealed) {
+        if (cells.isRevealed(index) == isRevealed)
+            return;
+        cells.setRevealed(index, isRevealed);
+        if (flowField != null) {
+            if (isRevealed)
+                flowField.revealed(index);
+            else
+                flowField.hidden(index);
+        }
+    }
+
+    /** hideAll hides every cell in the grid.
+     */
+    void hideAll() {
+        cells.hideAll();
+        if (flowField != null)
+            flowField.invalidate();
+    }
+
+    /** getFlowField returns the grid's QueenFlowField, brought up to date.
+     *  Reveals and hides keep it up to date as they happen, so it only
+     *  needs to be asked for again after the Queen moves or hideAll.
+     *  @return The grid's QueenFlowField.
+     */
+    QueenFlowField getFlowField() {
+        if (flowField == null)
+            flowField = new QueenFlowField(this);
+        flowField.refresh();
+        return flowField;
+    }
+
+    /** toGraph returns a CSRGraph of the revealed cells, each joined to the
+     *  revealed cells around it, which are the moves a Forager can make.
+     *  Vertex i of the graph is cell i of this grid.
+     *  @return The graph of revealed cells.
+     */
+    CSRGraph toGraph() {
+        BitSet revealed = new BitSet(size);
+        cells.addRevealed(revealed);
+        return CSRGraph.grid(width, height, revealed);
+    }
+
+    /** getDistanceToQueen returns the number of moves from the given cell
+     *  to the Queen's cell over revealed cells.
+     *  @param index The cell's index.
+     *  @return The cell's distance, or QueenFlowField.UNREACHABLE.
+     */
+    int getDistanceToQueen(int index) {
+        return getFlowField().getDistance(index);
+    }
+
+    /** getFriendlyCount returns the number of non-Bala ants in the cell.
+     *  @param index The cell's index.
+     *  @return The cell's friendly ant count.
+     */
+    int getFriendlyCount(int index) {
+        return cells.getFriendlyCount(index);
+    }
+
+    /** addFriendlyCount adjusts the number of non-Bala ants in the cell.
+     *  @param index The cell's index.
+     *  @param delta The amount to add (negative to subtract).
+     */
+    void addFriendlyCount(int index, int delta) {
+        cells.addFriendlyCount(index, delta);
+    }
+
+    /** getBalaCount returns the number of Bala ants in the cell.
+     *  @param index The cell's index.
+     *  @return The cell's Bala count.
+     */
+    int getBalaCount(int index) {
+        return cells.getBalaCount(index);
+    }
+
+    /** addBalaCount adjusts the number of Bala ants in the cell.
+     *  @param index The cell's index.
+     *  @param delta The amount to add (negative to subtract).
+     */
+    void addBalaCount(int index, int delta) {
+        cells.addBalaCount(index, delta);
+    }
+
+    /** getQueenIndex returns the index of the Queen's cell.
+     *  @return The Queen's cell index, or -1 if there is none.
+     */
+    int getQueenIndex() {
+        return queenIndex;
+    }
+
+    /** setQueenIndex sets the index of the Queen's cell.
+     *  @param index The Queen's cell index, or -1 for none.
+     */
+    void setQueenIndex(int index) {
+        if (queenIndex == index)
+            return;
+        queenIndex = index;
+        if (flowField != null)
+            flowField.invalidate();
+    }
+
+    /** checksum returns a hash of every cell's state, used to check that
+     *  two runs of the same seed end up with the same colony.
+     *  @return The hash of the grid.
+     */
+    long checksum() {
+        long hash = combine(combine(combine(FNV_OFFSET, width), height), queenIndex);
+        return cells.checksum(hash);
+    }
+
+    /** combine folds value into hash (64-bit FNV-1a over whole values).
+     *  @param hash The hash so far.
+     *  @param value The value to add to it.
+     *  @return The new hash.
+     */
+    static long combine(long hash, long value) {
+        return (hash ^ value) * FNV_PRIME;
+    }
+
+    /** combineEmpty folds the given number of empty cells into hash, the
+     *  same as combining each of their five zero values one by one.
+     *  @param hash The hash so far.
+     *  @param count The number of empty cells.
+     *  @return The new hash.
+     */
+    static long combineEmpty(long hash, int count) {
+        return hash * (count == CHUNK_CELLS ? EMPTY_CHUNK : power(EMPTY_CELL, count));
+    }
+
+    /** power returns base multiplied by itself exponent times, as combine
+     *  does to a hash for every zero it takes in.
+     *  @param base The value to multiply.
+     *  @param exponent The number of times to multiply it.
+     *  @return base to the power of exponent, modulo 2 to the 64.
+     */
+    private static long power(long base, int exponent) {
+        long result = 1;
+        for (; exponent > 0; exponent >>= 1) {
+            if ((exponent & 1) != 0)
+                result *= base;
+            base *= base;
+        }
+        return result;
+    }
+
+    /** clearFoodAndPheromone zeroes the food and pheromone of every cell.
+     */
+    void clearFoodAndPheromone() {
+        cells.clearFoodAndPheromone();
+        if (pheromoneField != null)
+            pheromoneField.clear();
+    }
+
+    /** writeCells writes the state of the grid to a Colony snapshot: the
+     *  Queen's cell, then the food, pheromone and revealed flags of every
+     *  allocated chunk, then the PheromoneField if there is one. Chunks
+     *  never allocated are left out, and so are the occupancy counts, which
+     *  putting the ants back in their ColonyNodes restores.
+     *  @param out Where to write the state.
+     *  @throws IOException If the state cannot be written.
+     */
+    void writeCells(DataOutput out) throws IOException {
+        out.writeInt(queenIndex);
+        for (int number = 0; number < nodes.length(); number++) {
+            int first = number << CHUNK_SHIFT;
+            if (!cells.isAllocated(first))
+                continue;
+            int count = chunkCells(size, number);
+            out.writeInt(number);
+            for (int i = first; i < first + count; i++)
+                out.writeInt(cells.getFood(i));
+            for (int i = first; i < first + count; i++)
+                out.writeInt(cells.getPheromone(i));
+            for (int word = first; word < first + count; word += Long.SIZE) {
+                long bits = 0;
+                for (int i = word; i < Math.min(word + Long.SIZE, first + count); i++)
+                    if (cells.isRevealed(i))
+                        bits |= 1L << i;
+                out.writeLong(bits);
+            }
+        }
+        out.writeInt(-1);
+        out.writeBoolean(pheromoneField != null);
+        if (pheromoneField != null)
+            pheromoneField.write(out);
+    }
+
+    /** readCells reads back what writeCells wrote. The grid must be empty
+     *  apart from its allocated chunks, with no FoodSource set, so that the
+     *  chunks come back with the food they had rather than new food.
+     *  @param in Where to read the state from.
+     *  @throws IOException If the state cannot be read.
+     */
+    void readCells(DataInput in) throws IOException {
+        setQueenIndex(in.readInt());
+        for (int number = in.readInt(); number >= 0; number = in.readInt()) {
+            if (number >= nodes.length())
+                throw new IOException("Error while reading ColonyGrid: chunk " + number + " is outside the grid!");
+            int first = number << CHUNK_SHIFT;
+            int count = chunkCells(size, number);
+            cells.allocate(first);
+            for (int i = first; i < first + count; i++)
+                cells.setFood(i, in.readInt());
+            for (int i = first; i < first + count; i++)
+                cells.setPheromone(i, in.readInt());
+            for (int word = first; word < first + count; word += Long.SIZE) {
+                long bits = in.readLong();
+                for (int i = word; i < Math.min(word + Long.SIZE, first + count); i++)
+                    cells.setRevealed(i, (bits & (1L << i)) != 0);
+            }
+        }
+        if (flowField != null)
+            flowField.invalidate();
+        pheromoneField = in.readBoolean() ? PheromoneField.read(this, in) : null;
+    }
+
+    /** fork returns a ColonyGrid holding the same cells as this one, after
+     *  which each changes independently of the other. The two share every
+     *  chunk of cells until one of them changes it; the ColonyNodes, which
+     *  the Ants of each grid hold on to, are not shared, and neither is the
+     *  PheromoneField, whose every level changes each turn anyway.
+     *  @return The fork.
+     *  @throws IllegalStateException If the grid is kept in a file.
+     */
+    ColonyGrid fork() {
+        ColonyGrid copy = new ColonyGrid(width, height, cells.fork());
+        copy.queenIndex = queenIndex;
+        if (pheromoneField != null)
+            copy.pheromoneField = pheromoneField.copy(copy);
+        return copy;
+    }
+
+    /** force writes any changes to the cells out to the grid file, if the
+     *  grid has one.
+     */
+    void force() {
+        cells.force();
+    }
+}
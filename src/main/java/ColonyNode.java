@@ -1,109 +1,147 @@
 
-import dataStructures.Iterator;
-import dataStructures.LinkedList;
-
 /**
  * ColonyNode contains all the details for a given node in the colony grid.
+ * Food, pheromone, visibility and occupancy counts live in the Colony's
+ * ColonyGrid; a ColonyNode is the handle that ants hold on to for their cell.
  * @author Ryan McAllister-Grum
  */
 final class ColonyNode {
+    // The ColonyGrid holding this node's cell state.
+    private final ColonyGrid grid;
+    // The index of this node's cell in the grid.
+    private final int index;
     // The X index for this ColonyNode.
     private final Integer locationX;
     // The Y index for this ColonyNode.
     private final Integer locationY;
-    // The amount of food in this node.
-    private Integer foodAvailable;
-    // The amount of pheromone in this node;
-    // used by foragers to go directly to a food source.
-    private Integer pheromoneLevel;
-    // Whether the queen is in this node.
-    private Boolean queenPresent;
     // The number of Forager ants in this node.
     private Integer foragerCount;
     // The number of Scout ants in this node.
     private Integer scoutCount;
     // The number of Soldier ants in this node.
     private Integer soldierCount;
-    // A LinkedList of all the friendly ants in this node;
+    // An AntSet of all the friendly ants in this node;
     // used by Bala ants to randomly pick a target to attack.
-    private final LinkedList friendlyAnts;
-    // A LinkedList of all the Bala ants in this node;
+    private final AntSet friendlyAnts;
+    // An AntSet of all the Bala ants in this node;
     // used by Soldier ants to randomly pick a target to attack.
-    private final LinkedList enemyAnts;
+    private final AntSet enemyAnts;
     // A reference to the UI component ColonyNodeView that displays
-    // information about this particular node.
-    private final ColonyNodeView nodeView;
+    // information about this particular node; null when the Colony
+    // is running headless.
+    private ColonyNodeView nodeView;
+    // The pheromone level nodeView currently shows.
+    private int shownPheromone;
 
     
-    /** ColonyNode constructor whose parameters contain all pertinent information
-     * for populating a new ColonyNode.
+    /** ColonyNode constructor that creates the handle for the x,y cell of
+     *  the given ColonyGrid.
+     *  @param newGrid The ColonyGrid holding the cell's state.
+     *  @param newLocationX The x-coordinate of the cell.
+     *  @param newLocationY The y-coordinate of the cell.
      */
-    ColonyNode(Integer newLocationX, Integer newLocationY, Integer newFoodAmount,
-            Boolean isQueenPresent, Integer newForagerCount, Integer newScoutCount,
-            Integer newSoldierCount, Integer newBalaCount) {
+    ColonyNode(ColonyGrid newGrid, Integer newLocationX, Integer newLocationY) {
         // Initialize ColonyNode.
+        grid = newGrid;
         locationX = newLocationX;
         locationY = newLocationY;
-        foodAvailable = newFoodAmount;
-        queenPresent = isQueenPresent;
-        foragerCount = newForagerCount;
-        scoutCount = newScoutCount;
-        soldierCount = newSoldierCount;
-        pheromoneLevel = 0;
-        friendlyAnts = new LinkedList();
-        enemyAnts = new LinkedList();
+        index = grid.index(locationX, locationY);
+        foragerCount = 0;
+        scoutCount = 0;
+        soldierCount = 0;
+        friendlyAnts = new AntSet();
+        enemyAnts = new AntSet();
+        nodeView = null;
+    }
+    
+    /** getIndex returns the index of this node's cell in the ColonyGrid.
+     *  @return The cell index.
+     */
+    int getIndex() {
+        return index;
+    }
+    
+    /** getNodeView returns this node's ColonyNodeView.
+     *  @return nodeView, or null if no view is attached.
+     */
+    ColonyNodeView getNodeView() {
+        return nodeView;
+    }
+    
+    /** setNodeView attaches a ColonyNodeView to this node and brings it
+     *  up to date with the node's current state.
+     *  @param view The ColonyNodeView to display this node in.
+     */
+    void setNodeView(ColonyNodeView view) {
+        nodeView = view;
+        updateView();
+    }
+    
+    /** updateView copies the entire state of this node into its
+     *  ColonyNodeView, if one is attached.
+     */
+    void updateView() {
+        if (nodeView == null)
+            return;
         
-        // Setup nodeView based on quantities.
-        nodeView = new ColonyNodeView();
-        nodeView.setFoodAmount(foodAvailable);
-        nodeView.setQueen(queenPresent);
-        if (queenPresent) {
+        nodeView.setID(locationX + "," + locationY);
+        nodeView.setFoodAmount(grid.getFood(index));
+        showPheromone(grid.getPheromone(index));
+        nodeView.setQueen(isQueenPresent());
+        if (isQueenPresent())
             nodeView.showQueenIcon();
-            revealNode();
-        }
+        else
+            nodeView.hideQueenIcon();
         nodeView.setForagerCount(foragerCount);
         if (foragerCount > 0)
             nodeView.showForagerIcon();
+        else
+            nodeView.hideForagerIcon();
         nodeView.setScoutCount(scoutCount);
         if (scoutCount > 0)
             nodeView.showScoutIcon();
+        else
+            nodeView.hideScoutIcon();
         nodeView.setSoldierCount(soldierCount);
         if (soldierCount > 0)
             nodeView.showSoldierIcon();
+        else
+            nodeView.hideSoldierIcon();
         nodeView.setBalaCount(enemyAnts.size());
         if (enemyAnts.size() > 0)
             nodeView.showBalaIcon();
-        nodeView.setID(locationX + "," + locationY);
-    }
-    
-    /** getNodeView returns this node's ColonyNodeView.
-     *  @return nodeView
-     */
-    ColonyNodeView getNodeView() {
-        return nodeView;
+        else
+            nodeView.hideBalaIcon();
+        if (grid.isRevealed(index))
+            nodeView.showNode();
+        else
+            nodeView.hideNode();
     }
     
     /** addFriendlyAnt adds a non-Bala Ant to friendlyAnts.
      */
     void addFriendlyAnt(Ant ant) {
         if (!(ant instanceof Bala))
-            if (!friendlyAnts.contains(ant)) {
-                friendlyAnts.add(ant);
+            if (friendlyAnts.add(ant)) {
+                grid.addFriendlyCount(index, 1);
                 if (ant instanceof Forager) {
-                    if (foragerCount == 0)
-                        nodeView.showForagerIcon();
                     foragerCount++;
-                    nodeView.setForagerCount(foragerCount);
+                    if (nodeView != null) {
+                        nodeView.setForagerCount(foragerCount);
+                        nodeView.showForagerIcon();
+                    }
                 } else if (ant instanceof Scout) {
-                    if (scoutCount == 0)
-                        nodeView.showScoutIcon();
                     scoutCount++;
-                    nodeView.setScoutCount(scoutCount);
+                    if (nodeView != null) {
+                        nodeView.setScoutCount(scoutCount);
+                        nodeView.showScoutIcon();
+                    }
                 } else if (ant instanceof Soldier) {
-                    if (soldierCount == 0)
-                        nodeView.showSoldierIcon();
                     soldierCount++;
-                    nodeView.setSoldierCount(soldierCount);
+                    if (nodeView != null) {
+                        nodeView.setSoldierCount(soldierCount);
+                        nodeView.showSoldierIcon();
+                    }
                 }
             }
     }
@@ -112,23 +150,29 @@ final class ColonyNode {
      */
     void removeFriendlyAnt(Ant ant) {
         if (!(ant instanceof Bala))
-            if (friendlyAnts.contains(ant)) {
-                friendlyAnts.remove(friendlyAnts.indexOf(ant));
+            if (friendlyAnts.remove(ant)) {
+                grid.addFriendlyCount(index, -1);
                 if (ant instanceof Forager) {
                     foragerCount--;
-                    nodeView.setForagerCount(foragerCount);
-                    if (foragerCount == 0)
-                        nodeView.hideForagerIcon();
+                    if (nodeView != null) {
+                        nodeView.setForagerCount(foragerCount);
+                        if (foragerCount == 0)
+                            nodeView.hideForagerIcon();
+                    }
                 } else if (ant instanceof Scout) {
                     scoutCount--;
-                    nodeView.setScoutCount(scoutCount);
-                    if (scoutCount == 0)
-                        nodeView.hideScoutIcon();
+                    if (nodeView != null) {
+                        nodeView.setScoutCount(scoutCount);
+                        if (scoutCount == 0)
+                            nodeView.hideScoutIcon();
+                    }
                 } else if (ant instanceof Soldier) {
                     soldierCount--;
-                    nodeView.setSoldierCount(soldierCount);
-                    if (soldierCount == 0)
-                        nodeView.hideSoldierIcon();
+                    if (nodeView != null) {
+                        nodeView.setSoldierCount(soldierCount);
+                        if (soldierCount == 0)
+                            nodeView.hideSoldierIcon();
+                    }
                 }
             }
     }
@@ -139,7 +183,7 @@ final class ColonyNode {
      *  @return The ColonyNode's friendlyAntCount attribute.
      */
     Integer getFriendlyAntCount() {
-        return friendlyAnts.size();
+        return grid.getFriendlyCount(index);
     }
     
     /** getFriendlyAnt is used by Balas to fetch an ant from
@@ -148,56 +192,32 @@ final class ColonyNode {
      *  @return A reference to the Ant.
      */
     Ant getFriendlyAnt(Integer index) {
-        // If friendlyAnts is not empty...
-        if (friendlyAnts.isEmpty())
-            return null;
-        else {
-            Iterator iter = friendlyAnts.listIterator(index);
-            Ant friendlyAnt;
-            while (iter.hasNext()) {
-                friendlyAnt = (Ant) iter.getCurrent();
-                if (!friendlyAnt.isDead())
-                    return friendlyAnt;
-                else
-                    iter.next();
-            }
-            // If friendlyAnt is still dead, check from the beginning.
-            iter = friendlyAnts.iterator();
-            Integer subIndex = 0; // Do not count past what was already checked.
-            while (iter.hasNext() && subIndex < index) {
-                friendlyAnt = (Ant) iter.getCurrent();
-                if (!friendlyAnt.isDead())
-                    return friendlyAnt;
-                else
-                    iter.next();
-            }
-
-            // If still no live friendlyAnt, return null.
-            return null;
-        }
+        return firstLiving(friendlyAnts, index);
     }
     
     /** addBala adds a new Bala Ant to enemyAnts.
      */
     void addBala(Bala bala) {
-        if (!enemyAnts.contains(bala)) {
-            enemyAnts.add(bala);
-            Integer size = enemyAnts.size();
-            nodeView.setBalaCount(size);
-            if (size > 0)
+        if (enemyAnts.add(bala)) {
+            grid.addBalaCount(index, 1);
+            if (nodeView != null) {
+                nodeView.setBalaCount(enemyAnts.size());
                 nodeView.showBalaIcon();
+            }
         }
     }
     
     /** removeBala removes an existing Bala ant from enemyAnts.
      */
     void removeBala(Bala bala) {
-        if (enemyAnts.contains(bala)) {
-            enemyAnts.remove(enemyAnts.indexOf(bala));
-            Integer size = enemyAnts.size();
-            nodeView.setBalaCount(size);
-            if (size.equals(0))
-                nodeView.hideBalaIcon();
+        if (enemyAnts.remove(bala)) {
+            grid.addBalaCount(index, -1);
+            if (nodeView != null) {
+                Integer size = enemyAnts.size();
+                nodeView.setBalaCount(size);
+                if (size.equals(0))
+                    nodeView.hideBalaIcon();
+            }
         }
     }
     
@@ -207,7 +227,7 @@ final class ColonyNode {
      *  @return This ColonyNode's enemyAntCount attribute.
      */
     Integer getBalaCount() {
-        return enemyAnts.size();
+        return grid.getBalaCount(index);
     }
     
     /** getBala returns a Bala from enemyAnts.
@@ -215,47 +235,40 @@ final class ColonyNode {
      *  @return The chosen Bala ant.
      */
     Bala getBala(Integer index) {
-        // If enemyAnts is not empty...
-        if (enemyAnts.isEmpty())
-            return null;
-        else {
-            Iterator iter = enemyAnts.listIterator(index);
-            Bala enemyAnt;
-            while (iter.hasNext()) {
-                enemyAnt = (Bala) iter.getCurrent();
-                if (!enemyAnt.isDead())
-                    return enemyAnt;
-                else
-                    iter.next();
-            }
-            // If enemyAnt is still dead, check from the beginning.
-            iter = enemyAnts.iterator();
-            Integer subIndex = 0; // Do not count past what was already checked.
-            while (iter.hasNext() && subIndex < index) {
-                enemyAnt = (Bala) iter.getCurrent();
-                if (!enemyAnt.isDead())
-                    return enemyAnt;
-                else
-                    iter.next();
-            }
-
-            // If still no live enemyAnts, return null.
-            return null;
+        return (Bala) firstLiving(enemyAnts, index);
+    }
+    
+    /** firstLiving returns the first Ant in ants that is not dead, looking
+     *  from index to the end and then from the beginning up to index.
+     *  @param ants The AntSet to look in.
+     *  @param index The slot to start looking from.
+     *  @return The first living Ant, or null if every Ant is dead.
+     */
+    private static Ant firstLiving(AntSet ants, Integer index) {
+        int size = ants.size();
+        for (int i = 0; i < size; i++) {
+            Ant ant = ants.get((index + i) % size);
+            if (!ant.isDead())
+                return ant;
         }
+        return null;
     }
     
     /** setQueenPresent sets whether the Queen ant is present in this node.
      *  @param present Whether the queen is present in this node.
      */
     void setQueenPresent(Boolean present) {
-        queenPresent = present;
+        if (present)
+            grid.setQueenIndex(index);
+        else if (isQueenPresent())
+            grid.setQueenIndex(-1);
     }
     
     /** isQueenPresent returns whether the Queen is in this ColonyNode.
      *  @return Whether the Queen ant is in this node.
      */
     Boolean isQueenPresent() {
-        return queenPresent;
+        return grid.getQueenIndex() == index;
     }
     
     /** addFood adds a quantity of food to this ColonyNode
@@ -264,13 +277,16 @@ final class ColonyNode {
      *  @return The new total amount of food in the node.
      */
     void addFood(Integer amt) {
-        // Add amt to foodAvailable and return new amount.
+        // Add amt to the cell's food.
         // If an overflow would occur from adding, set to max.
+        int foodAvailable = grid.getFood(index);
         if (foodAvailable + amt < 0)
             foodAvailable = Integer.MAX_VALUE;
         else
             foodAvailable += amt;
-        nodeView.setFoodAmount(foodAvailable);
+        grid.setFood(index, foodAvailable);
+        if (nodeView != null)
+            nodeView.setFoodAmount(foodAvailable);
     }
     
     /** takeFood reduces the foodAmount in this node by the
@@ -279,24 +295,27 @@ final class ColonyNode {
      *  @return Whether food was successfully taken from node.
      */
     Boolean takeFood(Integer amt) {
-        // Subtract amt from foodAvailable and return new amount.
-        // If foodAvailable would fall below zero, set it to zero.
+        // Subtract amt from the cell's food.
+        // If the food would fall below zero, set it to zero.
+        int foodAvailable = grid.getFood(index);
         if (foodAvailable > 0) {
             if (foodAvailable - amt < 0)
                 foodAvailable = 0;
             else
                 foodAvailable -= amt;
-            nodeView.setFoodAmount(foodAvailable);
+            grid.setFood(index, foodAvailable);
+            if (nodeView != null)
+                nodeView.setFoodAmount(foodAvailable);
             return true;
         } else
             return false;
     }
     
-    /** getFoodAvailable returns the foodAvailable attribute.
-     *  @return The foodAvailable attribute.
+    /** getFoodAvailable returns the amount of food in this node.
+     *  @return The cell's food.
      */
     Integer getFoodAvailable() {
-        return foodAvailable;
+        return grid.getFood(index);
     }
     
     /** addPheromone adds the specified amount of pheromone to
@@ -304,8 +323,10 @@ final class ColonyNode {
      *  @param amt The amount of pheromone being dropped by a Forager ant.
      */
     void addPheromone(Integer amt) {
-        pheromoneLevel += amt;
-        nodeView.setPheromoneLevel(pheromoneLevel);
+        int pheromoneLevel = grid.getPheromone(index) + amt;
+        grid.setPheromone(index, pheromoneLevel);
+        if (nodeView != null)
+            showPheromone(pheromoneLevel);
     }
     
     /** reducePheromone subtracts the specified amount of pheromone in
@@ -314,39 +335,62 @@ final class ColonyNode {
      *  @return The new pheromone level.
      */
     void reducePheromone(Integer amt) {
-        // If removal would cause pheromoneLevel to fall below zero,
+        // If removal would cause the pheromone level to fall below zero,
         // set it to zero.
+        int pheromoneLevel = grid.getPheromone(index);
         if (pheromoneLevel - amt < 0)
             pheromoneLevel = 0;
         else
             pheromoneLevel -= amt;
-        nodeView.setPheromoneLevel(pheromoneLevel);
+        grid.setPheromone(index, pheromoneLevel);
+        if (nodeView != null)
+            showPheromone(pheromoneLevel);
+    }
+    
+    /** updatePheromoneView shows this node's pheromone level in its
+     *  ColonyNodeView, if one is attached and it shows a different level.
+     */
+    void updatePheromoneView() {
+        if (nodeView != null && shownPheromone != grid.getPheromone(index))
+            showPheromone(grid.getPheromone(index));
+    }
+    
+    /** showPheromone displays the given pheromone level in nodeView.
+     *  @param level The level to display.
+     */
+    private void showPheromone(int level) {
+        nodeView.setPheromoneLevel(level);
+        shownPheromone = level;
     }
     
     /** getPheromone returns the value of pheromone currently in this ColonyNode.
-     *  @return The pheromoneLevel attribute.
+     *  @return The cell's pheromone level.
      */
     Integer getPheromone() {
-        return pheromoneLevel;
+        return grid.getPheromone(index);
     }
     
     /** isRevealed returns whether this node is visible.
      *  @return Whether the node is visible.
      */
     Boolean isRevealed() {
-        return nodeView.isVisible();
+        return grid.isRevealed(index);
     }
     
-    /** revealNode makes this node visible in the GUI.
+    /** revealNode marks this node as revealed and makes it visible in the GUI.
      */
     void revealNode() {
-        nodeView.showNode();
+        grid.setRevealed(index, true);
+        if (nodeView != null)
+            nodeView.showNode();
     }
     
-    /** hideNode makes this node invisible in the GUI.
+    /** hideNode marks this node as hidden and makes it invisible in the GUI.
      */
     void hideNode() {
-        nodeView.hideNode();
+        grid.setRevealed(index, false);
+        if (nodeView != null)
+            nodeView.hideNode();
     }
     
     /** resetNode sets this node and its UI component to zero values and
@@ -354,39 +398,21 @@ final class ColonyNode {
      */
     void resetNode() {
         // First clear out the friendly and enemy ants.
-        while (!friendlyAnts.isEmpty())
-            friendlyAnts.remove(0);
-        while (!enemyAnts.isEmpty())
-            enemyAnts.remove(0);
-        
-        // Now set all counts to zero in this and NodeView.
-        takeFood(foodAvailable);
-        nodeView.setFoodAmount(foodAvailable);
-        
-        reducePheromone(pheromoneLevel);
-        nodeView.setPheromoneLevel(pheromoneLevel);
+        friendlyAnts.clear();
+        enemyAnts.clear();
         
+        // Now set all counts to zero.
+        grid.setFood(index, 0);
+        grid.setPheromone(index, 0);
+        grid.addFriendlyCount(index, -grid.getFriendlyCount(index));
+        grid.addBalaCount(index, -grid.getBalaCount(index));
         setQueenPresent(false);
-        
-        
-        nodeView.setBalaCount(0);
-        nodeView.hideBalaIcon();
-        
-        
         foragerCount = 0;
-        nodeView.setForagerCount(foragerCount);
-        nodeView.hideForagerIcon();
-        
         scoutCount = 0;
-        nodeView.setScoutCount(scoutCount);
-        nodeView.hideScoutIcon();
-        
         soldierCount = 0;
-        nodeView.setSoldierCount(soldierCount);
-        nodeView.hideSoldierIcon();
-        
+        grid.setRevealed(index, false);
 
-        // Finally, hide the node.
-        hideNode();
+        // Finally, bring the NodeView in line with the now empty node.
+        updateView();
     }
-}
\ No newline at end of file
+}
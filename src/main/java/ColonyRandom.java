@@ -0,0 +1,70 @@
+import java.util.Random;
+
+/**
+ * ColonyRandom is a Random whose state can be read and set, so that a
+ * snapshot of a Colony can go on drawing exactly the numbers the Colony
+ * would have drawn. It steps the same 48-bit linear congruential generator
+ * as Random, so a ColonyRandom draws the same numbers as a Random given the
+ * same seed. Only the generator's state is kept: nextGaussian's spare value
+ * is not, and nothing in the colony draws one.
+ *
+ * Random's own serialized seed is only the seed the generator started
+ * from, but state is a field of ColonyRandom's own, so it is serialized
+ * and read back along with it.
+ * @author Ryan McAllister-Grum
+ */
+final class ColonyRandom extends Random {
+    // serialVersionUID versions the form a ColonyRandom is serialized in.
+    private static final long serialVersionUID = 1L;
+    // MULTIPLIER holds the generator's multiplier, as used by Random.
+    private static final long MULTIPLIER = 0x5DEECE66DL;
+    // ADDEND holds the generator's increment, as used by Random.
+    private static final long ADDEND = 0xBL;
+    // MASK keeps the state to 48 bits.
+    private static final long MASK = (1L << 48) - 1;
+    // state holds the generator's current 48-bit state. It has no
+    // initializer, since Random's constructor sets it through setSeed.
+    private long state;
+
+
+    /** ColonyRandom constructor that seeds the generator the same way as
+     *  new Random(seed).
+     *  @param seed The initial seed.
+     */
+    ColonyRandom(long seed) {
+        super(seed);
+    }
+
+    /** setSeed seeds the generator the same way as Random.setSeed.
+     *  @param seed The new seed.
+     */
+    @Override
+    public synchronized void setSeed(long seed) {
+        super.setSeed(seed);
+        state = (seed ^ MULTIPLIER) & MASK;
+    }
+
+    /** next steps the generator and returns its top bits.
+     *  @param bits The number of random bits to return.
+     *  @return The random bits.
+     */
+    @Override
+    protected int next(int bits) {
+        state = (state * MULTIPLIER + ADDEND) & MASK;
+        return (int) (state >>> (48 - bits));
+    }
+
+    /** getState returns the generator's current state.
+     *  @return The 48-bit state.
+     */
+    long getState() {
+        return state;
+    }
+
+    /** setState puts the generator back into a state getState returned.
+     *  @param newState The 48-bit state.
+     */
+    void setState(long newState) {
+        state = newState & MASK;
+    }
+}
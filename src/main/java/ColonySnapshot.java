@@ -0,0 +1,124 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * ColonySnapshot opens the files a Colony is saved to and restored from.
+ * A snapshot file starts with a fixed header: MAGIC, the format VERSION,
+ * and how the rest of the file is compressed (NONE or DEFLATE). The rest
+ * is the Colony's state in DataOutput form, as laid out by
+ * Colony.saveSnapshot, ColonyGrid.writeCells and Ant.writeState.
+ *
+ * The header is written and read straight through the file's channel, and
+ * the body through a buffered stream over the same channel, deflated if
+ * asked for. VERSION goes up whenever the layout of the body changes, so
+ * an older snapshot is refused rather than misread.
+ * @author Ryan McAllister-Grum
+ */
+final class ColonySnapshot {
+    // MAGIC marks the start of a snapshot file.
+    private static final long MAGIC = 0x416E74536E617053L;
+    // VERSION holds the version of the snapshot layout written.
+    static final int VERSION = 1;
+    // NONE marks a snapshot whose body is not compressed.
+    private static final int NONE = 0;
+    // DEFLATE marks a snapshot whose body is deflated.
+    private static final int DEFLATE = 1;
+    // HEADER_BYTES holds the size of the header.
+    private static final int HEADER_BYTES = Long.BYTES + 2 * Integer.BYTES;
+    // BUFFER_BYTES holds the size of the buffers between the body and the
+    // channel.
+    private static final int BUFFER_BYTES = 1 << 16;
+
+
+    /** ColonySnapshot is never instantiated.
+     */
+    private ColonySnapshot() {
+    }
+
+    /** create creates or replaces the given snapshot file, writes its
+     *  header, and returns the stream to write the body to. Closing the
+     *  stream finishes the file.
+     *  @param file The snapshot file.
+     *  @param compress Whether to deflate the body.
+     *  @return The stream to write the body to.
+     *  @throws IOException If the file cannot be created.
+     */
+    static DataOutputStream create(Path file, boolean compress) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putLong(MAGIC).putInt(VERSION).putInt(compress ? DEFLATE : NONE).flip();
+            while (header.hasRemaining())
+                channel.write(header);
+            OutputStream body = Channels.newOutputStream(channel);
+            if (compress) {
+                // The Deflater is ours, so closing the stream does not end it.
+                Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+                body = new DeflaterOutputStream(body, deflater, BUFFER_BYTES) {
+                    @Override
+                    public void close() throws IOException {
+                        try {
+                            super.close();
+                        } finally {
+                            deflater.end();
+                        }
+                    }
+                };
+            }
+            return new DataOutputStream(new BufferedOutputStream(body, BUFFER_BYTES));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /** open opens the given snapshot file, checks its header, and returns
+     *  the stream to read the body from.
+     *  @param file The snapshot file.
+     *  @return The stream to read the body from.
+     *  @throws IOException If the file cannot be read, or is not a snapshot
+     *  of this version.
+     */
+    static DataInputStream open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining())
+                if (channel.read(header) < 0)
+                    throw new IOException("Error while opening snapshot: " + file + " is not a Colony snapshot!");
+            header.flip();
+            if (header.getLong() != MAGIC)
+                throw new IOException("Error while opening snapshot: " + file + " is not a Colony snapshot!");
+            int version = header.getInt();
+            if (version != VERSION)
+                throw new IOException(
+                    "Error while opening snapshot: " + file + " is version " + version
+                    + ", but only version " + VERSION + " can be read!"
+                );
+            int compression = header.getInt();
+            InputStream body = Channels.newInputStream(channel);
+            if (compression == DEFLATE)
+                body = new InflaterInputStream(new BufferedInputStream(body, BUFFER_BYTES));
+            else if (compression != NONE)
+                throw new IOException("Error while opening snapshot: " + file + " has an unknown compression!");
+            return new DataInputStream(new BufferedInputStream(body, BUFFER_BYTES));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+}
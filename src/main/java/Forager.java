@@ -1,6 +1,8 @@
 import dataStructures.LinkedList;
-import dataStructures.LinkedStack;
-import dataStructures.ListGraph;
+import dataStructures.SparseBitSet;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Random;
 
 /** Forager is the class encapsulating the attributes and methods
@@ -18,22 +20,20 @@ final class Forager extends Ant {
     // lastLocationY tracks the Y-coordinate of the most recent node
     // the Forager was in.
     private Integer lastLocationY;
-    // moveHistoryX tracks the x-axis movements of the Forager while
+    // moveHistory tracks the cells the Forager moves through while
     // they forage for nodes containing food.
-    private final LinkedStack moveHistoryX;
-    // moveHistoryY tracks the y-axis movements of a Forager while
-    // they forage for nodes containing food.
-    private final LinkedStack moveHistoryY;
-    /* Locations is a ListGraph mapping the locations the Forager
-     * moves to as they are searching for food. It is primarily used to
-     * detect and avoid loops in the destination node.
+    private final MoveHistory moveHistory;
+    /* Locations is the set of cells the Forager moves to as they are
+     * searching for food. It is primarily used to detect and avoid loops
+     * in the destination node.
      */
-    private final ListGraph locations;
+    private final SparseBitSet locations;
     
 
     
     /** Constructor that takes the Forager's new ID, max turn age, and
      *  x-and-y-coordinate location.
+     *  @param colony The Colony the ant lives in.
      *  @param id The Forager's unique id.
      *  @param maxTurnAge The maximum turn age this Forager can live
      *  for until it dies of old age.
@@ -43,14 +43,13 @@ final class Forager extends Ant {
      *  for this Forager.
      *  @return The new instance of a Forager ant.
      */
-    Forager(Integer id, Integer maxTurnAge, Integer locationX, Integer locationY) {
-        super(id, maxTurnAge, locationX, locationY);
+    Forager(Colony colony, Integer id, Integer maxTurnAge, Integer locationX, Integer locationY) {
+        super(colony, id, maxTurnAge, locationX, locationY);
         foodCarrying = 0;
         lastLocationX = 0;
         lastLocationY = 0;
-        moveHistoryX = new LinkedStack();
-        moveHistoryY = new LinkedStack();
-        locations = new ListGraph();
+        moveHistory = new MoveHistory();
+        locations = new SparseBitSet();
     }
     
     /** kill flags this Forager as dead, adds it to the deadAnts Colony
@@ -59,9 +58,8 @@ final class Forager extends Ant {
     @Override
     void kill() {
         super.kill();
-        getNode().addFood(foodCarrying);
-        moveHistoryX.clear();
-        moveHistoryY.clear();
+        addFood(getNode(), foodCarrying);
+        moveHistory.clear();
         locations.clear();
     }
     
@@ -75,47 +73,55 @@ final class Forager extends Ant {
         // First, if foraging, check if there is a single node with
         // the largest amount of pheromone nearby.
         if (foraging()) {
+            // grid gives direct access to the surrounding cells' state.
+            ColonyGrid grid = getColony().getGrid();
+            // locationX and Y cache this Forager's current coordinates.
+            int locationX = getLocationX();
+            int locationY = getLocationY();
             // maxPheromoneNodes counts the number of surrounding nodes
             // with the highest level of pheromone.
             Integer maxPheromoneNodes = 0;
             // maxPheromoneLevel tracks the currently highest level of
             // pheromone in the surrounding nodes.
-            Integer maxPheromoneLevel = 0;
+            int maxPheromoneLevel = 0;
             // maxPheromoneNode X and Y hold the last max node's XY-coordinates.
             Integer maxPheromoneNodeX = 0;
             Integer maxPheromoneNodeY = 0;
             
-            // Search the surrounding ColonyNodes' pheromoneLevel.
-            for (Integer x = getLocationX() - 1; x <= getLocationX() + 1; x++)
-                for (Integer y = getLocationY() - 1; y <= getLocationY() + 1; y++)
+            // Search the surrounding cells' pheromone level.
+            for (int x = locationX - 1; x <= locationX + 1; x++)
+                for (int y = locationY - 1; y <= locationY + 1; y++)
                     // First check that current position is not outside Colony bounds.
-                    if (x >= 0 && y >= 0 && x < COLONY.getColonyWidth() && y < COLONY.getColonyHeight())
+                    if (grid.contains(x, y)) {
+                        int cell = grid.index(x, y);
+                        int pheromone = grid.getPheromone(cell);
                         // If there is a node with a higher pheromone level, make a note of it.
                         // Avoid moving to the previous node.
-                        if (COLONY.getColonyNode(x, y).getPheromone() > maxPheromoneLevel
-                            && !x.equals(getLocationX()) && !y.equals(getLocationY())
-                            && !x.equals(lastLocationX) && !y.equals(lastLocationY)
-                            && COLONY.getColonyNode(x, y).isRevealed()
+                        if (pheromone > maxPheromoneLevel
+                            && x != locationX && y != locationY
+                            && x != lastLocationX && y != lastLocationY
+                            && grid.isRevealed(cell)
                         ) {
                             maxPheromoneNodeX = x;
                             maxPheromoneNodeY = y;
-                            maxPheromoneLevel = COLONY.getColonyNode(x, y).getPheromone();
+                            maxPheromoneLevel = pheromone;
                             maxPheromoneNodes = 1;
                         /* Else if there is a node with the same amount of pheromone
                          * and the max pheromone is not currently zero or the
                          * Forager's current location, include it
                          * in the count of maxPheromoneNodes.
                          */
-                        } else if (COLONY.getColonyNode(x, y).getPheromone().equals(maxPheromoneLevel)
+                        } else if (pheromone == maxPheromoneLevel
                                   && maxPheromoneLevel > 0
-                                  && !x.equals(getLocationX()) && !y.equals(getLocationY())
-                                  && !x.equals(lastLocationX) && !y.equals(lastLocationY)
-                                  && COLONY.getColonyNode(x, y).isRevealed()
+                                  && x != locationX && y != locationY
+                                  && x != lastLocationX && y != lastLocationY
+                                  && grid.isRevealed(cell)
                           ) {
                             maxPheromoneNodeX = x;
                             maxPheromoneNodeY = y;
                             maxPheromoneNodes++;
                         }
+                    }
             
             
             // Next, decide where to move.
@@ -133,10 +139,9 @@ final class Forager extends Ant {
                 while (
                     ((nodeChoiceX.equals(getLocationX()) && nodeChoiceY.equals(getLocationY())) ||
                     (nodeChoiceX.equals(lastLocationX) && nodeChoiceY.equals(lastLocationY))) ||
-                    nodeChoiceX < 0 || nodeChoiceY < 0 || nodeChoiceX >= COLONY.getColonyWidth() ||
-                    nodeChoiceY >= COLONY.getColonyHeight() ||
-                    !COLONY.getColonyNode(nodeChoiceX, nodeChoiceY).getPheromone().equals(maxPheromoneLevel)
-                    || !COLONY.getColonyNode(nodeChoiceX, nodeChoiceY).isRevealed()
+                    !grid.contains(nodeChoiceX, nodeChoiceY) ||
+                    grid.getPheromone(grid.index(nodeChoiceX, nodeChoiceY)) != maxPheromoneLevel
+                    || !grid.isRevealed(grid.index(nodeChoiceX, nodeChoiceY))
                 );
                 
             /* If there is no pheromone around, pick a node at random
@@ -147,18 +152,18 @@ final class Forager extends Ant {
                 // If only one surrounding node is revealed and it is
                 // lastLocation, move to it.
                 Integer revealedNodeCount = 0;
-                for (Integer x = getLocationX() - 1; x <= getLocationX() + 1; x++)
-                    for (Integer y = getLocationY() - 1; y <= getLocationY() + 1; y++)
+                for (int x = locationX - 1; x <= locationX + 1; x++)
+                    for (int y = locationY - 1; y <= locationY + 1; y++)
                         // First check that current position is not outside Colony bounds.
-                        if (x >= 0 && y >= 0 && x < COLONY.getColonyWidth() && y < COLONY.getColonyHeight())
-                            if (COLONY.getColonyNode(x, y).isRevealed() &&
-                                !x.equals(getLocationX()) && !y.equals(getLocationY())
+                        if (grid.contains(x, y))
+                            if (grid.isRevealed(grid.index(x, y)) &&
+                                x != locationX && y != locationY
                             )
                                 revealedNodeCount++;
                 
                 // If there is only one revealed node nearby,
                 // it must be the previous location, so go to it.
-                if (revealedNodeCount.equals(1)) {
+                if (revealedNodeCount.equals(1) || !hasUnvisitedNeighbor(grid)) {
                     nodeChoiceX = lastLocationX;
                     nodeChoiceY = lastLocationY;
                 } else
@@ -169,9 +174,8 @@ final class Forager extends Ant {
                     while (
                         ((nodeChoiceX.equals(getLocationX()) && nodeChoiceY.equals(getLocationY())) ||
                         (nodeChoiceX.equals(lastLocationX) && nodeChoiceY.equals(lastLocationY))) ||
-                        nodeChoiceX < 0 || nodeChoiceY < 0 || nodeChoiceX >= COLONY.getColonyWidth() ||
-                        nodeChoiceY >= COLONY.getColonyHeight()
-                        || !COLONY.getColonyNode(nodeChoiceX, nodeChoiceY).isRevealed()
+                        !grid.contains(nodeChoiceX, nodeChoiceY)
+                        || !grid.isRevealed(grid.index(nodeChoiceX, nodeChoiceY))
                     );
                 
             } else { // maxPheromoneNodes == 1, set nodeChoice to maxPheromoneNodes.
@@ -189,20 +193,38 @@ final class Forager extends Ant {
             // Move the Forager ant.
             lastLocationX = getLocationX();
             lastLocationY = getLocationY();
-            moveHistoryX.push(getLocationX());
-            moveHistoryY.push(getLocationY());
-            super.move(nodeChoiceX, nodeChoiceY);
-            
-            // Finally, remove any loop that is on the move history stack.
-            removeLoop();
+            if (getColony().isFlowFieldReturn())
+                // The flow field knows the way back, so no history is kept.
+                super.move(nodeChoiceX, nodeChoiceY);
+            else {
+                moveHistory.push(grid.index(getLocationX(), getLocationY()));
+                super.move(nodeChoiceX, nodeChoiceY);
+                
+                // Finally, remove any loop that is on the move history stack.
+                removeLoop();
+            }
             
+        } else if (getColony().isFlowFieldReturn()) { // Follow the flow field back to the Queen.
+            ColonyGrid grid = getColony().getGrid();
+            int next = grid.getFlowField().nextHop(grid.index(getLocationX(), getLocationY()));
+            if (next >= 0) {
+                super.move(next / grid.getHeight(), next % grid.getHeight());
+                // Once we reach the Queen, clear locations.
+                if (getNode().isQueenPresent()) {
+                    moveHistory.clear();
+                    locations.clear();
+                    lastLocationX = 0;
+                    lastLocationY = 0;
+                }
+            }
         } else { // Follow moveHistory back to the Queen.
-            if (!moveHistoryX.isEmpty()) {
-                super.move((Integer) moveHistoryX.pop(), (Integer) moveHistoryY.pop());
+            if (!moveHistory.isEmpty()) {
+                int cell = moveHistory.pop();
+                int height = getColony().getGrid().getHeight();
+                super.move(cell / height, cell % height);
                 // Once we reach the Queen, clear locations.
-                if (COLONY.getColonyNode(getLocationX(), getLocationY()).isQueenPresent()) {
-                    moveHistoryX.clear();
-                    moveHistoryY.clear();
+                if (getColony().getColonyNode(getLocationX(), getLocationY()).isQueenPresent()) {
+                    moveHistory.clear();
                     locations.clear();
                     lastLocationX = 0;
                     lastLocationY = 0;
@@ -211,10 +233,35 @@ final class Forager extends Ant {
         }
     }
     
+    /** hasUnvisitedNeighbor returns whether any revealed node around this
+     *  Forager other than its previous location exists. Without one, the
+     *  random search for a new node in move() could never finish.
+     *  @param grid The Colony's grid.
+     *  @return Whether there is a revealed neighbour besides lastLocation.
+     */
+    private Boolean hasUnvisitedNeighbor(ColonyGrid grid) {
+        int locationX = getLocationX();
+        int locationY = getLocationY();
+        for (int x = locationX - 1; x <= locationX + 1; x++)
+            for (int y = locationY - 1; y <= locationY + 1; y++)
+                if (grid.contains(x, y) && grid.isRevealed(grid.index(x, y))
+                    && !(x == locationX && y == locationY)
+                    && !(x == lastLocationX && y == lastLocationY)
+                )
+                    return true;
+        return false;
+    }
+
     /** pickUpFood makes this Forager take one unit of food from its
-     *  current ColonyNode.
+     *  current ColonyNode. During a parallel turn the attempt is recorded
+     *  and made once it is known whether food is left for this Forager.
      */
-    private void pickUpFood() {
+    void pickUpFood() {
+        if (getEffects() != null) {
+            getEffects().pickUpFood(this);
+            return;
+        }
+        
         // Can only take food if food is present.
         // Cannot take food from the Queen's node.
         // Also cannot take food if already have food.
@@ -231,7 +278,8 @@ final class Forager extends Ant {
     private void dropFood() {
         // Can only drop food if this Forager is carrying food.
         if (foodCarrying.equals(1)) {
-            getNode().addFood(foodCarrying);
+            addFood(getNode(), foodCarrying);
+            getColony().addFoodCollected(foodCarrying);
             foodCarrying = 0;
         }
     }
@@ -244,10 +292,74 @@ final class Forager extends Ant {
         // Do not drop pheromone if > 1000.
         if (!foraging() && !getNode().isQueenPresent() &&
             getNode().getPheromone() < 1000) {
-            getNode().addPheromone(10);
+            if (getEffects() == null)
+                getNode().addPheromone(10);
+            else
+                getEffects().addPheromone(getNode(), 10, 1000);
         }
     }
     
+    /** getFoodCarrying returns how much food this Forager is carrying.
+     *  @return The Forager's foodCarrying attribute.
+     */
+    Integer getFoodCarrying() {
+        return foodCarrying;
+    }
+    
+    /** writeState writes this Forager's state to a Colony snapshot: an
+     *  Ant's state, then the food it carries, where it last was, the way it
+     *  came and the cells it has visited.
+     *  @param out Where to write the state.
+     *  @throws IOException If the state cannot be written.
+     */
+    @Override
+    void writeState(DataOutput out) throws IOException {
+        super.writeState(out);
+        out.writeInt(foodCarrying);
+        out.writeInt(lastLocationX);
+        out.writeInt(lastLocationY);
+        out.writeInt(moveHistory.size());
+        for (int i = 0; i < moveHistory.size(); i++)
+            out.writeInt(moveHistory.get(i));
+        int[] visited = locations.toArray();
+        out.writeInt(visited.length);
+        for (int cell : visited)
+            out.writeInt(cell);
+    }
+    
+    /** readState reads back what writeState wrote into a newly created
+     *  Forager.
+     *  @param in Where to read the state from.
+     *  @throws IOException If the state cannot be read.
+     */
+    @Override
+    void readState(DataInput in) throws IOException {
+        super.readState(in);
+        foodCarrying = in.readInt();
+        lastLocationX = in.readInt();
+        lastLocationY = in.readInt();
+        for (int i = in.readInt(); i > 0; i--)
+            moveHistory.push(in.readInt());
+        for (int i = in.readInt(); i > 0; i--)
+            locations.add(in.readInt());
+    }
+    
+    /** copyState gives this newly created Forager the state of another.
+     *  @param other The Forager to copy.
+     */
+    @Override
+    void copyState(Ant other) {
+        super.copyState(other);
+        Forager forager = (Forager) other;
+        foodCarrying = forager.foodCarrying;
+        lastLocationX = forager.lastLocationX;
+        lastLocationY = forager.lastLocationY;
+        for (int i = 0; i < forager.moveHistory.size(); i++)
+            moveHistory.push(forager.moveHistory.get(i));
+        for (int cell : forager.locations.toArray())
+            locations.add(cell);
+    }
+    
     /** foraging is used to check whether the Forager has food,
      *  and is thus not foraging.
      *  @return Whether the ant is foraging for food.
@@ -274,13 +386,11 @@ final class Forager extends Ant {
          * nodes for a valid move. If none are available,
          * set nextLocations to lastLocations.
          */
-        if (locations.add(COLONY.getColonyNode(nextLocationX, nextLocationY)))
+        ColonyGrid grid = getColony().getGrid();
+        if (locations.add(grid.index(nextLocationX, nextLocationY)))
             if (locations.size() > 1)
-                locations.addEdge(
-                    COLONY.getColonyNode(lastLocationX, lastLocationY),
-                    COLONY.getColonyNode(nextLocationX, nextLocationY),
-                    0
-                );
+                // Where the Forager came from counts as visited too.
+                locations.add(grid.index(lastLocationX, lastLocationY));
         else { // Unable to add location, start searching for next valid location.
             Boolean added = false;
             /* Create a temporary list of surrounding node values (0-7)
@@ -316,11 +426,11 @@ final class Forager extends Ant {
                     for (Integer x = getLocationX() - 1; x <= getLocationX() + 1; x++) {
                         for (Integer y = getLocationY() - 1; y <= getLocationY() + 1; y++) {
                             // First check that current position is not outside Colony bounds.
-                            if (x >= 0 && y >= 0 && x < COLONY.getColonyWidth() && y < COLONY.getColonyHeight())
+                            if (x >= 0 && y >= 0 && x < getColony().getColonyWidth() && y < getColony().getColonyHeight())
                                 // Avoid the current node, last node, and hidden nodes.
                                 if (!x.equals(getLocationX()) && !y.equals(getLocationY())
                                     && !x.equals(lastLocationX) && !y.equals(lastLocationY)
-                                    && COLONY.getColonyNode(x, y).isRevealed()
+                                    && getColony().getColonyNode(x, y).isRevealed()
                                 ) {
                                     nodeChoiceX = x;
                                     nodeChoiceY = y;
@@ -334,14 +444,10 @@ final class Forager extends Ant {
                     }
                 
                 // Check whether the choice is a valid move in locations.
-                if (COLONY.getColonyNode(nodeChoiceX, nodeChoiceY).isRevealed())
-                    if (locations.add(COLONY.getColonyNode(nodeChoiceX, nodeChoiceY))) {
+                if (grid.isRevealed(grid.index(nodeChoiceX, nodeChoiceY)))
+                    if (locations.add(grid.index(nodeChoiceX, nodeChoiceY))) {
                         if (locations.size() > 1)
-                            locations.addEdge(
-                                COLONY.getColonyNode(lastLocationX, lastLocationY),
-                                COLONY.getColonyNode(nodeChoiceX, nodeChoiceY),
-                                0
-                            );
+                            locations.add(grid.index(lastLocationX, lastLocationY));
                         nextLocationX = nodeChoiceX;
                         nextLocationY = nodeChoiceY;
                         added = true;
@@ -356,38 +462,22 @@ final class Forager extends Ant {
         }
     }
     
-    /** removeLoop removes any loop present on the moveHistoryX and Y stacks.
+    /** removeLoop removes any loop present on the moveHistory stack.
      *  They do occur when foraging, but should not be present when returning.
      *  This should remove any lengthy return trips that occur from loops.
      */
     private void removeLoop() {
-        // If moveHistoryX is empty, so is Y.
-        if (!moveHistoryX.isEmpty()) {
-            LinkedStack tempX = new LinkedStack();
-            LinkedStack tempY = new LinkedStack();
-            Boolean loop = false;
-            while(!moveHistoryX.isEmpty() && !loop) {
-                Integer x = (Integer) moveHistoryX.pop();
-                Integer y = (Integer) moveHistoryY.pop();
-                if (!(x.equals(getLocationX()) && y.equals(getLocationY()))) {
-                    tempX.push(x);
-                    tempY.push(y);
-                } else
-                    loop = true;
-            }
-            // If there is a loop, discard what was popped off,
-            // otherwise put it back on moveHistoryX and Y.
-            if (!loop)
-                while(!tempX.isEmpty()) {
-                    moveHistoryX.push(tempX.pop());
-                    moveHistoryY.push(tempY.pop());
-                }
-        }
+        // If the Forager has been here before, everything it did since
+        // then is a loop, so discard it along with the earlier visit.
+        int position = moveHistory.indexOf(getColony().getGrid().index(getLocationX(), getLocationY()));
+        if (position >= 0)
+            moveHistory.truncate(position);
     }
     
     /** takeAction processes this Forager ant's turn.
      *  @param rng Used to add randomness to the actions.
      */
+    @Override
     void takeAction(Random rng) {
         // Cannot act if dead.
         if (!isDead()) {
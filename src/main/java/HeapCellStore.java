@@ -0,0 +1,350 @@
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * HeapCellStore is the CellStore that keeps each chunk of cells in its own
+ * set of primitive arrays on the Java heap (structure of arrays), so that
+ * scans over neighbouring cells read contiguous memory. Finding a cell's
+ * chunk is a shift and its place in the chunk a mask.
+ *
+ * Forking a HeapCellStore shares its chunks with the fork rather than
+ * copying them. Every chunk records the owner it was made for, and a store
+ * only ever changes chunks made for its current owner: a chunk of any
+ * other owner is copied before its first change. Forking gives both
+ * stores a new owner, so from then on neither changes a chunk they share,
+ * and a fork costs only what the two stores go on to change.
+ * @author Ryan McAllister-Grum
+ */
+final class HeapCellStore implements CellStore {
+    // size holds the number of cells in the grid.
+    private final int size;
+    // chunks holds each chunk of cells, or null for one never allocated.
+    private final Chunk[] chunks;
+    // foodSource spawns a new chunk's food; null when chunks start empty.
+    private FoodSource foodSource;
+    // owner marks the chunks this store may change without copying.
+    private Object owner;
+
+
+    /** HeapCellStore constructor for a grid of the given number of cells,
+     *  none of which is allocated yet.
+     *  @param size The number of cells.
+     */
+    HeapCellStore(int size) {
+        this(size, new Chunk[ColonyGrid.chunkCount(size)], null);
+    }
+
+    /** HeapCellStore constructor for a store holding the given chunks,
+     *  none of which it owns.
+     *  @param size The number of cells.
+     *  @param chunks The chunks of cells.
+     *  @param source Spawns a new chunk's food, or null for none.
+     */
+    private HeapCellStore(int size, Chunk[] chunks, FoodSource source) {
+        this.size = size;
+        this.chunks = chunks;
+        foodSource = source;
+        owner = new Object();
+    }
+
+    /** Chunk holds the state of CHUNK_CELLS consecutive cells.
+     */
+    private static final class Chunk {
+        // owner holds the owner of the store allowed to change the chunk.
+        final Object owner;
+        // food holds the amount of food in each cell.
+        final int[] food;
+        // pheromone holds the pheromone level of each cell.
+        final int[] pheromone;
+        // friendlyCount holds the number of non-Bala ants in each cell.
+        final int[] friendlyCount;
+        // balaCount holds the number of Bala ants in each cell.
+        final int[] balaCount;
+        // revealed flags the cells that have been uncovered by Scouts.
+        final long[] revealed;
+
+        /** Chunk constructor for the chunk starting at first, with its
+         *  food spawned by source. Everything is filled in before the
+         *  constructor returns, so a thread that finds the Chunk through
+         *  HeapCellStore.chunks sees it complete.
+         *  @param owner The owner of the store the chunk is made for.
+         *  @param first The index of the chunk's first cell.
+         *  @param count The number of cells in the chunk.
+         *  @param source Spawns the chunk's food, or null for none.
+         */
+        Chunk(Object owner, int first, int count, FoodSource source) {
+            this.owner = owner;
+            food = new int[ColonyGrid.CHUNK_CELLS];
+            pheromone = new int[ColonyGrid.CHUNK_CELLS];
+            friendlyCount = new int[ColonyGrid.CHUNK_CELLS];
+            balaCount = new int[ColonyGrid.CHUNK_CELLS];
+            revealed = new long[ColonyGrid.CHUNK_CELLS / Long.SIZE];
+            if (source != null)
+                source.spawn(first, count, food);
+        }
+
+        /** Chunk constructor that copies another chunk.
+         *  @param owner The owner of the store the copy is made for.
+         *  @param other The chunk to copy.
+         */
+        Chunk(Object owner, Chunk other) {
+            this.owner = owner;
+            food = other.food.clone();
+            pheromone = other.pheromone.clone();
+            friendlyCount = other.friendlyCount.clone();
+            balaCount = other.balaCount.clone();
+            revealed = other.revealed.clone();
+        }
+    }
+
+    /** chunk returns the chunk holding the given cell, ready to be changed:
+     *  it is allocated if this is the first time it is needed, and copied
+     *  if it is shared with a fork.
+     *  @param index The cell's index.
+     *  @return The cell's chunk.
+     */
+    private Chunk chunk(int index) {
+        Chunk chunk = chunks[index >>> ColonyGrid.CHUNK_SHIFT];
+        return chunk != null && chunk.owner == owner ? chunk : ownChunk(index >>> ColonyGrid.CHUNK_SHIFT);
+    }
+
+    /** ownChunk makes sure the given chunk exists and is this store's own
+     *  to change, unless another thread has just done so. Ants working out
+     *  their turns in parallel may need the same new chunk at once; they
+     *  all get the same one.
+     *  @param number The chunk's number.
+     *  @return The chunk.
+     */
+    private synchronized Chunk ownChunk(int number) {
+        Chunk chunk = chunks[number];
+        if (chunk == null) {
+            int first = number << ColonyGrid.CHUNK_SHIFT;
+            chunk = new Chunk(owner, first, ColonyGrid.chunkCells(size, number), foodSource);
+            chunks[number] = chunk;
+        } else if (chunk.owner != owner) {
+            chunk = new Chunk(owner, chunk);
+            chunks[number] = chunk;
+        }
+        return chunk;
+    }
+
+    @Override
+    public boolean isAllocated(int index) {
+        return chunks[index >>> ColonyGrid.CHUNK_SHIFT] != null;
+    }
+
+    @Override
+    public void allocate(int index) {
+        if (chunks[index >>> ColonyGrid.CHUNK_SHIFT] == null)
+            ownChunk(index >>> ColonyGrid.CHUNK_SHIFT);
+    }
+
+    @Override
+    public int getFood(int index) {
+        Chunk chunk = chunks[index >>> ColonyGrid.CHUNK_SHIFT];
+        if (chunk == null) {
+            if (foodSource == null)
+                return 0;
+            chunk = ownChunk(index >>> ColonyGrid.CHUNK_SHIFT);
+        }
+        return chunk.food[index & ColonyGrid.CHUNK_MASK];
+    }
+
+    @Override
+    public void setFood(int index, int amount) {
+        chunk(index).food[index & ColonyGrid.CHUNK_MASK] = amount;
+    }
+
+    @Override
+    public int getPheromone(int index) {
+        Chunk chunk = chunks[index >>> ColonyGrid.CHUNK_SHIFT];
+        return chunk == null ? 0 : chunk.pheromone[index & ColonyGrid.CHUNK_MASK];
+    }
+
+    @Override
+    public void setPheromone(int index, int level) {
+        chunk(index).pheromone[index & ColonyGrid.CHUNK_MASK] = level;
+    }
+
+    @Override
+    public int getFriendlyCount(int index) {
+        Chunk chunk = chunks[index >>> ColonyGrid.CHUNK_SHIFT];
+        return chunk == null ? 0 : chunk.friendlyCount[index & ColonyGrid.CHUNK_MASK];
+    }
+
+    @Override
+    public void addFriendlyCount(int index, int delta) {
+        chunk(index).friendlyCount[index & ColonyGrid.CHUNK_MASK] += delta;
+    }
+
+    @Override
+    public int getBalaCount(int index) {
+        Chunk chunk = chunks[index >>> ColonyGrid.CHUNK_SHIFT];
+        return chunk == null ? 0 : chunk.balaCount[index & ColonyGrid.CHUNK_MASK];
+    }
+
+    @Override
+    public void addBalaCount(int index, int delta) {
+        chunk(index).balaCount[index & ColonyGrid.CHUNK_MASK] += delta;
+    }
+
+    @Override
+    public boolean isRevealed(int index) {
+        Chunk chunk = chunks[index >>> ColonyGrid.CHUNK_SHIFT];
+        return chunk != null
+            && (chunk.revealed[(index & ColonyGrid.CHUNK_MASK) >>> 6] & (1L << index)) != 0;
+    }
+
+    @Override
+    public void setRevealed(int index, boolean isRevealed) {
+        if (isRevealed(index) == isRevealed)
+            return;
+        chunk(index).revealed[(index & ColonyGrid.CHUNK_MASK) >>> 6] ^= 1L << index;
+    }
+
+    @Override
+    public void addRevealed(BitSet revealed) {
+        for (int number = 0; number < chunks.length; number++)
+            if (chunks[number] != null) {
+                long[] words = chunks[number].revealed;
+                for (int word = 0; word < words.length; word++)
+                    for (long bits = words[word]; bits != 0; bits &= bits - 1)
+                        revealed.set((number << ColonyGrid.CHUNK_SHIFT) + word * Long.SIZE
+                            + Long.numberOfTrailingZeros(bits));
+            }
+    }
+
+    @Override
+    public void hideAll() {
+        for (int number = 0; number < chunks.length; number++)
+            if (chunks[number] != null)
+                Arrays.fill(ownChunk(number).revealed, 0L);
+    }
+
+    @Override
+    public void clearFoodAndPheromone() {
+        for (int number = 0; number < chunks.length; number++)
+            if (chunks[number] != null) {
+                Chunk chunk = ownChunk(number);
+                Arrays.fill(chunk.food, 0);
+                Arrays.fill(chunk.pheromone, 0);
+            }
+    }
+
+    /** decayPheromone halves the pheromone level of every cell, rounding
+     *  up, except that a level of 1 drops to 0. The new level is worked
+     *  out with shifts and subtraction alone, so the loop has no branches
+     *  and the JIT can process several cells per instruction.
+     */
+    @Override
+    public void decayPheromone() {
+        for (int number = 0; number < chunks.length; number++) {
+            if (chunks[number] == null)
+                continue;
+            int[] level = ownChunk(number).pheromone;
+            for (int i = 0; i < level.length; i++) {
+                int l = level[i];
+                // ((l ^ 1) - 1) >>> 31 is 1 only when l is 1.
+                level[i] = l - (l >> 1) - (((l ^ 1) - 1) >>> 31);
+            }
+        }
+    }
+
+    /** absorbPheromone folds the changes made to the pheromone levels of
+     *  the cells first to last - 1 into field. Cells of chunks that were
+     *  never allocated are at 0, and so are the whole parts of their field
+     *  values, so those chunks are skipped.
+     *  @param field The fractional pheromone levels, indexed like the grid.
+     *  @param first The first cell.
+     *  @param last One past the last cell.
+     */
+    @Override
+    public void absorbPheromone(float[] field, int first, int last) {
+        for (int start = first, end; start < last; start = end) {
+            end = Math.min(last, (start | ColonyGrid.CHUNK_MASK) + 1);
+            Chunk chunk = chunks[start >>> ColonyGrid.CHUNK_SHIFT];
+            if (chunk == null)
+                continue;
+            int[] level = chunk.pheromone;
+            int offset = (start & ColonyGrid.CHUNK_MASK) - start;
+            for (int i = start; i < end; i++)
+                field[i] += level[i + offset] - (int) field[i];
+        }
+    }
+
+    @Override
+    public void storePheromone(float[] field, int first, int last) {
+        for (int start = first, end; start < last; start = end) {
+            end = Math.min(last, (start | ColonyGrid.CHUNK_MASK) + 1);
+            if (chunks[start >>> ColonyGrid.CHUNK_SHIFT] == null) {
+                boolean any = false;
+                for (int i = start; i < end && !any; i++)
+                    any = field[i] >= 1;
+                if (!any)
+                    continue;
+            }
+            int[] level = chunk(start).pheromone;
+            int offset = (start & ColonyGrid.CHUNK_MASK) - start;
+            for (int i = start; i < end; i++)
+                level[i + offset] = (int) field[i];
+        }
+    }
+
+    @Override
+    public void setFoodSource(FoodSource source) {
+        foodSource = source;
+    }
+
+    @Override
+    public void respawnFood() {
+        if (foodSource == null)
+            return;
+        for (int number = 0; number < chunks.length; number++)
+            if (chunks[number] != null)
+                foodSource.spawn(number << ColonyGrid.CHUNK_SHIFT,
+                    ColonyGrid.chunkCells(size, number), ownChunk(number).food);
+    }
+
+    /** checksum folds every cell's state into hash. A chunk that was never
+     *  allocated is hashed as the empty cells it stands for, without going
+     *  through them one by one.
+     *  @param hash The hash so far.
+     *  @return The new hash.
+     */
+    @Override
+    public long checksum(long hash) {
+        for (int number = 0; number < chunks.length; number++) {
+            Chunk chunk = chunks[number];
+            int count = ColonyGrid.chunkCells(size, number);
+            if (chunk == null) {
+                hash = ColonyGrid.combineEmpty(hash, count);
+                continue;
+            }
+            for (int i = 0; i < count; i++) {
+                hash = ColonyGrid.combine(hash, chunk.food[i]);
+                hash = ColonyGrid.combine(hash, chunk.pheromone[i]);
+                hash = ColonyGrid.combine(hash, chunk.friendlyCount[i]);
+                hash = ColonyGrid.combine(hash, chunk.balaCount[i]);
+                hash = ColonyGrid.combine(hash, (chunk.revealed[i >>> 6] >>> i) & 1);
+            }
+        }
+        return hash;
+    }
+
+    /** fork returns a HeapCellStore sharing every chunk with this one.
+     *  Neither store owns the shared chunks afterwards, so each copies a
+     *  chunk the first time it changes it.
+     *  @return The fork.
+     */
+    @Override
+    public CellStore fork() {
+        owner = new Object();
+        return new HeapCellStore(size, chunks.clone(), foodSource);
+    }
+
+    /** force does nothing, since the cells only live in memory.
+     */
+    @Override
+    public void force() {
+    }
+}
@@ -0,0 +1,459 @@
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+
+/**
+ * MappedCellStore is the CellStore that keeps its cells in a file mapped
+ * into memory rather than on the Java heap, so that the grid can be larger
+ * than the memory the JVM is given and creates no garbage. The file is
+ * scratch space for one Colony: the ants, random numbers and turn counter
+ * are not in it, so a run is carried on from a snapshot rather than from
+ * the file, and a file that is opened again starts out empty.
+ *
+ * The file starts with a header page holding the grid's dimensions and a
+ * flag for every chunk saying whether it has been allocated. After that
+ * comes every chunk in turn, each laid out as its cells' food, pheromone,
+ * friendly counts and Bala counts (CHUNK_CELLS ints each), then its
+ * revealed flags (one bit per cell). Chunks never allocated are never
+ * written to, so on file systems with sparse files they take no disk space.
+ * The chunks are mapped in segments of SEGMENT_CHUNKS chunks, since a
+ * single mapping cannot be larger than 2GB.
+ *
+ * The file is in the byte order of the machine that created it.
+ * @author Ryan McAllister-Grum
+ */
+final class MappedCellStore implements CellStore {
+    // MAGIC marks the start of a grid file.
+    private static final long MAGIC = 0x416E74477269643FL;
+    // HEADER_BYTES holds the size of the header before the chunk flags.
+    private static final int HEADER_BYTES = 64;
+    // PAGE_BYTES holds the size the header is rounded up to.
+    private static final int PAGE_BYTES = 4096;
+    // FIELD_BYTES holds the size of one int field of a chunk.
+    private static final int FIELD_BYTES = ColonyGrid.CHUNK_CELLS * Integer.BYTES;
+    // FOOD holds the offset of a chunk's food.
+    private static final int FOOD = 0;
+    // PHEROMONE holds the offset of a chunk's pheromone levels.
+    private static final int PHEROMONE = FIELD_BYTES;
+    // FRIENDLY holds the offset of a chunk's friendly counts.
+    private static final int FRIENDLY = 2 * FIELD_BYTES;
+    // BALA holds the offset of a chunk's Bala counts.
+    private static final int BALA = 3 * FIELD_BYTES;
+    // REVEALED holds the offset of a chunk's revealed flags.
+    private static final int REVEALED = 4 * FIELD_BYTES;
+    // CHUNK_BYTES holds the size of a chunk.
+    private static final int CHUNK_BYTES = REVEALED + ColonyGrid.CHUNK_CELLS / Byte.SIZE;
+    // SEGMENT_SHIFT holds the number of bits of a chunk number within its
+    // segment.
+    private static final int SEGMENT_SHIFT = 16;
+    // SEGMENT_CHUNKS holds the number of chunks in a segment.
+    private static final int SEGMENT_CHUNKS = 1 << SEGMENT_SHIFT;
+    // ALLOCATED reads and writes the chunk flags so that a thread that
+    // sees a chunk's flag set also sees the food it was allocated with.
+    private static final VarHandle ALLOCATED =
+        MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+    // size holds the number of cells in the grid.
+    private final int size;
+    // chunks holds the number of chunks in the grid.
+    private final int chunks;
+    // header holds the mapped header and chunk flags.
+    private final MappedByteBuffer header;
+    // segments holds the mapped chunks, SEGMENT_CHUNKS at a time.
+    private final MappedByteBuffer[] segments;
+    // foodSource spawns a new chunk's food; null when chunks start empty.
+    private FoodSource foodSource;
+
+
+    /** MappedCellStore constructor that maps the given file, creating it if
+     *  need be. An existing file must hold a grid of the same dimensions,
+     *  and is cleared so that the grid starts out empty, as in a new file.
+     *  The file does not have to stay open for the mapping to last, so it
+     *  is closed again straight away.
+     *  @param file The grid file.
+     *  @param width The number of cells along the x-axis.
+     *  @param height The number of cells along the y-axis.
+     *  @throws IllegalArgumentException If the file holds something other
+     *  than a grid of these dimensions, or cannot be mapped.
+     */
+    MappedCellStore(Path file, int width, int height) {
+        size = width * height;
+        chunks = ColonyGrid.chunkCount(size);
+        foodSource = null;
+        int headerBytes = (HEADER_BYTES + chunks * Integer.BYTES + PAGE_BYTES - 1)
+            / PAGE_BYTES * PAGE_BYTES;
+        segments = new MappedByteBuffer[(chunks + SEGMENT_CHUNKS - 1) >>> SEGMENT_SHIFT];
+        try (FileChannel channel = FileChannel.open(file,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)
+        ) {
+            // An existing file is checked before it is mapped, since mapping
+            // it would grow a file that is not a grid.
+            boolean isNew = channel.size() == 0;
+            if (!isNew && !holdsGrid(channel, headerBytes, width, height))
+                throw new IllegalArgumentException(
+                    "Error while opening grid file: " + file + " does not hold a "
+                    + width + "x" + height + " grid!"
+                );
+            header = channel.map(FileChannel.MapMode.READ_WRITE, 0, headerBytes);
+            header.order(ByteOrder.nativeOrder());
+            if (isNew) {
+                header.putLong(0, MAGIC);
+                header.putInt(8, width);
+                header.putInt(12, height);
+                header.putInt(16, ColonyGrid.CHUNK_CELLS);
+            }
+            for (int segment = 0; segment < segments.length; segment++) {
+                int count = Math.min(SEGMENT_CHUNKS, chunks - (segment << SEGMENT_SHIFT));
+                segments[segment] = channel.map(FileChannel.MapMode.READ_WRITE,
+                    headerBytes + ((long) segment << SEGMENT_SHIFT) * CHUNK_BYTES,
+                    (long) count * CHUNK_BYTES);
+                segments[segment].order(ByteOrder.nativeOrder());
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException(
+                "Error while opening grid file: unable to map " + file + "!", e
+            );
+        }
+        clear();
+    }
+
+    /** holdsGrid returns whether the given file starts with the header of
+     *  a grid of the given dimensions, reading it without changing it.
+     *  @param channel The open grid file.
+     *  @param headerBytes The size of the header page of such a grid.
+     *  @param width The number of cells along the x-axis.
+     *  @param height The number of cells along the y-axis.
+     *  @return Whether the file holds such a grid.
+     *  @throws IOException If the file cannot be read.
+     */
+    private static boolean holdsGrid(FileChannel channel, int headerBytes, int width, int height)
+        throws IOException {
+        if (channel.size() < headerBytes)
+            return false;
+        ByteBuffer fields = ByteBuffer.allocate(20).order(ByteOrder.nativeOrder());
+        while (fields.hasRemaining())
+            if (channel.read(fields, fields.position()) < 0)
+                return false;
+        return fields.getLong(0) == MAGIC && fields.getInt(8) == width
+            && fields.getInt(12) == height && fields.getInt(16) == ColonyGrid.CHUNK_CELLS;
+    }
+
+    /** clear zeroes every chunk an earlier Colony allocated in the file,
+     *  and marks it as not allocated again.
+     */
+    private void clear() {
+        for (int number = 0; number < chunks; number++)
+            if (isChunkAllocated(number)) {
+                fill(number, 0, CHUNK_BYTES);
+                ALLOCATED.setRelease(header, HEADER_BYTES + number * Integer.BYTES, 0);
+            }
+    }
+
+    /** segment returns the mapping holding the given cell.
+     *  @param index The cell's index.
+     *  @return The cell's segment.
+     */
+    private MappedByteBuffer segment(int index) {
+        return segments[index >>> (ColonyGrid.CHUNK_SHIFT + SEGMENT_SHIFT)];
+    }
+
+    /** offset returns where a field of the given cell is in its segment.
+     *  @param index The cell's index.
+     *  @param field The offset of the field within a chunk.
+     *  @return The byte offset of the cell's field.
+     */
+    private static int offset(int index, int field) {
+        return ((index >>> ColonyGrid.CHUNK_SHIFT) & (SEGMENT_CHUNKS - 1)) * CHUNK_BYTES
+            + field + (index & ColonyGrid.CHUNK_MASK) * Integer.BYTES;
+    }
+
+    /** revealedOffset returns where the long holding the given cell's
+     *  revealed flag is in its segment.
+     *  @param index The cell's index.
+     *  @return The byte offset of the cell's revealed flags.
+     */
+    private static int revealedOffset(int index) {
+        return ((index >>> ColonyGrid.CHUNK_SHIFT) & (SEGMENT_CHUNKS - 1)) * CHUNK_BYTES
+            + REVEALED + ((index & ColonyGrid.CHUNK_MASK) >>> 6) * Long.BYTES;
+    }
+
+    /** isAllocated returns whether the given chunk has been allocated.
+     *  @param number The chunk's number.
+     *  @return Whether the chunk's flag is set.
+     */
+    private boolean isChunkAllocated(int number) {
+        return (int) ALLOCATED.getAcquire(header, HEADER_BYTES + number * Integer.BYTES) != 0;
+    }
+
+    @Override
+    public boolean isAllocated(int index) {
+        return isChunkAllocated(index >>> ColonyGrid.CHUNK_SHIFT);
+    }
+
+    /** allocate marks the chunk holding the given cell as allocated, first
+     *  spawning its food, unless this has already been done. Ants working
+     *  out their turns in parallel may need the same new chunk at once.
+     *  @param index The cell's index.
+     */
+    @Override
+    public void allocate(int index) {
+        if (!isChunkAllocated(index >>> ColonyGrid.CHUNK_SHIFT))
+            allocateChunk(index >>> ColonyGrid.CHUNK_SHIFT);
+    }
+
+    /** allocateChunk does the work of allocate.
+     *  @param number The chunk's number.
+     */
+    private synchronized void allocateChunk(int number) {
+        if (isChunkAllocated(number))
+            return;
+        if (foodSource != null)
+            spawn(number);
+        ALLOCATED.setRelease(header, HEADER_BYTES + number * Integer.BYTES, 1);
+    }
+
+    /** spawn adds the food foodSource spawns for the given chunk.
+     *  @param number The chunk's number.
+     */
+    private void spawn(int number) {
+        int first = number << ColonyGrid.CHUNK_SHIFT;
+        int count = ColonyGrid.chunkCells(size, number);
+        int[] food = new int[ColonyGrid.CHUNK_CELLS];
+        foodSource.spawn(first, count, food);
+        MappedByteBuffer segment = segment(first);
+        for (int i = 0; i < count; i++) {
+            int offset = offset(first + i, FOOD);
+            segment.putInt(offset, segment.getInt(offset) + food[i]);
+        }
+    }
+
+    /** get returns an int field of the given cell. The parts of the file
+     *  no chunk was allocated in read as zeroes.
+     *  @param index The cell's index.
+     *  @param field The offset of the field within a chunk.
+     *  @return The field's value.
+     */
+    private int get(int index, int field) {
+        return segment(index).getInt(offset(index, field));
+    }
+
+    /** put sets an int field of the given cell, allocating its chunk.
+     *  @param index The cell's index.
+     *  @param field The offset of the field within a chunk.
+     *  @param value The field's new value.
+     */
+    private void put(int index, int field, int value) {
+        allocate(index);
+        segment(index).putInt(offset(index, field), value);
+    }
+
+    @Override
+    public int getFood(int index) {
+        if (foodSource != null)
+            allocate(index);
+        return get(index, FOOD);
+    }
+
+    @Override
+    public void setFood(int index, int amount) {
+        put(index, FOOD, amount);
+    }
+
+    @Override
+    public int getPheromone(int index) {
+        return get(index, PHEROMONE);
+    }
+
+    @Override
+    public void setPheromone(int index, int level) {
+        put(index, PHEROMONE, level);
+    }
+
+    @Override
+    public int getFriendlyCount(int index) {
+        return get(index, FRIENDLY);
+    }
+
+    @Override
+    public void addFriendlyCount(int index, int delta) {
+        put(index, FRIENDLY, get(index, FRIENDLY) + delta);
+    }
+
+    @Override
+    public int getBalaCount(int index) {
+        return get(index, BALA);
+    }
+
+    @Override
+    public void addBalaCount(int index, int delta) {
+        put(index, BALA, get(index, BALA) + delta);
+    }
+
+    @Override
+    public boolean isRevealed(int index) {
+        return (segment(index).getLong(revealedOffset(index)) & (1L << index)) != 0;
+    }
+
+    @Override
+    public void setRevealed(int index, boolean isRevealed) {
+        if (isRevealed(index) == isRevealed)
+            return;
+        allocate(index);
+        MappedByteBuffer segment = segment(index);
+        int offset = revealedOffset(index);
+        segment.putLong(offset, segment.getLong(offset) ^ (1L << index));
+    }
+
+    @Override
+    public void addRevealed(BitSet revealed) {
+        for (int number = 0; number < chunks; number++) {
+            if (!isChunkAllocated(number))
+                continue;
+            int first = number << ColonyGrid.CHUNK_SHIFT;
+            MappedByteBuffer segment = segment(first);
+            for (int cell = 0; cell < ColonyGrid.CHUNK_CELLS; cell += Long.SIZE)
+                for (long bits = segment.getLong(revealedOffset(first + cell)); bits != 0; bits &= bits - 1)
+                    revealed.set(first + cell + Long.numberOfTrailingZeros(bits));
+        }
+    }
+
+    @Override
+    public void hideAll() {
+        for (int number = 0; number < chunks; number++)
+            if (isChunkAllocated(number))
+                fill(number, REVEALED, ColonyGrid.CHUNK_CELLS / Byte.SIZE);
+    }
+
+    @Override
+    public void clearFoodAndPheromone() {
+        for (int number = 0; number < chunks; number++)
+            if (isChunkAllocated(number))
+                fill(number, FOOD, 2 * FIELD_BYTES);
+    }
+
+    /** fill zeroes part of a chunk.
+     *  @param number The chunk's number.
+     *  @param from The offset within the chunk to start at.
+     *  @param bytes The number of bytes to zero, a multiple of 8.
+     */
+    private void fill(int number, int from, int bytes) {
+        int first = number << ColonyGrid.CHUNK_SHIFT;
+        MappedByteBuffer segment = segment(first);
+        int start = offset(first, from);
+        for (int offset = start; offset < start + bytes; offset += Long.BYTES)
+            segment.putLong(offset, 0L);
+    }
+
+    @Override
+    public void decayPheromone() {
+        for (int number = 0; number < chunks; number++) {
+            if (!isChunkAllocated(number))
+                continue;
+            int first = number << ColonyGrid.CHUNK_SHIFT;
+            MappedByteBuffer segment = segment(first);
+            int start = offset(first, PHEROMONE);
+            for (int offset = start; offset < start + FIELD_BYTES; offset += Integer.BYTES) {
+                int l = segment.getInt(offset);
+                // ((l ^ 1) - 1) >>> 31 is 1 only when l is 1.
+                segment.putInt(offset, l - (l >> 1) - (((l ^ 1) - 1) >>> 31));
+            }
+        }
+    }
+
+    @Override
+    public void absorbPheromone(float[] field, int first, int last) {
+        for (int start = first, end; start < last; start = end) {
+            end = Math.min(last, (start | ColonyGrid.CHUNK_MASK) + 1);
+            if (!isChunkAllocated(start >>> ColonyGrid.CHUNK_SHIFT))
+                continue;
+            MappedByteBuffer segment = segment(start);
+            for (int i = start; i < end; i++)
+                field[i] += segment.getInt(offset(i, PHEROMONE)) - (int) field[i];
+        }
+    }
+
+    @Override
+    public void storePheromone(float[] field, int first, int last) {
+        for (int start = first, end; start < last; start = end) {
+            end = Math.min(last, (start | ColonyGrid.CHUNK_MASK) + 1);
+            if (!isChunkAllocated(start >>> ColonyGrid.CHUNK_SHIFT)) {
+                boolean any = false;
+                for (int i = start; i < end && !any; i++)
+                    any = field[i] >= 1;
+                if (!any)
+                    continue;
+                allocate(start);
+            }
+            MappedByteBuffer segment = segment(start);
+            for (int i = start; i < end; i++)
+                segment.putInt(offset(i, PHEROMONE), (int) field[i]);
+        }
+    }
+
+    @Override
+    public void setFoodSource(FoodSource source) {
+        foodSource = source;
+    }
+
+    @Override
+    public void respawnFood() {
+        if (foodSource == null)
+            return;
+        for (int number = 0; number < chunks; number++)
+            if (isChunkAllocated(number))
+                spawn(number);
+    }
+
+    /** checksum folds every cell's state into hash. A chunk that was never
+     *  allocated is hashed as the empty cells it stands for, without going
+     *  through them one by one.
+     *  @param hash The hash so far.
+     *  @return The new hash.
+     */
+    @Override
+    public long checksum(long hash) {
+        for (int number = 0; number < chunks; number++) {
+            int count = ColonyGrid.chunkCells(size, number);
+            if (!isChunkAllocated(number)) {
+                hash = ColonyGrid.combineEmpty(hash, count);
+                continue;
+            }
+            int first = number << ColonyGrid.CHUNK_SHIFT;
+            MappedByteBuffer segment = segment(first);
+            for (int i = first; i < first + count; i++) {
+                hash = ColonyGrid.combine(hash, segment.getInt(offset(i, FOOD)));
+                hash = ColonyGrid.combine(hash, segment.getInt(offset(i, PHEROMONE)));
+                hash = ColonyGrid.combine(hash, segment.getInt(offset(i, FRIENDLY)));
+                hash = ColonyGrid.combine(hash, segment.getInt(offset(i, BALA)));
+                hash = ColonyGrid.combine(hash, (segment.getLong(revealedOffset(i)) >>> i) & 1);
+            }
+        }
+        return hash;
+    }
+
+    /** fork is not supported, since the cells live in a single file.
+     *  @return Never returns.
+     *  @throws IllegalStateException Always.
+     */
+    @Override
+    public CellStore fork() {
+        throw new IllegalStateException(
+            "Error while forking grid: a grid kept in a file cannot be forked!"
+        );
+    }
+
+    /** force writes every change to the cells out to the file.
+     */
+    @Override
+    public void force() {
+        for (MappedByteBuffer segment : segments)
+            segment.force();
+        header.force();
+    }
+}
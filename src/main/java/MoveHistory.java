@@ -0,0 +1,173 @@
+import java.util.Arrays;
+
+/**
+ * MoveHistory is the stack of cells a Forager has moved through while
+ * foraging, oldest first, so that it can retrace its steps to the Queen.
+ * Cells are stored as their ColonyGrid index in an int array, alongside a
+ * small open-addressing table from each cell to its position in the stack.
+ * The table lets a Forager find out whether it has been somewhere before,
+ * and cut the loop off the top of the stack, without searching the stack.
+ *
+ * A cell may only be in the history once; Forager.removeLoop keeps it that
+ * way by cutting off any loop as soon as the Forager steps back into it.
+ * @author Ryan McAllister-Grum
+ */
+final class MoveHistory {
+    // INITIAL_CAPACITY holds the number of cells room is first made for.
+    private static final int INITIAL_CAPACITY = 16;
+    // EMPTY marks an unused slot of the position table.
+    private static final int EMPTY = -1;
+    // cells holds the cells moved through, oldest first.
+    private int[] cells;
+    // size holds the number of cells in the history.
+    private int size;
+    // keys holds the cells in the position table, or EMPTY.
+    private int[] keys;
+    // positions holds the position in cells of the cell in the same slot
+    // of keys.
+    private int[] positions;
+    // shift turns a cell's hash into a slot of the position table.
+    private int shift;
+
+
+    /** MoveHistory constructor that creates an empty history.
+     */
+    MoveHistory() {
+        cells = new int[INITIAL_CAPACITY];
+        allocateTable(INITIAL_CAPACITY * 2);
+        size = 0;
+    }
+
+    /** push adds a cell to the top of the history.
+     *  @param cell The cell's index; must not already be in the history.
+     */
+    void push(int cell) {
+        if (size == cells.length) {
+            cells = Arrays.copyOf(cells, size * 2);
+            allocateTable(keys.length * 2);
+            for (int i = 0; i < size; i++)
+                insert(cells[i], i);
+        }
+        cells[size] = cell;
+        insert(cell, size);
+        size++;
+    }
+
+    /** pop removes and returns the cell on top of the history.
+     *  @return The most recent cell.
+     */
+    int pop() {
+        int cell = cells[--size];
+        delete(cell);
+        return cell;
+    }
+
+    /** get returns the cell at the given position in the history.
+     *  @param position The cell's position, 0 being the oldest.
+     *  @return The cell's index.
+     */
+    int get(int position) {
+        if (position < 0 || position >= size)
+            throw new IndexOutOfBoundsException(
+                "Error while getting cell from MoveHistory: position " + position
+                + " is out of bounds for size " + size + "!"
+            );
+        return cells[position];
+    }
+
+    /** indexOf returns the position of a cell in the history.
+     *  @param cell The cell's index.
+     *  @return The cell's position, 0 being the oldest, or -1 if the cell
+     *  is not in the history.
+     */
+    int indexOf(int cell) {
+        for (int slot = slot(cell); keys[slot] != EMPTY; slot = (slot + 1) & (keys.length - 1))
+            if (keys[slot] == cell)
+                return positions[slot];
+        return -1;
+    }
+
+    /** truncate removes every cell from the given position upward.
+     *  @param position The position of the oldest cell to remove.
+     */
+    void truncate(int position) {
+        while (size > position)
+            delete(cells[--size]);
+    }
+
+    /** isEmpty returns whether the history holds no cells.
+     *  @return Whether the history is empty.
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** size returns the number of cells in the history.
+     *  @return The history's size.
+     */
+    int size() {
+        return size;
+    }
+
+    /** clear removes every cell from the history, keeping its capacity.
+     */
+    void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+
+    /** allocateTable replaces the position table with an empty one.
+     *  @param slots The number of slots, a power of two.
+     */
+    private void allocateTable(int slots) {
+        keys = new int[slots];
+        positions = new int[slots];
+        Arrays.fill(keys, EMPTY);
+        shift = Integer.numberOfLeadingZeros(slots) + 1;
+    }
+
+    /** slot returns the first slot of the position table to look for a
+     *  cell in.
+     *  @param cell The cell's index.
+     *  @return The cell's home slot.
+     */
+    private int slot(int cell) {
+        return (cell * 0x9E3779B9) >>> shift;
+    }
+
+    /** insert records a cell's position in the position table.
+     *  @param cell The cell's index.
+     *  @param position The cell's position in cells.
+     */
+    private void insert(int cell, int position) {
+        int slot = slot(cell);
+        while (keys[slot] != EMPTY)
+            slot = (slot + 1) & (keys.length - 1);
+        keys[slot] = cell;
+        positions[slot] = position;
+    }
+
+    /** delete removes a cell from the position table, moving back any
+     *  cells after it that could sit closer to their home slot so that no
+     *  lookup stops short of them.
+     *  @param cell The cell's index.
+     */
+    private void delete(int cell) {
+        int mask = keys.length - 1;
+        int hole = slot(cell);
+        while (keys[hole] != cell)
+            hole = (hole + 1) & mask;
+
+        for (int slot = (hole + 1) & mask; keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+            int home = slot(keys[slot]);
+            // Move the entry into the hole unless its home lies cyclically
+            // after the hole and at or before its slot.
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                keys[hole] = keys[slot];
+                positions[hole] = positions[slot];
+                hole = slot;
+            }
+        }
+        keys[hole] = EMPTY;
+    }
+}
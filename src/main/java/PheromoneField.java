@@ -0,0 +1,298 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * PheromoneField is the continuous model of a ColonyGrid's pheromone. Each
+ * turn some of every cell's pheromone evaporates and some of the rest
+ * spreads evenly to the 8 cells around it, so trails fade and blur a
+ * little every turn rather than halving once a day.
+ *
+ * The field keeps its own fractional levels in two float arrays, reading
+ * one and writing the other each turn, and writes the whole part of every
+ * level back into the grid, which is what Foragers read and drop onto.
+ * Anything that changed a grid level since the last turn is folded into
+ * the field before it spreads. The grid's levels are gone through a chunk
+ * at a time, and a chunk the grid has not allocated is only allocated once
+ * some level in it reaches 1. The field's own arrays cover the whole grid.
+ *
+ * A turn works through bands of whole x-lines of the arrays, which share
+ * no written cells and so can go to different threads. Within a band the
+ * y-axis is cut into tiles short enough that the three x-lines a cell
+ * reads from stay in cache while each x-line of the tile is worked out.
+ * Each x-line of a tile is done in two simple loops the JIT can vectorize:
+ * the first sums every cell with the cells either side of it along x, and
+ * the second adds up three of those sums for each cell's 3x3 block.
+ * Every cell's new level depends only on the old levels, so the result is
+ * the same whatever the number of threads.
+ * @author Ryan McAllister-Grum
+ */
+final class PheromoneField {
+    // TILE_HEIGHT holds the number of cells along the y-axis worked out
+    // together before moving on to the next x-line.
+    private static final int TILE_HEIGHT = 1024;
+    // BAND_CELLS holds roughly the number of cells handed to a worker at once.
+    private static final int BAND_CELLS = 1 << 16;
+    // width holds the number of cells along the x-axis.
+    private final int width;
+    // height holds the number of cells along the y-axis.
+    private final int height;
+    // grid holds the pheromone levels read by the Foragers.
+    private final ColonyGrid grid;
+    // current holds each cell's fractional pheromone level.
+    private float[] current;
+    // next receives the levels of the turn being worked out.
+    private float[] next;
+    // evaporation holds the fraction of pheromone lost each turn.
+    private final double evaporation;
+    // diffusion holds the fraction of the remaining pheromone that spreads
+    // each turn.
+    private final double diffusion;
+    // keep holds the fraction of a cell's pheromone it keeps each turn.
+    private final float keep;
+    // share holds the fraction of a cell's pheromone each neighbour receives.
+    private final float share;
+    // bandWidth holds the number of x-lines in a band.
+    private final int bandWidth;
+
+
+    /** PheromoneField constructor for the given grid. The field starts
+     *  empty and takes in the grid's levels on the first step().
+     *  @param grid The ColonyGrid whose pheromone the field models.
+     *  @param evaporation The fraction of pheromone lost each turn.
+     *  @param diffusion The fraction of the remaining pheromone that spreads
+     *  to the cells around each turn.
+     */
+    PheromoneField(ColonyGrid grid, double evaporation, double diffusion) {
+        if (!(evaporation >= 0 && evaporation <= 1) || !(diffusion >= 0 && diffusion <= 1))
+            throw new IllegalArgumentException(
+                "Error while creating PheromoneField: evaporation and diffusion must be between 0 and 1!"
+            );
+        this.grid = grid;
+        width = grid.getWidth();
+        height = grid.getHeight();
+        current = new float[grid.size()];
+        next = new float[grid.size()];
+        this.evaporation = evaporation;
+        this.diffusion = diffusion;
+        keep = (float) ((1 - evaporation) * (1 - diffusion));
+        share = (float) ((1 - evaporation) * diffusion / 8);
+        bandWidth = Math.max(1, BAND_CELLS / height);
+    }
+
+    /** step evaporates and spreads the field's pheromone for one turn and
+     *  writes the new levels into the grid.
+     *  @param workers The threads to share the work between, or null to
+     *  do it all on the calling thread.
+     */
+    void step(ForkJoinPool workers) {
+        int bands = (width + bandWidth - 1) / bandWidth;
+        // Every band must take in the grid's changes before any band reads
+        // across into its neighbours, so the two passes run one after the
+        // other.
+        if (workers == null || bands == 1) {
+            absorb(0, current.length);
+            spread(0, width);
+        } else {
+            workers.invoke(new Bands(0, bands, false));
+            workers.invoke(new Bands(0, bands, true));
+        }
+        float[] swap = current;
+        current = next;
+        next = swap;
+    }
+
+    /** clear empties the field.
+     */
+    void clear() {
+        Arrays.fill(current, 0f);
+    }
+
+    /** write writes the field to a Colony snapshot: its evaporation and
+     *  diffusion, then the levels of every chunk of cells with any
+     *  pheromone, so that the field carries on exactly where it was.
+     *  @param out Where to write the field.
+     *  @throws IOException If the field cannot be written.
+     */
+    void write(DataOutput out) throws IOException {
+        out.writeDouble(evaporation);
+        out.writeDouble(diffusion);
+        for (int first = 0; first < current.length; first += ColonyGrid.CHUNK_CELLS) {
+            int last = Math.min(current.length, first + ColonyGrid.CHUNK_CELLS);
+            boolean any = false;
+            for (int i = first; i < last && !any; i++)
+                any = current[i] != 0f;
+            if (!any)
+                continue;
+            out.writeInt(first >>> ColonyGrid.CHUNK_SHIFT);
+            for (int i = first; i < last; i++)
+                out.writeFloat(current[i]);
+        }
+        out.writeInt(-1);
+    }
+
+    /** read creates the field write wrote for the given grid.
+     *  @param grid The ColonyGrid whose pheromone the field models.
+     *  @param in Where to read the field from.
+     *  @return The PheromoneField.
+     *  @throws IOException If the field cannot be read.
+     */
+    static PheromoneField read(ColonyGrid grid, DataInput in) throws IOException {
+        PheromoneField field = new PheromoneField(grid, in.readDouble(), in.readDouble());
+        float[] levels = field.current;
+        for (int number = in.readInt(); number >= 0; number = in.readInt()) {
+            if (number >= ColonyGrid.chunkCount(levels.length))
+                throw new IOException("Error while reading PheromoneField: chunk " + number + " is outside the grid!");
+            int first = number << ColonyGrid.CHUNK_SHIFT;
+            for (int i = first; i < Math.min(levels.length, first + ColonyGrid.CHUNK_CELLS); i++)
+                levels[i] = in.readFloat();
+        }
+        return field;
+    }
+
+    /** copy returns a PheromoneField for the given grid with the same
+     *  evaporation, diffusion and levels as this one.
+     *  @param grid The ColonyGrid whose pheromone the copy models.
+     *  @return The copy.
+     */
+    PheromoneField copy(ColonyGrid grid) {
+        PheromoneField field = new PheromoneField(grid, evaporation, diffusion);
+        System.arraycopy(current, 0, field.current, 0, current.length);
+        return field;
+    }
+
+    /** absorb folds the changes Ants made to the grid's levels since the
+     *  last step into the field. The grid holds the whole part of the field
+     *  unless something has changed it.
+     *  @param first The first cell.
+     *  @param last One past the last cell.
+     */
+    private void absorb(int first, int last) {
+        grid.absorbPheromone(current, first, last);
+    }
+
+    /** store writes the whole part of the new levels of the cells first to
+     *  last - 1 into the grid.
+     *  @param first The first cell.
+     *  @param last One past the last cell.
+     */
+    private void store(int first, int last) {
+        grid.storePheromone(next, first, last);
+    }
+
+    /** spread works out the new levels of the x-lines first to last - 1.
+     *  @param first The first x-line.
+     *  @param last One past the last x-line.
+     */
+    private void spread(int first, int last) {
+        float[] column = new float[Math.min(height, TILE_HEIGHT) + 2];
+        for (int top = 0; top < height; top += TILE_HEIGHT) {
+            int bottom = Math.min(height, top + TILE_HEIGHT);
+            for (int x = first; x < last; x++) {
+                if (x == 0 || x == width - 1) {
+                    for (int y = top; y < bottom; y++)
+                        spreadEdge(x, y);
+                    store(x * height + top, x * height + bottom);
+                    continue;
+                }
+                int from = Math.max(top, 1);
+                int to = Math.min(bottom, height - 1);
+                if (top == 0)
+                    spreadEdge(x, 0);
+                spreadInner(x * height, from, to, column);
+                if (bottom == height)
+                    spreadEdge(x, height - 1);
+                store(x * height + top, x * height + bottom);
+            }
+        }
+    }
+
+    /** spreadInner works out the new levels of the cells from to to - 1
+     *  of one x-line, all of which have 8 neighbours.
+     *  @param line The index of the x-line's first cell.
+     *  @param from The first y.
+     *  @param to One past the last y.
+     *  @param column Room for the sums of the cells from - 1 to to across
+     *  the three x-lines.
+     */
+    private void spreadInner(int line, int from, int to, float[] column) {
+        float[] source = current;
+        float[] target = next;
+        int left = line - height;
+        int right = line + height;
+        int base = from - 1;
+        for (int y = base; y <= to; y++)
+            column[y - base] = source[left + y] + source[line + y] + source[right + y];
+        // The 3x3 block includes the cell itself, which keeps rather than
+        // shares its own pheromone.
+        float self = keep - share;
+        for (int y = from; y < to; y++) {
+            int c = y - base;
+            target[line + y] = self * source[line + y] + share * (column[c - 1] + column[c] + column[c + 1]);
+        }
+    }
+
+    /** spreadEdge works out the new level of a cell on the edge of the
+     *  grid. Such a cell only spreads to the neighbours it has, and keeps
+     *  the shares of the ones it lacks, so no pheromone leaks off the grid.
+     *  @param x The cell's x-coordinate.
+     *  @param y The cell's y-coordinate.
+     */
+    private void spreadEdge(int x, int y) {
+        float around = 0f;
+        int neighbours = 0;
+        for (int nx = Math.max(x - 1, 0); nx <= Math.min(x + 1, width - 1); nx++)
+            for (int ny = Math.max(y - 1, 0); ny <= Math.min(y + 1, height - 1); ny++)
+                if (nx != x || ny != y) {
+                    around += current[nx * height + ny];
+                    neighbours++;
+                }
+        int index = x * height + y;
+        next[index] = (keep + share * (8 - neighbours)) * current[index] + share * around;
+    }
+
+    /** Bands runs one pass of step over a range of bands, splitting the
+     *  range in half until a single band is left.
+     */
+    private final class Bands extends RecursiveAction {
+        // serialVersionUID versions the form RecursiveAction is serialized in.
+        private static final long serialVersionUID = 1L;
+        // first holds the first band in the range.
+        private final int first;
+        // last holds one past the last band in the range.
+        private final int last;
+        // spreading flags the spread pass rather than the absorb pass.
+        private final boolean spreading;
+
+        /** Bands constructor for the bands first to last - 1.
+         *  @param first The first band.
+         *  @param last One past the last band.
+         *  @param spreading Whether to spread rather than absorb.
+         */
+        Bands(int first, int last, boolean spreading) {
+            this.first = first;
+            this.last = last;
+            this.spreading = spreading;
+        }
+
+        /** compute runs the pass over the range's bands.
+         */
+        @Override
+        protected void compute() {
+            if (last - first == 1) {
+                int from = first * bandWidth;
+                int to = Math.min(width, from + bandWidth);
+                if (spreading)
+                    spread(from, to);
+                else
+                    absorb(from * height, to * height);
+            } else {
+                int middle = (first + last) >>> 1;
+                invokeAll(new Bands(first, middle, spreading), new Bands(middle, last, spreading));
+            }
+        }
+    }
+}
@@ -7,14 +7,15 @@ import java.util.Random;
 final class Queen extends Ant {
     /** Queen constructor creates a new queen ant with the given id
      *  and maximum age at the given xy-coordinate location in the colony.
+     *  @param colony The Colony the ant lives in.
      *  @param id The Queen ant's ID.
      *  @param maxTurnAge The Queen ant's maximum turn age.
      *  @param locationX Create the queen ant at the given x-coordinate location in the colony.
      *  @param locationY Create the queen ant at the given y-coordinate location in the colony.
      *  @return the new Queen ant.
      */
-    Queen(Integer id, Integer maxTurnAge, Integer locationX, Integer locationY) {
-        super(id, maxTurnAge, locationX, locationY);
+    Queen(Colony colony, Integer id, Integer maxTurnAge, Integer locationX, Integer locationY) {
+        super(colony, id, maxTurnAge, locationX, locationY);
     }
     
     /** hatchAnt creates a new Ant for the colony.
@@ -28,11 +29,11 @@ final class Queen extends Ant {
     private Ant hatchAnt(Random rng) {
         Integer guess = rng.nextInt(100);
         if (guess < 25) // 0-24: Soldier
-            return new Soldier(COLONY.getNextId(), Colony.TURNS_TO_YEAR, getLocationX(), getLocationY());
+            return new Soldier(getColony(), getColony().getNextId(), Colony.TURNS_TO_YEAR, getLocationX(), getLocationY());
         else if (guess >= 25 && guess <= 49) // 25-49: Scout
-            return new Scout(COLONY.getNextId(), Colony.TURNS_TO_YEAR, getLocationX(), getLocationY());
+            return new Scout(getColony(), getColony().getNextId(), Colony.TURNS_TO_YEAR, getLocationX(), getLocationY());
         else // Forager
-            return new Forager(COLONY.getNextId(), Colony.TURNS_TO_YEAR, getLocationX(), getLocationY());
+            return new Forager(getColony(), getColony().getNextId(), Colony.TURNS_TO_YEAR, getLocationX(), getLocationY());
     }
     
     /** eatFood makes the Queen consume one unit of food at her given location.
@@ -47,13 +48,14 @@ final class Queen extends Ant {
     /** takeAction processes a turn for the Queen Ant.
      *  @param rng Random used as part of adding random probability to actions.
      */
+    @Override
     void takeAction(Random rng) {
         // If the queen is too old or runs out of food, she dies.
         if (getTurnAge() > getMaxTurnAge() || !eatFood())
             kill();
         
         // Spawn a new Ant every 10 turns (ignore first turn).
-        if (COLONY.getTurnCounter() != 0 && COLONY.getTurnCounter() % Colony.TURNS_TO_DAYS == 0)
-            COLONY.addAnt(hatchAnt(rng));
+        if (getColony().getTurnCounter() != 0 && getColony().getTurnCounter() % Colony.TURNS_TO_DAYS == 0)
+            getColony().addAnt(hatchAnt(rng));
     }
 }
\ No newline at end of file
@@ -0,0 +1,269 @@
+import dataStructures.IndexedMinHeap;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * QueenFlowField holds, for every cell of a ColonyGrid, the number of moves
+ * to the Queen's cell over revealed cells, where a move goes to any of the
+ * 8 cells around. Following the neighbour one move closer (nextHop) leads
+ * a returning Forager home without it having to remember the way it came.
+ *
+ * The field is built with a breadth-first search from the Queen's cell and
+ * then kept up to date as cells are revealed and hidden, in time that
+ * depends on how many cells change distance rather than on the size of the
+ * grid. Revealing a cell can only shorten distances, so a reveal searches
+ * outward from just that cell. Hiding a cell can only lengthen them: the
+ * cells whose every shortest path ran through it are found, and their
+ * distances are worked out again from the cells around them. Only the
+ * Queen moving marks the field stale until refresh() rebuilds it.
+ * @author Ryan McAllister-Grum
+ */
+final class QueenFlowField {
+    // UNREACHABLE is the distance of a cell with no revealed path to the Queen.
+    static final int UNREACHABLE = -1;
+    // grid is the ColonyGrid this field covers.
+    private final ColonyGrid grid;
+    // distance holds the number of moves from each cell to the Queen's cell.
+    private final int[] distance;
+    // queue holds the cells waiting to be searched from.
+    private final int[] queue;
+    // lost flags the cells whose distance a hidden cell has invalidated.
+    private final BitSet lost;
+    // repairs orders the lost cells by their new distance; created the
+    // first time a cell is hidden.
+    private IndexedMinHeap repairs;
+    // stale flags that distance no longer matches the grid.
+    private boolean stale;
+
+
+    /** QueenFlowField constructor for the given grid. The field starts
+     *  stale, so it is built by the first refresh().
+     *  @param grid The ColonyGrid to cover.
+     */
+    QueenFlowField(ColonyGrid grid) {
+        this.grid = grid;
+        distance = new int[grid.size()];
+        queue = new int[grid.size()];
+        lost = new BitSet(grid.size());
+        stale = true;
+    }
+
+    /** invalidate marks the field as needing a full rebuild.
+     */
+    void invalidate() {
+        stale = true;
+    }
+
+    /** isStale returns whether the field needs a full rebuild.
+     *  @return Whether refresh() would rebuild the field.
+     */
+    boolean isStale() {
+        return stale;
+    }
+
+    /** refresh rebuilds the field if it is stale.
+     */
+    void refresh() {
+        if (!stale)
+            return;
+        Arrays.fill(distance, UNREACHABLE);
+        stale = false;
+        int queen = grid.getQueenIndex();
+        if (queen >= 0 && grid.isRevealed(queen)) {
+            distance[queen] = 0;
+            spread(queen);
+        }
+    }
+
+    /** revealed updates the field after the given cell was revealed. Only
+     *  cells whose path to the Queen gets shorter through it are visited.
+     *  Does nothing while the field is stale.
+     *  @param index The revealed cell's index.
+     */
+    void revealed(int index) {
+        if (stale || distance[index] != UNREACHABLE)
+            return;
+
+        // Its distance is one more than the closest neighbour's.
+        int best;
+        if (index == grid.getQueenIndex())
+            best = 0;
+        else {
+            best = closestNeighbour(index);
+            if (best != UNREACHABLE)
+                best++;
+        }
+
+        if (best != UNREACHABLE) {
+            distance[index] = best;
+            spread(index);
+        }
+    }
+
+    /** hidden updates the field after the given cell was hidden. Only the
+     *  cells whose distance depended on it are visited. Does nothing while
+     *  the field is stale.
+     *  @param index The hidden cell's index.
+     */
+    void hidden(int index) {
+        if (stale || distance[index] == UNREACHABLE)
+            return;
+        int height = grid.getHeight();
+
+        // First find the lost cells: those one move further from the Queen
+        // than a lost cell, with no other neighbour one move closer. The
+        // search goes outward a distance at a time, so a cell's neighbours
+        // one move closer have all been settled before it is looked at.
+        int head = 0;
+        int tail = 0;
+        lost.set(index);
+        queue[tail++] = index;
+        while (head < tail) {
+            int cell = queue[head++];
+            int next = distance[cell] + 1;
+            int cellX = cell / height;
+            int cellY = cell % height;
+            for (int x = cellX - 1; x <= cellX + 1; x++)
+                for (int y = cellY - 1; y <= cellY + 1; y++)
+                    if (grid.contains(x, y)) {
+                        int neighbour = grid.index(x, y);
+                        if (distance[neighbour] == next && !lost.get(neighbour)
+                            && grid.isRevealed(neighbour) && !isSupported(neighbour)
+                        ) {
+                            lost.set(neighbour);
+                            queue[tail++] = neighbour;
+                        }
+                    }
+        }
+        for (int i = 0; i < tail; i++)
+            distance[queue[i]] = UNREACHABLE;
+
+        // Then give each lost cell that borders the rest of the field a
+        // distance through it, and let the cheapest spread first.
+        if (repairs == null)
+            repairs = new IndexedMinHeap(grid.size());
+        repairs.clear();
+        for (int i = 1; i < tail; i++) {
+            int cell = queue[i];
+            lost.clear(cell);
+            int best = closestNeighbour(cell);
+            if (best != UNREACHABLE)
+                repairs.add(cell, best + 1);
+        }
+        lost.clear(index);
+
+        while (!repairs.isEmpty()) {
+            int cell = repairs.getMin();
+            distance[cell] = (int) repairs.getPriority(cell);
+            repairs.removeMin();
+            int next = distance[cell] + 1;
+            int cellX = cell / height;
+            int cellY = cell % height;
+            for (int x = cellX - 1; x <= cellX + 1; x++)
+                for (int y = cellY - 1; y <= cellY + 1; y++)
+                    if (grid.contains(x, y)) {
+                        int neighbour = grid.index(x, y);
+                        if (distance[neighbour] == UNREACHABLE && grid.isRevealed(neighbour))
+                            repairs.addOrDecrease(neighbour, next);
+                    }
+        }
+    }
+
+    /** getDistance returns the number of moves from a cell to the Queen.
+     *  @param index The cell's index.
+     *  @return The cell's distance, or UNREACHABLE.
+     */
+    int getDistance(int index) {
+        return distance[index];
+    }
+
+    /** nextHop returns the first cell around the given one, from top-left
+     *  to bottom-right, that is one move closer to the Queen.
+     *  @param index The cell's index.
+     *  @return The next cell's index, or -1 if the cell is the Queen's or
+     *  cannot reach her.
+     */
+    int nextHop(int index) {
+        int d = distance[index];
+        if (d <= 0)
+            return -1;
+        int height = grid.getHeight();
+        int cellX = index / height;
+        int cellY = index % height;
+        for (int x = cellX - 1; x <= cellX + 1; x++)
+            for (int y = cellY - 1; y <= cellY + 1; y++)
+                if (grid.contains(x, y) && distance[grid.index(x, y)] == d - 1)
+                    return grid.index(x, y);
+        return -1;
+    }
+
+    /** isSupported returns whether a cell still has a neighbour one move
+     *  closer to the Queen that has not been lost.
+     *  @param index The cell's index.
+     *  @return Whether the cell's distance still holds.
+     */
+    private boolean isSupported(int index) {
+        int closer = distance[index] - 1;
+        int height = grid.getHeight();
+        int cellX = index / height;
+        int cellY = index % height;
+        for (int x = cellX - 1; x <= cellX + 1; x++)
+            for (int y = cellY - 1; y <= cellY + 1; y++)
+                if (grid.contains(x, y)) {
+                    int neighbour = grid.index(x, y);
+                    if (distance[neighbour] == closer && !lost.get(neighbour)
+                        && grid.isRevealed(neighbour)
+                    )
+                        return true;
+                }
+        return false;
+    }
+
+    /** closestNeighbour returns the smallest distance among the cells
+     *  around the given one.
+     *  @param index The cell's index.
+     *  @return The smallest neighbouring distance, or UNREACHABLE.
+     */
+    private int closestNeighbour(int index) {
+        int best = UNREACHABLE;
+        int height = grid.getHeight();
+        int cellX = index / height;
+        int cellY = index % height;
+        for (int x = cellX - 1; x <= cellX + 1; x++)
+            for (int y = cellY - 1; y <= cellY + 1; y++)
+                if (grid.contains(x, y)) {
+                    int d = distance[grid.index(x, y)];
+                    if (d != UNREACHABLE && (best == UNREACHABLE || d < best))
+                        best = d;
+                }
+        return best;
+    }
+
+    /** spread searches outward from the given cell, lowering the distance
+     *  of every revealed cell that can be reached in fewer moves through it.
+     *  @param start The cell whose distance was just lowered.
+     */
+    private void spread(int start) {
+        int height = grid.getHeight();
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = start;
+        while (head < tail) {
+            int cell = queue[head++];
+            int next = distance[cell] + 1;
+            int cellX = cell / height;
+            int cellY = cell % height;
+            for (int x = cellX - 1; x <= cellX + 1; x++)
+                for (int y = cellY - 1; y <= cellY + 1; y++)
+                    if (grid.contains(x, y)) {
+                        int neighbour = grid.index(x, y);
+                        if (grid.isRevealed(neighbour)
+                            && (distance[neighbour] == UNREACHABLE || distance[neighbour] > next)
+                        ) {
+                            distance[neighbour] = next;
+                            queue[tail++] = neighbour;
+                        }
+                    }
+        }
+    }
+}
@@ -6,6 +6,7 @@ import java.util.Random;
 final class Scout extends Ant {
     /** Constructor that creates a new Scout ant with the given unique id,
      *  maximum turn age, and at the given x-and-y-coordinates.
+     *  @param colony The Colony the ant lives in.
      *  @param id The Scout's unique ID.
      *  @param maxTurnAge The maximum turn age for this Scout ant.
      *  @param locationX The x-coordinate location to instantiate
@@ -14,8 +15,8 @@ final class Scout extends Ant {
      *  this new Scout ant in the colony.
      *  @return The new Scout ant.
      */
-    Scout(Integer id, Integer maxTurnAge, Integer locationX, Integer locationY) {
-        super(id, maxTurnAge, locationX, locationY);
+    Scout(Colony colony, Integer id, Integer maxTurnAge, Integer locationX, Integer locationY) {
+        super(colony, id, maxTurnAge, locationX, locationY);
     }
     
     /** scout makes this Scout ant randomly move to uncover hidden ColonyNodes.
@@ -31,19 +32,20 @@ final class Scout extends Ant {
         }
         while (
             ((nodeChoiceX.equals(getLocationX()) && nodeChoiceY.equals(getLocationY()))) ||
-            nodeChoiceX < 0 || nodeChoiceY < 0 || nodeChoiceX >= COLONY.getColonyWidth() ||
-            nodeChoiceY >= COLONY.getColonyHeight()
+            nodeChoiceX < 0 || nodeChoiceY < 0 || nodeChoiceX >= getColony().getColonyWidth() ||
+            nodeChoiceY >= getColony().getColonyHeight()
         );
         
         // Move there, and then reveal the node if it is hidden.
         super.move(nodeChoiceX, nodeChoiceY);
         if (!getNode().isRevealed())
-            getNode().revealNode();
+            reveal(getNode());
     }
     
     /** takeAction processes a turn for this Scout.
      *  @param rng Used to make scouting random.
      */
+    @Override
     void takeAction(Random rng) {
         // Cannot act if dead.
         if (!isDead())
@@ -1,5 +1,6 @@
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.Random;
 import javax.swing.Timer;
 
 // Simulation is the overarching class that manages the simulation of the ant colony.
@@ -16,13 +17,32 @@ final public class Simulation implements ActionListener, SimulationEventListener
     // GUI is a reference to the AntSimGUI UI.
     private final AntSimGUI gui;
     
-    /** Default Simulation constructor.
+    /** Default Simulation constructor; simulates a 27x27 colony.
      */
     public Simulation() {
+        this(SimulationConfig.DEFAULT_WIDTH, SimulationConfig.DEFAULT_HEIGHT);
+    }
+    
+    /** Simulation constructor that simulates a colony of the given size.
+     *  @param width The colony width in nodes.
+     *  @param height The colony height in nodes.
+     */
+    public Simulation(Integer width, Integer height) {
+        this(width, height, new Random().nextLong());
+    }
+    
+    /** Simulation constructor that simulates a colony of the given size
+     *  whose random numbers all come from the given seed, so that every
+     *  reset replays the same run.
+     *  @param width The colony width in nodes.
+     *  @param height The colony height in nodes.
+     *  @param seed The seed for the colony's random numbers.
+     */
+    public Simulation(Integer width, Integer height, Long seed) {
         swingTimer = new Timer(125, this);
         step = false;
         stopped = true;
-        colony = new Colony(27, 27, this);
+        colony = new Colony(width, height, this, seed);
         gui = new AntSimGUI();
         gui.initGUI(colony.getColonyView());
         gui.addSimulationEventListener(this);
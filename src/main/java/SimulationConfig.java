@@ -0,0 +1,406 @@
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+import java.util.Random;
+
+/**
+ * SimulationConfig holds the settings used to start a Simulation or a
+ * headless Colony run. Settings are read from an optional properties file
+ * (--config path) and then overridden by command-line options.
+ *
+ * Supported options (property names in parentheses):
+ *   --headless          (headless=true)  run without the Swing GUI
+ *   --turns N           (turns=N)        turn limit for headless runs
+ *   --width N           (width=N)        colony width in nodes
+ *   --height N          (height=N)       colony height in nodes
+ *   --threads N         (threads=N)      worker threads for headless runs,
+ *                                        0 to process ants one at a time
+ *   --seed N            (seed=N)         seed for the colony's random
+ *                                        numbers; random if not given
+ *   --checksum N        (checksum=N)     print the colony checksum every
+ *                                        N turns of a headless run
+ *   --runs N            (runs=N)         run N independent headless
+ *                                        colonies as a batch
+ *   --runThreads N      (runThreads=N)   threads running batch colonies;
+ *                                        defaults to one per processor
+ *   --csv path          (csv=path)       file for the batch's CSV rows;
+ *                                        standard output if not given
+ *   --flowField B       (flowField=B)    true to send Foragers home along
+ *                                        the Queen's flow field instead of
+ *                                        retracing their steps
+ *   --evaporation F     (evaporation=F)  fraction of pheromone lost each
+ *                                        turn; with --diffusion, replaces
+ *                                        the daily halving when non-zero
+ *   --diffusion F       (diffusion=F)    fraction of pheromone spread to
+ *                                        the 8 nodes around each turn
+ *   --lazyFood B        (lazyFood=B)     true to spawn food only as the
+ *                                        ants reach each part of the
+ *                                        colony, for very large colonies
+ *   --gridFile path     (gridFile=path)  file to keep a headless colony's
+ *                                        grid in instead of on the heap;
+ *                                        a batch adds .N for each run
+ *   --overwrite B       (overwrite=B)    true to reuse a grid file that
+ *                                        already exists, clearing it
+ *   --snapshot path     (snapshot=path)  file to save a headless run's
+ *                                        Colony to when it ends
+ *   --snapshotInterval N (snapshotInterval=N) also save the snapshot
+ *                                        every N turns, as a checkpoint
+ *   --compress B        (compress=B)     true to deflate the snapshot
+ *   --restore path      (restore=path)   snapshot to carry on a headless
+ *                                        run from instead of a new
+ *                                        Colony; its settings replace
+ *                                        the size, seed and colony options
+ *   --config path                        properties file to load first
+ * @author Ryan McAllister-Grum
+ */
+final class SimulationConfig {
+    // DEFAULT_WIDTH holds the colony width used when none is given.
+    static final Integer DEFAULT_WIDTH = 27;
+    // DEFAULT_HEIGHT holds the colony height used when none is given.
+    static final Integer DEFAULT_HEIGHT = 27;
+    // DEFAULT_TURNS holds the headless turn limit used when none is
+    // given (ten years).
+    static final Integer DEFAULT_TURNS = Colony.TURNS_TO_YEAR * 10;
+
+    // headless flags whether to run without the GUI.
+    private Boolean headless;
+    // turns holds the maximum number of turns for a headless run.
+    private Integer turns;
+    // width holds the colony width in nodes.
+    private Integer width;
+    // height holds the colony height in nodes.
+    private Integer height;
+    // threads holds the number of worker threads for headless runs.
+    private Integer threads;
+    // seed holds the seed for the colony's random numbers.
+    private Long seed;
+    // checksumInterval holds how many turns apart headless runs print
+    // the colony checksum, or 0 for only at the end.
+    private Integer checksumInterval;
+    // runs holds the number of colonies in a batch, or 0 for no batch.
+    private Integer runs;
+    // runThreads holds the number of threads running batch colonies.
+    private Integer runThreads;
+    // csv holds the path of the batch's CSV file, or null for standard output.
+    private String csv;
+    // flowField flags whether Foragers follow the Queen's flow field home.
+    private Boolean flowField;
+    // evaporation holds the fraction of pheromone lost each turn.
+    private Double evaporation;
+    // diffusion holds the fraction of pheromone spread each turn.
+    private Double diffusion;
+    // lazyFood flags whether food is spawned as the colony is explored.
+    private Boolean lazyFood;
+    // gridFile holds the path of the file the grid is kept in, or null to
+    // keep it on the heap.
+    private String gridFile;
+    // overwrite flags whether an existing grid file may be reused.
+    private Boolean overwrite;
+    // snapshot holds the path a headless run's Colony is saved to, or null.
+    private String snapshot;
+    // snapshotInterval holds how many turns apart the snapshot is saved,
+    // or 0 for only at the end.
+    private Integer snapshotInterval;
+    // compress flags whether snapshots are deflated.
+    private Boolean compress;
+    // restore holds the path of the snapshot to carry on from, or null.
+    private String restore;
+
+
+    /** Default SimulationConfig constructor: a 27x27 GUI simulation.
+     */
+    SimulationConfig() {
+        headless = false;
+        turns = DEFAULT_TURNS;
+        width = DEFAULT_WIDTH;
+        height = DEFAULT_HEIGHT;
+        threads = 0;
+        seed = new Random().nextLong();
+        checksumInterval = 0;
+        runs = 0;
+        runThreads = Runtime.getRuntime().availableProcessors();
+        csv = null;
+        flowField = false;
+        evaporation = 0.0;
+        diffusion = 0.0;
+        lazyFood = false;
+        gridFile = null;
+        overwrite = false;
+        snapshot = null;
+        snapshotInterval = 0;
+        compress = false;
+        restore = null;
+    }
+
+    /** parse builds a SimulationConfig from command-line arguments,
+     *  loading any --config properties file before applying the rest.
+     *  @param args The command-line arguments.
+     *  @return The resulting SimulationConfig.
+     *  @throws IllegalArgumentException If an option is unknown, is missing
+     *  its value, or the config file cannot be read.
+     */
+    static SimulationConfig parse(String[] args) {
+        SimulationConfig config = new SimulationConfig();
+
+        // Load the properties file first so the command line wins.
+        for (Integer i = 0; i < args.length - 1; i++)
+            if (args[i].equals("--config"))
+                config.load(args[i + 1]);
+
+        for (Integer i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (option.equals("--headless"))
+                config.headless = true;
+            else if (option.equals("--config"))
+                i++;
+            else {
+                if (i + 1 >= args.length)
+                    throw new IllegalArgumentException(
+                        "Error while parsing arguments: " + option + " requires a value!"
+                    );
+                config.set(option.substring(2), args[++i]);
+            }
+        }
+        return config;
+    }
+
+    /** load reads settings from the given properties file.
+     *  @param path The path of the properties file.
+     */
+    private void load(String path) {
+        Properties properties = new Properties();
+        try (InputStream in = new FileInputStream(path)) {
+            properties.load(in);
+        } catch (IOException e) {
+            throw new IllegalArgumentException(
+                "Error while loading config: unable to read " + path + "!", e
+            );
+        }
+        for (String name : properties.stringPropertyNames())
+            set(name, properties.getProperty(name).trim());
+    }
+
+    /** set assigns a single named setting from its string value.
+     *  @param name The setting's name.
+     *  @param value The setting's value.
+     */
+    private void set(String name, String value) {
+        try {
+            switch (name) {
+                case "headless":
+                    headless = Boolean.parseBoolean(value);
+                    break;
+                case "turns":
+                    turns = Integer.parseInt(value);
+                    break;
+                case "width":
+                    width = Integer.parseInt(value);
+                    break;
+                case "height":
+                    height = Integer.parseInt(value);
+                    break;
+                case "threads":
+                    threads = Integer.parseInt(value);
+                    break;
+                case "seed":
+                    seed = Long.parseLong(value);
+                    break;
+                case "checksum":
+                    checksumInterval = Integer.parseInt(value);
+                    break;
+                case "runs":
+                    runs = Integer.parseInt(value);
+                    break;
+                case "runThreads":
+                    runThreads = Integer.parseInt(value);
+                    break;
+                case "csv":
+                    csv = value;
+                    break;
+                case "flowField":
+                    flowField = Boolean.parseBoolean(value);
+                    break;
+                case "evaporation":
+                    evaporation = Double.parseDouble(value);
+                    break;
+                case "diffusion":
+                    diffusion = Double.parseDouble(value);
+                    break;
+                case "lazyFood":
+                    lazyFood = Boolean.parseBoolean(value);
+                    break;
+                case "gridFile":
+                    gridFile = value;
+                    break;
+                case "overwrite":
+                    overwrite = Boolean.parseBoolean(value);
+                    break;
+                case "snapshot":
+                    snapshot = value;
+                    break;
+                case "snapshotInterval":
+                    snapshotInterval = Integer.parseInt(value);
+                    break;
+                case "compress":
+                    compress = Boolean.parseBoolean(value);
+                    break;
+                case "restore":
+                    restore = value;
+                    break;
+                default:
+                    throw new IllegalArgumentException(
+                        "Error while parsing arguments: unknown option " + name + "!"
+                    );
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(
+                "Error while parsing arguments: " + name + " must be a number!", e
+            );
+        }
+    }
+
+    /** isHeadless returns whether to run without the GUI.
+     *  @return The headless attribute.
+     */
+    Boolean isHeadless() {
+        return headless;
+    }
+
+    /** getTurns returns the turn limit for headless runs.
+     *  @return The turns attribute.
+     */
+    Integer getTurns() {
+        return turns;
+    }
+
+    /** getWidth returns the colony width in nodes.
+     *  @return The width attribute.
+     */
+    Integer getWidth() {
+        return width;
+    }
+
+    /** getHeight returns the colony height in nodes.
+     *  @return The height attribute.
+     */
+    Integer getHeight() {
+        return height;
+    }
+
+    /** getThreads returns the number of worker threads for headless runs.
+     *  @return The threads attribute.
+     */
+    Integer getThreads() {
+        return threads;
+    }
+
+    /** getSeed returns the seed for the colony's random numbers.
+     *  @return The seed attribute.
+     */
+    Long getSeed() {
+        return seed;
+    }
+
+    /** getChecksumInterval returns how many turns apart headless runs
+     *  print the colony checksum.
+     *  @return The checksumInterval attribute, 0 for only at the end.
+     */
+    Integer getChecksumInterval() {
+        return checksumInterval;
+    }
+
+    /** getRuns returns the number of colonies in a batch.
+     *  @return The runs attribute, 0 when not running a batch.
+     */
+    Integer getRuns() {
+        return runs;
+    }
+
+    /** getRunThreads returns the number of threads running batch colonies.
+     *  @return The runThreads attribute.
+     */
+    Integer getRunThreads() {
+        return runThreads;
+    }
+
+    /** getCsv returns the path of the batch's CSV file.
+     *  @return The csv attribute, or null for standard output.
+     */
+    String getCsv() {
+        return csv;
+    }
+
+    /** isFlowField returns whether Foragers follow the Queen's flow field
+     *  home.
+     *  @return The flowField attribute.
+     */
+    Boolean isFlowField() {
+        return flowField;
+    }
+
+    /** getEvaporation returns the fraction of pheromone lost each turn.
+     *  @return The evaporation attribute, 0 for the daily halving.
+     */
+    Double getEvaporation() {
+        return evaporation;
+    }
+
+    /** getDiffusion returns the fraction of pheromone spread each turn.
+     *  @return The diffusion attribute.
+     */
+    Double getDiffusion() {
+        return diffusion;
+    }
+
+    /** isLazyFood returns whether food is spawned as the colony is
+     *  explored.
+     *  @return The lazyFood attribute.
+     */
+    Boolean isLazyFood() {
+        return lazyFood;
+    }
+
+    /** getGridFile returns the path of the file the grid is kept in.
+     *  @return The gridFile attribute, or null to keep it on the heap.
+     */
+    String getGridFile() {
+        return gridFile;
+    }
+
+    /** isOverwrite returns whether an existing grid file may be reused.
+     *  @return The overwrite attribute.
+     */
+    Boolean isOverwrite() {
+        return overwrite;
+    }
+
+    /** getSnapshot returns the path a headless run's Colony is saved to.
+     *  @return The snapshot attribute, or null for no snapshot.
+     */
+    String getSnapshot() {
+        return snapshot;
+    }
+
+    /** getSnapshotInterval returns how many turns apart the snapshot is
+     *  saved.
+     *  @return The snapshotInterval attribute, 0 for only at the end.
+     */
+    Integer getSnapshotInterval() {
+        return snapshotInterval;
+    }
+
+    /** isCompress returns whether snapshots are deflated.
+     *  @return The compress attribute.
+     */
+    Boolean isCompress() {
+        return compress;
+    }
+
+    /** getRestore returns the path of the snapshot to carry on from.
+     *  @return The restore attribute, or null to start a new Colony.
+     */
+    String getRestore() {
+        return restore;
+    }
+}
@@ -8,6 +8,7 @@ final class Soldier extends Ant {
     /** Constructor that creates a new Soldier ant with the given id,
      *  maximum turn age, and at the given x and y location in the
      *  Colony.
+     *  @param colony The Colony the ant lives in.
      *  @param id The Soldier's new unique ID.
      *  @param maxTurnAge The Soldier's max age in turns before they die
      *  of old age.
@@ -17,8 +18,8 @@ final class Soldier extends Ant {
      *  the new Soldier ant.
      *  @return The new Soldier ant.
      */
-    Soldier(Integer id, Integer maxTurnAge, Integer locationX, Integer locationY) {
-        super(id, maxTurnAge, locationX, locationY);
+    Soldier(Colony colony, Integer id, Integer maxTurnAge, Integer locationX, Integer locationY) {
+        super(colony, id, maxTurnAge, locationX, locationY);
     }
     
     /** Move is used to move this Soldier ant around the Colony.
@@ -43,21 +44,28 @@ final class Soldier extends Ant {
             // balaNodes is used to count the number of nearby nodes with
             // Bala ants.
             Integer balaNodes = 0;
+            // grid gives direct access to the surrounding cells' state.
+            ColonyGrid grid = getColony().getGrid();
+            // locationX and Y cache this Soldier's current coordinates.
+            int locationX = getLocationX();
+            int locationY = getLocationY();
             
             // First scan surrounding nodes for Bala ants.
-            for (Integer x = getLocationX() - 1; x <= getLocationX() + 1; x++)
-                for (Integer y = getLocationY() - 1; y <= getLocationY() + 1; y++)
+            for (int x = locationX - 1; x <= locationX + 1; x++)
+                for (int y = locationY - 1; y <= locationY + 1; y++)
                     // First check that current position is not outside Colony bounds.
-                    if (x >= 0 && y >= 0 && x < COLONY.getColonyWidth() && y < COLONY.getColonyHeight())
+                    if (grid.contains(x, y)) {
+                        int cell = grid.index(x, y);
                         // If there is a node with a Bala ant inside it, make a note of it.
-                        if (COLONY.getColonyNode(x, y).getBalaCount() > 0
-                            && !x.equals(getLocationX()) && !y.equals(getLocationY())
-                            && COLONY.getColonyNode(x, y).isRevealed()
+                        if (grid.getBalaCount(cell) > 0
+                            && x != locationX && y != locationY
+                            && grid.isRevealed(cell)
                         ) {
                             nodeChoiceX = x;
                             nodeChoiceY = y;
                             balaNodes++;
                         }
+                    }
 
             // If there are no Bala ants nearby, move randomly.
             if (balaNodes.equals(0) || nodeChoiceX.equals(-1))
@@ -67,9 +75,8 @@ final class Soldier extends Ant {
                 }
                 while (
                     (nodeChoiceX.equals(getLocationX()) && nodeChoiceY.equals(getLocationY())) ||
-                    nodeChoiceX < 0 || nodeChoiceY < 0 || nodeChoiceX >= COLONY.getColonyWidth() ||
-                    nodeChoiceY >= COLONY.getColonyHeight()
-                    || !COLONY.getColonyNode(nodeChoiceX, nodeChoiceY).isRevealed()
+                    !grid.contains(nodeChoiceX, nodeChoiceY)
+                    || !grid.isRevealed(grid.index(nodeChoiceX, nodeChoiceY))
                 );
              // Randomly pick a nearby square with a Bala ant inside it.
             else if (balaNodes > 1)
@@ -79,10 +86,9 @@ final class Soldier extends Ant {
                 }
                 while (
                     (nodeChoiceX.equals(getLocationX()) && nodeChoiceY.equals(getLocationY())) ||
-                    nodeChoiceX < 0 || nodeChoiceY < 0 || nodeChoiceX >= COLONY.getColonyWidth() ||
-                    nodeChoiceY >= COLONY.getColonyHeight()
-                    || !COLONY.getColonyNode(nodeChoiceX, nodeChoiceY).isRevealed()
-                    || COLONY.getColonyNode(nodeChoiceX, nodeChoiceY).getBalaCount().equals(0)
+                    !grid.contains(nodeChoiceX, nodeChoiceY)
+                    || !grid.isRevealed(grid.index(nodeChoiceX, nodeChoiceY))
+                    || grid.getBalaCount(grid.index(nodeChoiceX, nodeChoiceY)) == 0
                 );
 
             // If balaNodes == 1, move to the only node.
@@ -105,7 +111,7 @@ final class Soldier extends Ant {
             Bala enemy = getEnemyAnt(rng);
             if (enemy != null)
                 if (rng.nextInt(100) < 50)
-                    enemy.kill();
+                    killAnt(enemy);
         }
     }
     
@@ -121,6 +127,7 @@ final class Soldier extends Ant {
     /** takeAction processes a turn for this Soldier ant.
      *  @param rng Used to introduce probability in the Soldier's actions.
      */
+    @Override
     void takeAction(Random rng) {
         // Cannot do anything if dead.
         if (!isDead()) {
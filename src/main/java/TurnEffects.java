@@ -0,0 +1,169 @@
+import java.util.Arrays;
+
+/**
+ * TurnEffects records the changes a group of Ants makes to the shared
+ * colony while their turns are being worked out in parallel. The changes
+ * are applied afterwards on a single thread, group by group in ant order,
+ * and each one is checked against the colony as it is by then; that is how
+ * conflicts (two Foragers taking the last unit of food, two Balas killing
+ * the same ant) are settled the same way no matter how many threads ran.
+ * @author Ryan McAllister-Grum
+ */
+final class TurnEffects {
+    // MOVE records an Ant leaving a node for the node it is now in.
+    private static final int MOVE = 0;
+    // DEAD records an Ant that died during its own turn.
+    private static final int DEAD = 1;
+    // KILL records an attack that kills another Ant.
+    private static final int KILL = 2;
+    // FOOD records food being added to a node.
+    private static final int FOOD = 3;
+    // PICK_UP records a Forager taking a unit of food from its node.
+    private static final int PICK_UP = 4;
+    // PHEROMONE records pheromone being added to a node, up to a limit.
+    private static final int PHEROMONE = 5;
+    // REVEAL records a node being revealed.
+    private static final int REVEAL = 6;
+
+    // kinds holds the kind of each recorded change.
+    private int[] kinds;
+    // ants holds the Ant each change is about, if any.
+    private Ant[] ants;
+    // nodes holds the ColonyNode each change is about, if any.
+    private ColonyNode[] nodes;
+    // amounts holds the amount of food or pheromone of each change.
+    private int[] amounts;
+    // limits holds the pheromone level above which a change is dropped.
+    private int[] limits;
+    // size holds the number of changes recorded.
+    private int size;
+
+
+    /** Default TurnEffects constructor with room for a few changes.
+     */
+    TurnEffects() {
+        kinds = new int[16];
+        ants = new Ant[16];
+        nodes = new ColonyNode[16];
+        amounts = new int[16];
+        limits = new int[16];
+        size = 0;
+    }
+
+    /** move records that ant has left from for the node it is now in.
+     *  @param ant The Ant that moved.
+     *  @param from The node the Ant left.
+     */
+    void move(Ant ant, ColonyNode from) {
+        record(MOVE, ant, from, 0, 0);
+    }
+
+    /** dead records that ant died during its own turn.
+     *  @param ant The Ant that died.
+     */
+    void dead(Ant ant) {
+        record(DEAD, ant, null, 0, 0);
+    }
+
+    /** kill records an attack that kills target, unless something else
+     *  has killed it first.
+     *  @param target The Ant to kill.
+     */
+    void kill(Ant target) {
+        record(KILL, target, null, 0, 0);
+    }
+
+    /** addFood records amount units of food being added to node.
+     *  @param node The node receiving the food.
+     *  @param amount The amount of food.
+     */
+    void addFood(ColonyNode node, Integer amount) {
+        record(FOOD, null, node, amount, 0);
+    }
+
+    /** pickUpFood records forager trying to take a unit of food from its
+     *  node; whether it gets one is decided when the change is applied.
+     *  @param forager The Forager picking up food.
+     */
+    void pickUpFood(Forager forager) {
+        record(PICK_UP, forager, null, 0, 0);
+    }
+
+    /** addPheromone records amount pheromone being added to node, as long
+     *  as its level is still below limit when the change is applied.
+     *  @param node The node receiving the pheromone.
+     *  @param amount The amount of pheromone.
+     *  @param limit The level at which no more pheromone is added.
+     */
+    void addPheromone(ColonyNode node, Integer amount, Integer limit) {
+        record(PHEROMONE, null, node, amount, limit);
+    }
+
+    /** reveal records node being revealed.
+     *  @param node The node to reveal.
+     */
+    void reveal(ColonyNode node) {
+        record(REVEAL, null, node, 0, 0);
+    }
+
+    /** apply makes every recorded change to the colony in the order they
+     *  were recorded, then clears the record.
+     */
+    void apply() {
+        for (int i = 0; i < size; i++) {
+            switch (kinds[i]) {
+                case MOVE:
+                    ants[i].relocate(nodes[i]);
+                    break;
+                case DEAD:
+                    ants[i].getColony().addDead(ants[i]);
+                    break;
+                case KILL:
+                    if (!ants[i].isDead())
+                        ants[i].kill();
+                    break;
+                case FOOD:
+                    nodes[i].addFood(amounts[i]);
+                    break;
+                case PICK_UP:
+                    ((Forager) ants[i]).pickUpFood();
+                    break;
+                case PHEROMONE:
+                    if (nodes[i].getPheromone() < limits[i])
+                        nodes[i].addPheromone(amounts[i]);
+                    break;
+                case REVEAL:
+                    if (!nodes[i].isRevealed())
+                        nodes[i].revealNode();
+                    break;
+            }
+            ants[i] = null;
+            nodes[i] = null;
+        }
+        size = 0;
+    }
+
+    /** record appends a change, growing the arrays when they are full.
+     *  @param kind The kind of change.
+     *  @param ant The Ant the change is about, or null.
+     *  @param node The ColonyNode the change is about, or null.
+     *  @param amount The amount of food or pheromone.
+     *  @param limit The pheromone limit.
+     */
+    private void record(int kind, Ant ant, ColonyNode node, int amount, int limit) {
+        if (size == kinds.length) {
+            int capacity = size * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            ants = Arrays.copyOf(ants, capacity);
+            nodes = Arrays.copyOf(nodes, capacity);
+            amounts = Arrays.copyOf(amounts, capacity);
+            limits = Arrays.copyOf(limits, capacity);
+        }
+        kinds[size] = kind;
+        ants[size] = ant;
+        nodes[size] = node;
+        amounts[size] = amount;
+        limits[size] = limit;
+        size++;
+    }
+}
@@ -0,0 +1,585 @@
+package dataStructures;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ *	CSRGraph class
+ *
+ *	implementation of a frozen graph in compressed sparse row form
+ *
+ *	The vertices are numbered 0 to vertexCount() - 1.  The edges leaving
+ *	vertex v are stored at positions offsets[v] to offsets[v + 1] - 1 of the
+ *	targets and costs arrays, so a traversal reads consecutive primitive array
+ *	elements instead of following Vertex, LinkedList and Edge references, and
+ *	no per-vertex state has to be reset before a search.
+ *
+ *	A CSRGraph cannot be changed once it has been built.  It can be built from
+ *	edge arrays, from a ListGraph (see ListGraph.toCSRGraph), or as a grid of
+ *	cells each connected to its 8 neighbours (see grid).
+ *
+ *	The searches fill caller-supplied distance and previous arrays, so that
+ *	they can be repeated without allocating; the shortest path methods wrap
+ *	them in the same form as ListGraph's.
+ */
+public class CSRGraph
+{
+
+	/************
+	 *	constants
+	 ***********/
+
+	/** maximum value for path length between 2 vertices */
+	public static final double INFINITY = Double.MAX_VALUE;
+
+	/** previous vertex of the origin and of unreached vertices */
+	public static final int NO_VERTEX = -1;
+
+
+	/*************
+	 *	attributes
+	 ************/
+
+	/** position of each vertex's first edge; offsets[vertexCount] = edgeCount */
+	private final int[] offsets;
+
+	/** destination vertex of each edge */
+	private final int[] targets;
+
+	/** cost of each edge */
+	private final double[] costs;
+
+	/** item of each vertex, or null if the vertices are their own items */
+	private final Object[] items;
+
+	/** vertex of each item, or null if the vertices are their own items or
+	 *	every item is an Integer */
+	private final HashMap<Object, Integer> indices;
+
+	/** vertex of each item by its int value, or null unless every item is an
+	 *	Integer */
+	private final IntHashMap intIndices;
+
+
+	/***************
+	 *	constructors
+	 **************/
+
+	/**
+	 *	create a new CSRGraph with the specified number of vertices and the
+	 *	edges origins[i] -> destinations[i] of cost edgeCosts[i]
+	 *
+	 *	the vertices are their own items, as Integers
+	 *
+	 *	throws IllegalArgumentException if the arrays differ in length or an
+	 *	edge refers to a vertex that does not exist
+	 */
+	public CSRGraph(int vertexCount, int[] origins, int[] destinations, double[] edgeCosts)
+	{
+		if (vertexCount < 0)
+			throw new IllegalArgumentException("Vertex count cannot be negative!");
+		if (origins.length != destinations.length || origins.length != edgeCosts.length)
+			throw new IllegalArgumentException("Edge arrays must have the same length!");
+
+		offsets = new int[vertexCount + 1];
+		targets = new int[origins.length];
+		costs = new double[origins.length];
+		items = null;
+		indices = null;
+		intIndices = null;
+
+		// count the edges leaving each vertex
+		for (int i = 0; i < origins.length; i++)
+		{
+			if (origins[i] < 0 || origins[i] >= vertexCount
+				|| destinations[i] < 0 || destinations[i] >= vertexCount)
+				throw new IllegalArgumentException("Edge " + i + " refers to a missing vertex!");
+
+			offsets[origins[i] + 1]++;
+		}
+
+		// turn the counts into starting positions
+		for (int v = 0; v < vertexCount; v++)
+			offsets[v + 1] += offsets[v];
+
+		// place each edge after the ones already placed for its origin
+		int[] next = new int[vertexCount];
+		System.arraycopy(offsets, 0, next, 0, vertexCount);
+		for (int i = 0; i < origins.length; i++)
+		{
+			int position = next[origins[i]]++;
+			targets[position] = destinations[i];
+			costs[position] = edgeCosts[i];
+		}
+	}
+
+
+	/**
+	 *	create a new CSRGraph from arrays already in compressed sparse row form,
+	 *	which the new CSRGraph takes ownership of
+	 *
+	 *	@param offsets - position of each vertex's first edge, then the edge count
+	 *	@param targets - destination vertex of each edge
+	 *	@param costs - cost of each edge
+	 *	@param items - item of each vertex, or null for Integer vertices
+	 */
+	CSRGraph(int[] offsets, int[] targets, double[] costs, Object[] items)
+	{
+		this.offsets = offsets;
+		this.targets = targets;
+		this.costs = costs;
+		this.items = items;
+
+		boolean allIntegers = items != null;
+		for (int v = 0; allIntegers && v < items.length; v++)
+			allIntegers = items[v] instanceof Integer;
+
+		if (items == null)
+		{
+			indices = null;
+			intIndices = null;
+		}
+		else if (allIntegers)
+		{
+			// index Integer items, such as cell indices, without boxing keys
+			indices = null;
+			intIndices = new IntHashMap(items.length);
+			for (int v = 0; v < items.length; v++)
+				intIndices.add((Integer)items[v], v);
+		}
+		else
+		{
+			// index the items so they can be looked up
+			indices = new HashMap<Object, Integer>(items.length);
+			intIndices = null;
+			for (int v = 0; v < items.length; v++)
+				indices.add(items[v], v);
+		}
+	}
+
+
+	/**********
+	 *	methods
+	 *********/
+
+	/**
+	 *	return a CSRGraph of a width x height grid of cells, in which every open
+	 *	cell has a unit cost edge to each open cell among its 8 neighbours
+	 *
+	 *	cell x,y is vertex x * height + y
+	 *
+	 *	@param width - the number of columns
+	 *	@param height - the number of rows
+	 *	@param open - the open cells, or null if every cell is open
+	 */
+	public static CSRGraph grid(int width, int height, BitSet open)
+	{
+		if (width < 0 || height < 0 || (long)width * height > Integer.MAX_VALUE - 1)
+			throw new IllegalArgumentException("Invalid grid size " + width + "x" + height + "!");
+
+		int cells = width * height;
+		int[] offsets = new int[cells + 1];
+
+		// count the edges so the arrays can be allocated exactly
+		int edges = 0;
+		for (int x = 0; x < width; x++)
+			for (int y = 0; y < height; y++)
+			{
+				offsets[x * height + y] = edges;
+				if (open == null || open.get(x * height + y))
+					edges += openNeighbours(width, height, open, x, y, null, 0);
+			}
+		offsets[cells] = edges;
+
+		// then fill in the edges
+		int[] targets = new int[edges];
+		double[] costs = new double[edges];
+		for (int x = 0; x < width; x++)
+			for (int y = 0; y < height; y++)
+				if (open == null || open.get(x * height + y))
+					openNeighbours(width, height, open, x, y, targets, offsets[x * height + y]);
+		Arrays.fill(costs, 1.0);
+
+		return new CSRGraph(offsets, targets, costs, null);
+	}
+
+
+	/**
+	 *	internal method for counting the open neighbours of cell x,y, and storing
+	 *	them in targets from position start if targets is not null
+	 */
+	private static int openNeighbours(int width, int height, BitSet open, int x, int y,
+		int[] targets, int start)
+	{
+		int count = 0;
+
+		for (int i = Math.max(0, x - 1); i <= Math.min(width - 1, x + 1); i++)
+			for (int j = Math.max(0, y - 1); j <= Math.min(height - 1, y + 1); j++)
+				if ((i != x || j != y) && (open == null || open.get(i * height + j)))
+				{
+					if (targets != null)
+						targets[start + count] = i * height + j;
+					count++;
+				}
+
+		return count;
+	}
+
+
+	/**
+	 *	return the number of vertices in this CSRGraph
+	 */
+	public int vertexCount()
+	{
+		return offsets.length - 1;
+	}
+
+
+	/**
+	 *	return the number of edges in this CSRGraph
+	 */
+	public int edgeCount()
+	{
+		return targets.length;
+	}
+
+
+	/**
+	 *	return the position of the first edge leaving vertex v; the edges
+	 *	leaving v end just before firstEdge(v + 1)
+	 */
+	public int firstEdge(int v)
+	{
+		return offsets[v];
+	}
+
+
+	/**
+	 *	return the destination vertex of the specified edge
+	 */
+	public int getTarget(int edge)
+	{
+		return targets[edge];
+	}
+
+
+	/**
+	 *	return the cost of the specified edge
+	 */
+	public double getCost(int edge)
+	{
+		return costs[edge];
+	}
+
+
+	/**
+	 *	return the item of vertex v
+	 */
+	public Object getItem(int v)
+	{
+		if (v < 0 || v >= vertexCount())
+			throw new IndexOutOfBoundsException();
+
+		return items == null ? Integer.valueOf(v) : items[v];
+	}
+
+
+	/**
+	 *	return the vertex holding the specified item, or -1 if there is none
+	 */
+	public int indexOf(Object item)
+	{
+		if (intIndices != null)
+		{
+			if (!(item instanceof Integer))
+				return -1;
+			Object v = intIndices.get((Integer)item);
+			return v == null ? -1 : (Integer)v;
+		}
+
+		if (indices == null)
+		{
+			// the vertices are their own items
+			if (!(item instanceof Integer))
+				return -1;
+			int v = (Integer)item;
+			return v >= 0 && v < vertexCount() ? v : -1;
+		}
+
+		Integer v = indices.get(item);
+		return v == null ? -1 : v;
+	}
+
+
+	/**
+	 *	Return the unweighted shortest path from the specified origin item to
+	 *	the specified destination item.
+	 */
+	public ShortestPath unweightedShortestPath(Object origin, Object destination)
+	{
+		int[] previous = new int[vertexCount()];
+		double[] distance = new double[vertexCount()];
+		int dest = vertexOf(destination);
+
+		unweightedShortestPaths(vertexOf(origin), distance, previous);
+
+		return path(dest, distance, previous);
+	}
+
+
+	/**
+	 *	For a graph containing only non-negative edge costs, return the weighted
+	 *	shortest path from the specified origin item to the specified
+	 *	destination item.
+	 */
+	public ShortestPath weightedShortestPath(Object origin, Object destination)
+	{
+		int[] previous = new int[vertexCount()];
+		double[] distance = new double[vertexCount()];
+		int dest = vertexOf(destination);
+
+		weightedShortestPaths(vertexOf(origin), distance, previous);
+
+		return path(dest, distance, previous);
+	}
+
+
+	/**
+	 *	For a graph that may contain negative edge costs, return the weighted
+	 *	shortest path from the specified origin item to the specified
+	 *	destination item.
+	 */
+	public ShortestPath negativeWeightedShortestPath(Object origin, Object destination)
+	{
+		int[] previous = new int[vertexCount()];
+		double[] distance = new double[vertexCount()];
+		int dest = vertexOf(destination);
+
+		negativeWeightedShortestPaths(vertexOf(origin), distance, previous);
+
+		return path(dest, distance, previous);
+	}
+
+
+	/**
+	 *	compute the unweighted shortest path from origin to every vertex with a
+	 *	breadth-first search
+	 *
+	 *	@param origin - the vertex the paths start from
+	 *	@param distance - receives each vertex's number of edges from origin, or
+	 *		INFINITY if it cannot be reached
+	 *	@param previous - receives the vertex before each vertex on its path, or
+	 *		NO_VERTEX for origin and unreached vertices
+	 */
+	public void unweightedShortestPaths(int origin, double[] distance, int[] previous)
+	{
+		// vertices reached but not yet visited; each is queued once at most
+		int[] queue = new int[vertexCount()];
+		int head = 0;
+		int tail = 0;
+
+		reset(origin, distance, previous);
+		queue[tail++] = origin;
+
+		while (head < tail)
+		{
+			int v = queue[head++];
+
+			for (int e = offsets[v]; e < offsets[v + 1]; e++)
+			{
+				int w = targets[e];
+
+				if (distance[w] == INFINITY)
+				{
+					// w reached for the first time
+					distance[w] = distance[v] + 1.0;
+					previous[w] = v;
+					queue[tail++] = w;
+				}
+			}
+		}
+	}
+
+
+	/**
+	 *	compute the weighted shortest path from origin to every vertex using
+	 *	Dijkstra's algorithm
+	 *
+	 *	throws GraphException if a negative edge cost is found
+	 *
+	 *	@param origin - the vertex the paths start from
+	 *	@param distance - receives each vertex's path cost from origin, or
+	 *		INFINITY if it cannot be reached
+	 *	@param previous - receives the vertex before each vertex on its path, or
+	 *		NO_VERTEX for origin and unreached vertices
+	 */
+	public void weightedShortestPaths(int origin, double[] distance, int[] previous)
+	{
+		weightedShortestPaths(origin, distance, previous, new IndexedMinHeap(vertexCount()));
+	}
+
+
+	/**
+	 *	compute the weighted shortest path from origin to every vertex using
+	 *	Dijkstra's algorithm, with heap as the queue of vertices to visit
+	 *
+	 *	the heap is cleared first, so one heap can be reused for any number of
+	 *	searches without allocating
+	 *
+	 *	throws GraphException if a negative edge cost is found
+	 *
+	 *	@param origin - the vertex the paths start from
+	 *	@param distance - receives each vertex's path cost from origin, or
+	 *		INFINITY if it cannot be reached
+	 *	@param previous - receives the vertex before each vertex on its path, or
+	 *		NO_VERTEX for origin and unreached vertices
+	 *	@param heap - a heap with a capacity of at least vertexCount()
+	 */
+	public void weightedShortestPaths(int origin, double[] distance, int[] previous,
+		IndexedMinHeap heap)
+	{
+		reset(origin, distance, previous);
+		heap.clear();
+		heap.add(origin, 0.0);
+
+		while (!heap.isEmpty())
+		{
+			// retrieve and remove the closest vertex; its path is now final
+			int v = heap.removeMin();
+
+			for (int e = offsets[v]; e < offsets[v + 1]; e++)
+			{
+				int w = targets[e];
+				double vwCost = costs[e];
+
+				if (vwCost < 0.0)
+					throw new GraphException("Graph has negative edges");
+
+				if (distance[w] > distance[v] + vwCost)
+				{
+					// new shortest path from v to w found; a vertex whose
+					// path is final can never be improved on here
+					distance[w] = distance[v] + vwCost;
+					previous[w] = v;
+					heap.addOrDecrease(w, distance[w]);
+				}
+			}
+		}
+	}
+
+
+	/**
+	 *	compute the weighted shortest path from origin to every vertex using
+	 *	the queue-based Bellman-Ford algorithm
+	 *
+	 *	throws GraphException if a negative cycle can be reached from origin
+	 *
+	 *	@param origin - the vertex the paths start from
+	 *	@param distance - receives each vertex's path cost from origin, or
+	 *		INFINITY if it cannot be reached
+	 *	@param previous - receives the vertex before each vertex on its path, or
+	 *		NO_VERTEX for origin and unreached vertices
+	 */
+	public void negativeWeightedShortestPaths(int origin, double[] distance, int[] previous)
+	{
+		int n = vertexCount();
+
+		// circular queue of vertices to visit; each is queued once at most
+		int[] queue = new int[n];
+		int head = 0;
+		int count = 0;
+
+		// times each vertex has been queued and dequeued; odd while queued
+		int[] scratch = new int[n];
+
+		reset(origin, distance, previous);
+		queue[0] = origin;
+		count = 1;
+		scratch[origin]++;
+
+		while (count > 0)
+		{
+			int v = queue[head];
+			head = head + 1 == n ? 0 : head + 1;
+			count--;
+
+			if (scratch[v] > 2 * n)
+			{
+				// negative cycle exists
+				throw new GraphException("Negative cycle detected");
+			}
+
+			// indicate v has been dequeued
+			scratch[v]++;
+
+			for (int e = offsets[v]; e < offsets[v + 1]; e++)
+			{
+				int w = targets[e];
+
+				if (distance[w] > distance[v] + costs[e])
+				{
+					// new shortest path from v to w found
+					distance[w] = distance[v] + costs[e];
+					previous[w] = v;
+
+					// enqueue w only if not already in queue
+					if (scratch[w] % 2 == 0)
+					{
+						scratch[w]++;
+						int tail = head + count;
+						queue[tail >= n ? tail - n : tail] = w;
+						count++;
+					}
+				}
+			}
+		}
+	}
+
+
+	/**
+	 *	internal method for resetting the search arrays before a search from
+	 *	origin
+	 */
+	private void reset(int origin, double[] distance, int[] previous)
+	{
+		if (origin < 0 || origin >= vertexCount())
+			throw new NoSuchElementException();
+		if (distance.length < vertexCount() || previous.length < vertexCount())
+			throw new IllegalArgumentException("Search arrays are smaller than the graph!");
+
+		Arrays.fill(distance, 0, vertexCount(), INFINITY);
+		Arrays.fill(previous, 0, vertexCount(), NO_VERTEX);
+		distance[origin] = 0.0;
+	}
+
+
+	/**
+	 *	internal method for finding the vertex of an item
+	 *
+	 *	throws NoSuchElementException if no vertex holds the item
+	 */
+	private int vertexOf(Object item)
+	{
+		int v = indexOf(item);
+
+		if (v < 0)
+			throw new NoSuchElementException();
+
+		return v;
+	}
+
+
+	/**
+	 *	internal method for building the ShortestPath to dest from the search
+	 *	arrays
+	 */
+	private ShortestPath path(int dest, double[] distance, int[] previous)
+	{
+		LinkedList path = new LinkedList();
+
+		for (int v = dest; v != NO_VERTEX; v = previous[v])
+			path.addFirst(getItem(v));
+
+		return new ShortestPath(path, distance[dest]);
+	}
+}
@@ -0,0 +1,76 @@
+package dataStructures;
+
+/**
+ *	class ChebyshevHeuristic
+ *
+ *	implementation of a Heuristic for graphs whose items are the Integer cells
+ *	of a grid, numbered x * height + y, where each cell is connected to its 8
+ *	neighbours
+ *
+ *	the estimate is the Chebyshev distance between two cells, the number of
+ *	steps needed when diagonal steps are allowed, times the cheapest cost of a
+ *	single step
+ */
+public class ChebyshevHeuristic implements Heuristic
+{
+
+	/*************
+	 *	attributes
+	 ************/
+
+	/** number of cells in each column of the grid */
+	private final int height;
+
+	/** lowest cost of any Edge in the graph */
+	private final double minimumCost;
+
+
+	/***************
+	 *	constructors
+	 **************/
+
+	/**
+	 *	create a new ChebyshevHeuristic for a grid with the specified height,
+	 *	where every Edge costs at least 1
+	 */
+	public ChebyshevHeuristic(int height)
+	{
+		this(height, 1.0);
+	}
+
+
+	/**
+	 *	create a new ChebyshevHeuristic for a grid with the specified height,
+	 *	where every Edge costs at least minimumCost
+	 */
+	public ChebyshevHeuristic(int height, double minimumCost)
+	{
+		if (height < 1)
+			throw new IllegalArgumentException("Height must be at least 1!");
+		if (minimumCost < 0.0)
+			throw new IllegalArgumentException("Minimum cost cannot be negative!");
+
+		this.height = height;
+		this.minimumCost = minimumCost;
+	}
+
+
+	/**********
+	 *	methods
+	 *********/
+
+	/**
+	 *	return the Chebyshev distance from the cell item to the cell
+	 *	destination, times the minimum Edge cost
+	 */
+	public double estimate(Object item, Object destination)
+	{
+		int from = (Integer)item;
+		int to = (Integer)destination;
+
+		int dx = Math.abs(from / height - to / height);
+		int dy = Math.abs(from % height - to % height);
+
+		return Math.max(dx, dy) * minimumCost;
+	}
+}
@@ -13,9 +13,16 @@ package dataStructures;
  *	This class is customizable, in that the hashing function, the load factor,
  *	and the set of table sizes to use can be specified by the user.
  *
+ *	Each entry caches the spread hash of its key, so growing the table only
+ *	relinks the existing entries and never calls the hashing function again.
+ *	A chain that grows longer than MAX_CHAIN_LENGTH makes the table grow early,
+ *	as long as the table is not already much larger than the number of items.
+ *
+ *	The type parameters K and V give the types of the keys and the items.
+ *
  *	Written by Roger West, University of Illinois at Springfield
  */
-public class HashMap implements Map
+public class HashMap<K, V> implements Map<K, V>
 {
 	
 	/************
@@ -25,6 +32,12 @@ public class HashMap implements Map
 	/** default value for load factor */
 	private final double DEFAULT_LOAD_FACTOR = 0.75;
 	
+	/** chain length past which the table is grown before reaching threshold */
+	private static final int MAX_CHAIN_LENGTH = 8;
+	
+	/** the table is not grown early once it has this many cells per item */
+	private static final int MAX_CELLS_PER_ITEM = 4;
+	
 	
 	/*************
 	 *	attributes
@@ -74,7 +87,7 @@ public class HashMap implements Map
 					 			};
 	
 	/** the table of entries */
-	private HashMapEntry[] table;
+	private HashMapEntry<K, V>[] table;
 	
 	/** number of structural modifications made to this HashMap */
 	private int modCount;
@@ -124,6 +137,33 @@ public class HashMap implements Map
 	}
 	
 	
+	/**
+	 *	create a new, empty HashMap that can hold the specified number of items
+	 *	without being resized:
+	 *		1)	the default set of prime table sizes is used
+	 *		2)	uses DefaultHashFunction for computing hashes
+	 *		3)	default load factor is used
+	 *
+	 *	@param expectedSize - the number of items expected to be added
+	 */
+	public HashMap(int expectedSize)
+	{
+		// set load factor to default
+		loadFactor = DEFAULT_LOAD_FACTOR;
+		
+		// skip table sizes too small for expectedSize items
+		int i = 0;
+		while (i < tableSizes.length - 1 && expectedSize + 1 >= (int)(loadFactor * tableSizes[i]))
+			i++;
+		
+		// create the table at that size
+		resetTable(tableSizes[i]);
+		
+		// set hashing function to default
+		hashFunction = new DefaultHashFunction();
+	}
+	
+	
 	/**
 	 *	create a new, empty HashMap:
 	 *		1)	the specified set of prime table sizes is used
@@ -154,57 +194,85 @@ public class HashMap implements Map
 	 *	methods
 	 *********/
 	
+	/**
+	 *	replace the table with an empty table of the specified size
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private void resetTable(int size)
+	{
+		// create the table
+		table = (HashMapEntry<K, V>[])new HashMapEntry[size];
+		
+		// recompute threshold
+		threshold = (int)(loadFactor * size);
+	}
+	
+	
+	/**
+	 *	return the spread hash of the specified key
+	 *
+	 *	the high bits of the hash value are folded into the low bits, so that
+	 *	hash values differing only in their high bits still land in different
+	 *	table cells; the result is guaranteed to be >= 0
+	 */
+	private int hash(Object key)
+	{
+		int h = hashFunction.hashValue(key);
+		
+		return (h ^ (h >>> 16)) & 0x7FFFFFFF;
+	}
+	
+	
 	/**
 	 *	resize this HashMap, and compute new indices for all items
+	 *
+	 *	the existing entries are moved into the new table as they are, using
+	 *	the hash value cached in each of them
 	 */
 	private void rehash()
 	{
 		// index for table
 		int index;
 		
-		// storage for rehashed entries
-		HashMapEntry newEntry;
+		// next entry in the old chain
+		HashMapEntry<K, V> next;
 		
 		// determine new table size
-		int newSize;
 		int i = 1;
 		
 		// skip sizes already used
-		while ((newSize = tableSizes[i]) <= table.length)
+		while (i < tableSizes.length && tableSizes[i] <= table.length)
 			i++;
 		
-		if (i > tableSizes.length)
+		if (i >= tableSizes.length)
 		{
 			// storage capacity exceeded
 			throw new CapacityExceededException("Capacity of hashtable has been exceeded!");
 		}
 		
 		// store old table
-		HashMapEntry[] oldTable = table;
+		HashMapEntry<K, V>[] oldTable = table;
 		
 		// create new table
-		table = new HashMapEntry[newSize];
+		resetTable(tableSizes[i]);
 		
-		// rehash and copy items into new table
+		// relink every entry into the new table
 		for (i = 0; i < oldTable.length; i++)
 		{
-			for (HashMapEntry he = oldTable[i]; he != null; he = he.nextEntry)
+			for (HashMapEntry<K, V> he = oldTable[i]; he != null; he = next)
 			{
+				// remember the rest of the old chain before relinking he
+				next = he.nextEntry;
+				
 				// compute new index
 				index = he.hashValue % table.length;
 				
-				// create new HashMapEntry object - using 'he' won't work
-				newEntry = new HashMapEntry(he.key, he.value, he.hashValue);
-				
 				// add to chain
-				newEntry.nextEntry = table[index];
-				table[index] = newEntry;
+				he.nextEntry = table[index];
+				table[index] = he;
 			}
 		}
 		
-		// recompute threshold
-		threshold = (int)(loadFactor * newSize);
-		
 		// indicate a modification has been made
 		modCount++;
 	}
@@ -224,20 +292,23 @@ public class HashMap implements Map
 	 *
 	 *	returns true if the add was successful, false otherwise
 	 */
-	public boolean add(Object key, Object value)
+	public boolean add(K key, V value)
 	{
 		// rehash, if necessary
 		if (theSize + 1 >= threshold)
 			rehash();
 		
 		// get the hash value for the key
-		int hash = hashFunction.hashValue(key);
+		int hash = hash(key);
 		
 		// determine the table index
 		int index = hash % table.length;
+		
+		// length of the chain at index
+		int chainLength = 0;
 
 		// first determine if key has already been mapped to existing item
-		for (HashMapEntry he = table[index]; he != null; he = he.nextEntry)
+		for (HashMapEntry<K, V> he = table[index]; he != null; he = he.nextEntry)
 		{
 			if (he.hashValue == hash && he.key.equals(key))
 			{
@@ -247,10 +318,20 @@ public class HashMap implements Map
 				// replacement successful
 				return true;
 			}
+			
+			chainLength++;
+		}
+		
+		if (chainLength >= MAX_CHAIN_LENGTH && table.length < MAX_CELLS_PER_ITEM * theSize
+			&& table.length < tableSizes[tableSizes.length - 1])
+		{
+			// chain is too long; grow the table early to split it up
+			rehash();
+			index = hash % table.length;
 		}
 		
 		// key is not mapped to existing item; create new entry
-		HashMapEntry newEntry = new HashMapEntry(key, value, hash);
+		HashMapEntry<K, V> newEntry = new HashMapEntry<K, V>(key, value, hash);
 			
 		// add new entry to chain
 		newEntry.nextEntry = table[index];
@@ -279,21 +360,21 @@ public class HashMap implements Map
 	public boolean remove(Object key)
 	{
 		// stores previous entry in chain
-		HashMapEntry previous = null;
+		HashMapEntry<K, V> previous = null;
 		
 		// get the hash value for the key
-		int hash = hashFunction.hashValue(key);
+		int hash = hash(key);
 		
 		// determine table index
 		int index = hash % table.length;
 
 		// get the table entry
-		HashMapEntry he = table[index];
+		HashMapEntry<K, V> he = table[index];
 		
 		// check for entry with specified key
 		while (he != null)
 		{
-			if (he.key.equals(key) && he.hashValue == hash)
+			if (he.hashValue == hash && he.key.equals(key))
 			{
 				// item found
 				if (previous == null)
@@ -333,15 +414,12 @@ public class HashMap implements Map
 	 */
 	public void clear()
 	{
-		// reset table of items
-		table = new HashMapEntry[tableSizes[0]];
+		// reset table of items and threshold
+		resetTable(tableSizes[0]);
 		
-		// rset size to 0
+		// reset size to 0
 		theSize = 0;
 		
-		// reset threshold
-		threshold = (int)(loadFactor * tableSizes[0]);
-		
 		// emptying counts as a modification
 		modCount++;
 	}
@@ -370,18 +448,18 @@ public class HashMap implements Map
 	 *	return the item from this HashMap that is associated with the specified
 	 *	key
 	 */
-	public Object get(Object key)
+	public V get(Object key)
 	{
 		// get the hash value for the key
-		int hash = hashFunction.hashValue(key);
+		int hash = hash(key);
 		
 		// determine the table index
 		int index = hash % table.length;
 
 		// check for entry with specified key
-		for (HashMapEntry he = table[index]; he != null; he = he.nextEntry)
+		for (HashMapEntry<K, V> he = table[index]; he != null; he = he.nextEntry)
 		{
-			if (he.key.equals(key) && he.hashValue == hash)
+			if (he.hashValue == hash && he.key.equals(key))
 			{
 				// entry found
 				return he.value;
@@ -401,15 +479,15 @@ public class HashMap implements Map
 	public boolean containsKey(Object key)
 	{
 		// get the hash value for the key
-		int hash = hashFunction.hashValue(key);
+		int hash = hash(key);
 		
 		// determine table index
 		int index = hash % table.length;
 		
 		// check for entry with specified key
-		for (HashMapEntry he = table[index]; he != null; he = he.nextEntry)
+		for (HashMapEntry<K, V> he = table[index]; he != null; he = he.nextEntry)
 		{
-			if (he.key.equals(key) && he.hashValue == hash)
+			if (he.hashValue == hash && he.key.equals(key))
 			{
 				// key exists in this HashMap
 				return true;
@@ -431,7 +509,7 @@ public class HashMap implements Map
 		// check for entry with specified value
 		for (int i = 0; i < table.length; i++)
 		{
-			for (HashMapEntry he = table[i]; he != null; he = he.nextEntry)
+			for (HashMapEntry<K, V> he = table[i]; he != null; he = he.nextEntry)
 			{
 				if (he.value.equals(value))
 				{
@@ -459,7 +537,7 @@ public class HashMap implements Map
 		// add keys to list
 		for (int i = 0; i < table.length; i++)
 		{
-			for (HashMapEntry he = table[i]; he != null; he = he.nextEntry)
+			for (HashMapEntry<K, V> he = table[i]; he != null; he = he.nextEntry)
 			{
 				keys.add(he.key);
 			}
@@ -482,7 +560,7 @@ public class HashMap implements Map
 		// add values to list
 		for (int i = 0; i < table.length; i++)
 		{
-			for (HashMapEntry he = table[i]; he != null; he = he.nextEntry)
+			for (HashMapEntry<K, V> he = table[i]; he != null; he = he.nextEntry)
 			{
 				values.add(he.value);
 			}
@@ -535,7 +613,7 @@ public class HashMap implements Map
 		{
 			result += i + ": ";
 			
-			for (HashMapEntry he = table[i]; he != null; he = he.nextEntry)
+			for (HashMapEntry<K, V> he = table[i]; he != null; he = he.nextEntry)
 			{
 				if (he.nextEntry == null)
 					result += he.value.toString();
@@ -569,7 +647,7 @@ public class HashMap implements Map
 		int currentIndex;
 		
 		/** current table entry */
-		HashMapEntry current;
+		HashMapEntry<K, V> current;
 		
 		/** number of structural modifications of which this Iterator is aware */
 		int expectedModCount;
@@ -689,11 +767,11 @@ public class HashMap implements Map
 	
 	
 	/**
-	 *	inner class HashMapEntry
+	 *	nested class HashMapEntry
 	 *
 	 *	implementation of a single entry in a hashtable
 	 */
-	protected class HashMapEntry
+	protected static class HashMapEntry<K, V>
 	{
 		
 		/*************
@@ -701,16 +779,16 @@ public class HashMap implements Map
 		 ************/
 		
 		/** key mapped to data item */
-		Object key;
+		K key;
 		
 		/** the data item */
-		Object value;
+		V value;
 		
-		/** hashcode for key */
+		/** spread hashcode for key */
 		int hashValue;
 		
 		/** link to next HashMapEntry in chain (in case of collision) */
-		HashMapEntry nextEntry;
+		HashMapEntry<K, V> nextEntry;
 		
 		
 		/***************
@@ -724,7 +802,7 @@ public class HashMap implements Map
 		 *	@param itemValue - the data item being stored
 		 *	@param hash - hashcode for key
 		 */
-		HashMapEntry(Object itemKey, Object itemValue, int hash)
+		HashMapEntry(K itemKey, V itemValue, int hash)
 		{
 			key = itemKey;
 			value = itemValue;
@@ -748,7 +826,7 @@ public class HashMap implements Map
 				return false;
 			
 			// create new HashMapEntry
-			HashMapEntry he = (HashMapEntry)o;
+			HashMapEntry<?, ?> he = (HashMapEntry<?, ?>)o;
 			
 			// 2 HashMapEntry objects are equal iff keys of both entries are
 			// equal AND values of both entries are equal
@@ -0,0 +1,21 @@
+package dataStructures;
+
+/**
+ *	Heuristic interface
+ *
+ *	Encapsulates an estimate of the cost of the cheapest path between two items
+ *	of a graph, used to guide an A* search toward its destination.
+ *
+ *	For the search to find the shortest path the estimate must be admissible:
+ *	it must never exceed the real cost of the cheapest path.
+ */
+public interface Heuristic
+{
+
+	/**
+	 *	return an estimate of the cost of the cheapest path from the specified
+	 *	item to the specified destination item
+	 */
+	public double estimate(Object item, Object destination);
+
+}
@@ -0,0 +1,316 @@
+package dataStructures;
+
+import java.util.Arrays;
+
+/**
+ *	class IndexedMinHeap
+ *
+ *	Implementation of a d-ary min heap of integer ids, each with a double
+ *	priority.
+ *
+ *	The ids are 0 to capacity - 1, and the heap remembers where each id is, so
+ *	that the priority of an id already in the heap can be lowered in place
+ *	(decreaseKey) instead of adding a second entry for it.  Everything is held
+ *	in primitive arrays allocated once, so adding, removing and decreasing
+ *	never create objects.
+ *
+ *	Each node has arity children rather than 2; a wider heap is shallower,
+ *	which makes decreaseKey cheaper at a small cost to removeMin.
+ */
+public class IndexedMinHeap
+{
+
+	/************
+	 *	constants
+	 ***********/
+
+	/** default number of children per node */
+	public static final int DEFAULT_ARITY = 4;
+
+	/** position of an id that is not in the heap */
+	private static final int ABSENT = -1;
+
+
+	/*************
+	 *	attributes
+	 ************/
+
+	/** number of children per node */
+	private final int arity;
+
+	/** the ids in heap order; heap[0] has the lowest priority */
+	private final int[] heap;
+
+	/** position of each id in heap, or ABSENT */
+	private final int[] position;
+
+	/** priority of each id in the heap */
+	private final double[] priority;
+
+	/** number of ids currently in this IndexedMinHeap */
+	private int theSize;
+
+
+	/***************
+	 *	constructors
+	 **************/
+
+	/**
+	 *	create a new, empty IndexedMinHeap for the ids 0 to capacity - 1 with
+	 *	the default arity
+	 *
+	 *	@param capacity - the number of ids
+	 */
+	public IndexedMinHeap(int capacity)
+	{
+		this(capacity, DEFAULT_ARITY);
+	}
+
+
+	/**
+	 *	create a new, empty IndexedMinHeap for the ids 0 to capacity - 1 with
+	 *	the specified number of children per node
+	 *
+	 *	@param capacity - the number of ids
+	 *	@param arity - the number of children per node, at least 2
+	 */
+	public IndexedMinHeap(int capacity, int arity)
+	{
+		if (capacity < 0)
+			throw new IllegalArgumentException("Capacity cannot be negative!");
+		if (arity < 2)
+			throw new IllegalArgumentException("Arity must be at least 2!");
+
+		this.arity = arity;
+		heap = new int[capacity];
+		position = new int[capacity];
+		priority = new double[capacity];
+		Arrays.fill(position, ABSENT);
+		theSize = 0;
+	}
+
+
+	/**********
+	 *	methods
+	 *********/
+
+	/**
+	 *	add the specified id with the specified priority
+	 *
+	 *	throws IllegalArgumentException if id is already in the heap
+	 */
+	public void add(int id, double newPriority)
+	{
+		if (contains(id))
+			throw new IllegalArgumentException("Id " + id + " is already in the heap!");
+
+		priority[id] = newPriority;
+		heap[theSize] = id;
+		position[id] = theSize;
+		theSize++;
+		siftUp(theSize - 1);
+	}
+
+
+	/**
+	 *	lower the priority of the specified id, which must be in the heap
+	 *
+	 *	throws NoSuchElementException if id is not in the heap
+	 *	throws IllegalArgumentException if newPriority is higher than the
+	 *	current priority
+	 */
+	public void decreaseKey(int id, double newPriority)
+	{
+		if (!contains(id))
+			throw new NoSuchElementException();
+		if (newPriority > priority[id])
+			throw new IllegalArgumentException("decreaseKey cannot raise a priority!");
+
+		priority[id] = newPriority;
+		siftUp(position[id]);
+	}
+
+
+	/**
+	 *	add the specified id, or lower its priority if it is already in the heap
+	 *	with a higher one
+	 *
+	 *	returns true if the heap was changed
+	 */
+	public boolean addOrDecrease(int id, double newPriority)
+	{
+		if (!contains(id))
+		{
+			add(id, newPriority);
+			return true;
+		}
+		if (newPriority < priority[id])
+		{
+			decreaseKey(id, newPriority);
+			return true;
+		}
+		return false;
+	}
+
+
+	/**
+	 *	remove and return the id with the lowest priority
+	 *
+	 *	throws UnderflowException if the heap is empty
+	 */
+	public int removeMin()
+	{
+		if (theSize == 0)
+			throw new UnderflowException("Heap is empty!");
+
+		int min = heap[0];
+		position[min] = ABSENT;
+		theSize--;
+
+		if (theSize > 0)
+		{
+			// move the last id to the root and restore heap order
+			heap[0] = heap[theSize];
+			position[heap[0]] = 0;
+			siftDown(0);
+		}
+
+		return min;
+	}
+
+
+	/**
+	 *	return the id with the lowest priority without removing it
+	 *
+	 *	throws UnderflowException if the heap is empty
+	 */
+	public int getMin()
+	{
+		if (theSize == 0)
+			throw new UnderflowException("Heap is empty!");
+
+		return heap[0];
+	}
+
+
+	/**
+	 *	return the priority of the specified id, which must be in the heap
+	 */
+	public double getPriority(int id)
+	{
+		if (!contains(id))
+			throw new NoSuchElementException();
+
+		return priority[id];
+	}
+
+
+	/**
+	 *	return whether the specified id is in the heap
+	 */
+	public boolean contains(int id)
+	{
+		return position[id] != ABSENT;
+	}
+
+
+	/**
+	 *	return the number of ids in the heap
+	 */
+	public int size()
+	{
+		return theSize;
+	}
+
+
+	/**
+	 *	return true if the heap contains 0 ids, false otherwise
+	 */
+	public boolean isEmpty()
+	{
+		return theSize == 0;
+	}
+
+
+	/**
+	 *	return the number of ids this heap was created for
+	 */
+	public int capacity()
+	{
+		return position.length;
+	}
+
+
+	/**
+	 *	empty the heap; only the ids still in it are touched
+	 */
+	public void clear()
+	{
+		for (int i = 0; i < theSize; i++)
+			position[heap[i]] = ABSENT;
+
+		theSize = 0;
+	}
+
+
+	/**
+	 *	internal method for moving the id at the specified heap position up
+	 *	until its parent has a lower or equal priority
+	 */
+	private void siftUp(int hole)
+	{
+		int id = heap[hole];
+		double p = priority[id];
+
+		while (hole > 0)
+		{
+			int parent = (hole - 1) / arity;
+			if (priority[heap[parent]] <= p)
+				break;
+
+			// move parent down into the hole
+			heap[hole] = heap[parent];
+			position[heap[hole]] = hole;
+			hole = parent;
+		}
+
+		heap[hole] = id;
+		position[id] = hole;
+	}
+
+
+	/**
+	 *	internal method for moving the id at the specified heap position down
+	 *	until none of its children has a lower priority
+	 */
+	private void siftDown(int hole)
+	{
+		int id = heap[hole];
+		double p = priority[id];
+
+		while (true)
+		{
+			int first = hole * arity + 1;
+			if (first >= theSize)
+				break;
+
+			// find the child with the lowest priority
+			int last = Math.min(first + arity, theSize);
+			int child = first;
+			for (int c = first + 1; c < last; c++)
+				if (priority[heap[c]] < priority[heap[child]])
+					child = c;
+
+			if (priority[heap[child]] >= p)
+				break;
+
+			// move child up into the hole
+			heap[hole] = heap[child];
+			position[heap[hole]] = hole;
+			hole = child;
+		}
+
+		heap[hole] = id;
+		position[id] = hole;
+	}
+}
@@ -0,0 +1,523 @@
+package dataStructures;
+
+/**
+ *	class IntHashMap
+ *
+ *	Implementation of a hash table whose keys are primitive ints.
+ *
+ *	Duplicate keys are not maintained - if an attempt is made to add a duplicate
+ *	key, the existing item with that key is replaced with the new item.
+ *
+ *	Unlike HashMap, this IntHashMap uses open addressing with linear probing.
+ *	Keys and items are kept in two parallel arrays whose length is a power of
+ *	2, so no entry objects are created, keys are never boxed, and a lookup
+ *	reads neighbouring table cells instead of following a chain.  Removal
+ *	shifts the following entries back rather than leaving markers behind.
+ *
+ *	A table cell is empty when its item is null, so null items cannot be
+ *	stored.
+ */
+public class IntHashMap
+{
+	
+	/************
+	 *	constants
+	 ***********/
+	
+	/** load factor that determines when this IntHashMap is resized */
+	private static final double LOAD_FACTOR = 0.75;
+	
+	/** smallest table size */
+	private static final int MIN_CAPACITY = 16;
+	
+	/** largest table size */
+	private static final int MAX_CAPACITY = 1 << 30;
+	
+	
+	/*************
+	 *	attributes
+	 ************/
+	
+	/** number of items currently in this IntHashMap */
+	private int theSize;
+	
+	/** threshold capacity for resizing this IntHashMap */
+	private int threshold;
+	
+	/** table size - 1, for wrapping table indices */
+	private int mask;
+	
+	/** number of bits to drop from a mixed key to get its table index */
+	private int shift;
+	
+	/** the table of keys */
+	private int[] keys;
+	
+	/** the table of items; null marks an empty cell */
+	private Object[] values;
+	
+	/** number of structural modifications made to this IntHashMap */
+	private int modCount;
+	
+	
+	/***************
+	 *	constructors
+	 **************/
+	
+	/**
+	 *	create a new, empty IntHashMap of the minimum capacity
+	 */
+	public IntHashMap()
+	{
+		// allocate the smallest table
+		allocate(MIN_CAPACITY);
+	}
+	
+	
+	/**
+	 *	create a new, empty IntHashMap that can hold the specified number of
+	 *	items without being resized
+	 *
+	 *	@param expectedSize - the number of items expected to be added
+	 */
+	public IntHashMap(int expectedSize)
+	{
+		if (expectedSize < 0)
+			throw new IllegalArgumentException("Expected size cannot be negative!");
+		
+		// allocate a table large enough for expectedSize items
+		allocate(tableSizeFor(expectedSize));
+	}
+	
+	
+	/**********
+	 *	methods
+	 *********/
+	
+	/**
+	 *	return the smallest table size that holds the specified number of items
+	 *	without exceeding the load factor
+	 */
+	private static int tableSizeFor(int expectedSize)
+	{
+		// number of cells needed
+		long needed = (long)Math.ceil(expectedSize / LOAD_FACTOR) + 1;
+		
+		if (needed > MAX_CAPACITY)
+		{
+			// storage capacity exceeded
+			throw new CapacityExceededException("Capacity of hashtable has been exceeded!");
+		}
+		
+		// find the first power of 2 that is large enough
+		int size = MIN_CAPACITY;
+		while (size < needed)
+			size <<= 1;
+		
+		return size;
+	}
+	
+	
+	/**
+	 *	replace the tables with empty tables of the specified size, which must
+	 *	be a power of 2
+	 */
+	private void allocate(int size)
+	{
+		keys = new int[size];
+		values = new Object[size];
+		mask = size - 1;
+		shift = 32 - Integer.numberOfTrailingZeros(size);
+		threshold = (int)(LOAD_FACTOR * size);
+	}
+	
+	
+	/**
+	 *	return the home table index of the specified key
+	 *
+	 *	the key is multiplied by a constant derived from the golden ratio and
+	 *	the top bits are used, so that consecutive keys are spread out
+	 */
+	private int indexFor(int key)
+	{
+		return (key * 0x9E3779B9) >>> shift;
+	}
+	
+	
+	/**
+	 *	return the table index holding the specified key, or -1 if the key has
+	 *	not been mapped to an item
+	 */
+	private int find(int key)
+	{
+		for (int i = indexFor(key); values[i] != null; i = (i + 1) & mask)
+		{
+			if (keys[i] == key)
+				return i;
+		}
+		
+		// reached an empty cell; key not in table
+		return -1;
+	}
+	
+	
+	/**
+	 *	double the size of this IntHashMap, and compute new indices for all items
+	 */
+	private void rehash()
+	{
+		if (keys.length == MAX_CAPACITY)
+		{
+			// storage capacity exceeded
+			throw new CapacityExceededException("Capacity of hashtable has been exceeded!");
+		}
+		
+		// store old tables
+		int[] oldKeys = keys;
+		Object[] oldValues = values;
+		
+		// create new tables
+		allocate(oldKeys.length * 2);
+		
+		// copy items into the first free cell from their new home index
+		for (int i = 0; i < oldKeys.length; i++)
+		{
+			if (oldValues[i] != null)
+			{
+				int index = indexFor(oldKeys[i]);
+				while (values[index] != null)
+					index = (index + 1) & mask;
+				
+				keys[index] = oldKeys[i];
+				values[index] = oldValues[i];
+			}
+		}
+		
+		// indicate a modification has been made
+		modCount++;
+	}
+	
+	
+	/**
+	 *	add the specified value to this IntHashMap, and associate it with the
+	 *	specified key
+	 *
+	 *	If the specified key has already been associated with an item in this
+	 *	IntHashMap, the value of the existing item is replaced with the
+	 *	specified value.
+	 *
+	 *	throws IllegalArgumentException if value is null
+	 *
+	 *	returns true if the add was successful, false otherwise
+	 */
+	public boolean add(int key, Object value)
+	{
+		if (value == null)
+			throw new IllegalArgumentException("IntHashMap cannot store null items!");
+		
+		// probe from the key's home index
+		int index = indexFor(key);
+		while (values[index] != null)
+		{
+			if (keys[index] == key)
+			{
+				// key has already been mapped; replace existing item
+				values[index] = value;
+				
+				// replacement successful
+				return true;
+			}
+			
+			index = (index + 1) & mask;
+		}
+		
+		// key is not mapped to existing item; store it in the empty cell
+		keys[index] = key;
+		values[index] = value;
+		
+		// add 1 to the size of this IntHashMap
+		theSize++;
+		
+		// indicate a modification has been made
+		modCount++;
+		
+		// rehash, if necessary
+		if (theSize > threshold)
+			rehash();
+		
+		// add successful
+		return true;
+	}
+	
+	
+	/**
+	 *	remove entry from this IntHashMap that corresponds to the specified key
+	 *
+	 *	returns true if the remove was successful
+	 *	returns false if key has not been mapped to an existing item
+	 */
+	public boolean remove(int key)
+	{
+		// find the cell holding key
+		int hole = find(key);
+		
+		if (hole < 0)
+		{
+			// key not mapped to existing item
+			return false;
+		}
+		
+		// move back every following entry whose probe passed through the hole,
+		// so that lookups never stop early at the emptied cell
+		for (int i = (hole + 1) & mask; values[i] != null; i = (i + 1) & mask)
+		{
+			// distance of entry i from its home index
+			int displacement = (i - indexFor(keys[i])) & mask;
+			
+			if (displacement >= ((i - hole) & mask))
+			{
+				keys[hole] = keys[i];
+				values[hole] = values[i];
+				hole = i;
+			}
+		}
+		
+		// empty the last cell moved from
+		values[hole] = null;
+		
+		// subtract 1 from size of this IntHashMap
+		theSize--;
+		
+		// indicate a modification has been made
+		modCount++;
+		
+		// remove successful
+		return true;
+	}
+	
+	
+	/**
+	 *	empty this IntHashMap
+	 *	the table keeps its current size, so a cleared IntHashMap can be refilled
+	 *	without being resized again
+	 */
+	public void clear()
+	{
+		// empty every cell
+		for (int i = 0; i < values.length; i++)
+			values[i] = null;
+		
+		// reset size to 0
+		theSize = 0;
+		
+		// emptying counts as a modification
+		modCount++;
+	}
+	
+	
+	/**
+	 *	return the number of items in the IntHashMap
+	 */
+	public int size()
+	{
+		return theSize;
+	}
+	
+	
+	/**
+	 *	return true if this IntHashMap contains 0 items, or false if the
+	 *	IntHashMap contains at least 1 item
+	 */
+	public boolean isEmpty()
+	{
+		return theSize == 0;
+	}
+	
+	
+	/**
+	 *	return the item from this IntHashMap that is associated with the
+	 *	specified key, or null if there is none
+	 */
+	public Object get(int key)
+	{
+		int index = find(key);
+		
+		return index < 0 ? null : values[index];
+	}
+	
+	
+	/**
+	 *	return whether this IntHashMap contains the specified key
+	 *
+	 *	@param key - key to search for
+	 */
+	public boolean containsKey(int key)
+	{
+		return find(key) >= 0;
+	}
+	
+	
+	/**
+	 *	return whether this IntHashMap contains the specified value
+	 *
+	 *	@param value - value to search for
+	 */
+	public boolean containsValue(Object value)
+	{
+		// check for cell with specified value
+		for (int i = 0; i < values.length; i++)
+		{
+			if (values[i] != null && values[i].equals(value))
+			{
+				// value exists in this IntHashMap
+				return true;
+			}
+		}
+		
+		// value does not exist in this IntHashMap
+		return false;
+	}
+	
+	
+	/**
+	 *	return an IntHashMapIterator for this IntHashMap that begins at the first
+	 *	entry in the table
+	 */
+	public IntHashMapIterator iterator()
+	{
+		return new IntHashMapIterator();
+	}
+	
+	
+	/**************************************
+	 *	methods inherited from class Object
+	 *************************************/
+	
+	/**
+	 *	return a String representation of this IntHashMap
+	 */
+	public String toString()
+	{
+		StringBuilder result = new StringBuilder("{");
+		
+		for (int i = 0; i < values.length; i++)
+		{
+			if (values[i] != null)
+			{
+				if (result.length() > 1)
+					result.append(", ");
+				result.append(keys[i]).append('=').append(values[i]);
+			}
+		}
+		
+		return result.append('}').toString();
+	}
+	
+	
+	/**
+	 *	inner class IntHashMapIterator
+	 *
+	 *	Implementation of an iterator for an IntHashMap.
+	 *
+	 *	This class allows one-way traversal of the entries in an IntHashMap, and
+	 *	retrieval of each entry's key without boxing it, but does not provide a
+	 *	mechanism for adding or removing entries
+	 */
+	public class IntHashMapIterator implements Iterator
+	{
+		
+		/*************
+		 *	attributes
+		 ************/
+		
+		/** current table index; the table size once the traversal is over */
+		private int currentIndex;
+		
+		/** number of structural modifications of which this Iterator is aware */
+		private int expectedModCount;
+		
+		
+		/***************
+		 *	constructors
+		 **************/
+		
+		/**
+		 *	create a new IntHashMapIterator that begins at the first entry in the
+		 *	IntHashMap
+		 */
+		IntHashMapIterator()
+		{
+			// go to first cell with an entry, if it exists
+			currentIndex = -1;
+			advance();
+			
+			// sync mod counts of IntHashMap and this IntHashMapIterator
+			expectedModCount = modCount;
+		}
+		
+		
+		/**
+		 *	move currentIndex to the next cell with an entry
+		 */
+		private void advance()
+		{
+			while (++currentIndex < values.length && values[currentIndex] == null)
+				;
+		}
+		
+		
+		/**
+		 *	return the current key in the traversal
+		 *
+		 *	throws NoSuchElementException if at the end of the traversal
+		 */
+		public int getCurrentKey()
+		{
+			if (currentIndex >= values.length)
+				throw new NoSuchElementException();
+			
+			return keys[currentIndex];
+		}
+		
+		
+		/********************************************
+		 *	methods inherited from interface Iterator
+		 *******************************************/
+		
+		/**
+		 *	return the current item (value) in the traversal
+		 */
+		public Object getCurrent()
+		{
+			// return null if at end of traversal, otherwise return current item
+			return currentIndex >= values.length ? null : values[currentIndex];
+		}
+		
+		
+		/**
+		 *	return whether there is a next item to traverse
+		 *	return true if yes, false otherwise
+		 */
+		public boolean hasNext()
+		{
+			// check for concurrent modification
+			if (expectedModCount != modCount)
+				throw new ConcurrentModificationException();
+			
+			return currentIndex < values.length;
+		}
+		
+		
+		/**
+		 *	advance to the next item
+		 */
+		public void next()
+		{
+			// throw exception if no next item in traversal
+			if (!hasNext())
+				throw new NoSuchElementException();
+			
+			advance();
+		}
+	}
+}
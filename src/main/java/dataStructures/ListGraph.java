@@ -28,7 +28,22 @@ public class ListGraph implements Graph
 	 ************/
 	
 	/** HashMap for underlying storage of items */
-	private HashMap theItems;
+	private HashMap<Object, Vertex> theItems;
+	
+	/** the vertices by index, as numbered by resetVertices() or touch() */
+	private Vertex[] vertices;
+	
+	/** heap of vertex indices for Dijkstra's algorithm, kept between searches */
+	private IndexedMinHeap heap;
+	
+	/** heap for the backward half of bidirectional searches */
+	private IndexedMinHeap reverseHeap;
+	
+	/** number of the current search, for vertices reset by touch() */
+	private int searchNumber;
+	
+	/** number of vertices reached by the current search */
+	private int touched;
 	
 	
 	/***************
@@ -54,7 +69,7 @@ public class ListGraph implements Graph
 	private Vertex getOrCreateVertex(Object obj)
 	{
 		// retrieve Vertex, if it exists
-		Vertex v = (Vertex)theItems.get(obj);
+		Vertex v = theItems.get(obj);
 		
 		if (v == null)
 		{
@@ -79,7 +94,7 @@ public class ListGraph implements Graph
 	private Vertex getVertex(Object obj)
 	{
 		// retrieve Vertex, if it exists
-		return (Vertex)theItems.get(obj);
+		return theItems.get(obj);
 	}
 	
 	
@@ -109,6 +124,9 @@ public class ListGraph implements Graph
 		// add new Edge to origin's adjacency list
 		o.addDestination(new Edge(d, cost));
 		
+		// record the Edge in destination's incoming list
+		d.addSource(new Edge(o, cost));
+		
 		// edge added successfully
 		return true;
 	}
@@ -139,9 +157,11 @@ public class ListGraph implements Graph
 		
 		// add new Edge to origin's adjacency list
 		o.addDestination(new Edge(d, cost));
+		d.addSource(new Edge(o, cost));
 		
 		// add new Edge to destination's adjacency list
 		d.addDestination(new Edge(o, cost));
+		o.addSource(new Edge(d, cost));
 	
 		// edges added sucessfully	
 		return true;
@@ -161,8 +181,8 @@ public class ListGraph implements Graph
 	public boolean removeEdge(Object origin, Object destination, double cost)
 	{
 		// retrieve the origin and destination vertices
-		Vertex o = (Vertex)theItems.get(origin);
-		Vertex d = (Vertex)theItems.get(destination);
+		Vertex o = theItems.get(origin);
+		Vertex d = theItems.get(destination);
 		
 		if (o == null || d == null)
 		{
@@ -170,8 +190,9 @@ public class ListGraph implements Graph
 			return false;
 		}
 		
-		// remove the Edge from the origin Vertex
-		return o.removeDestination(new Edge(d, cost));
+		// remove the Edge from the origin Vertex, and its record from the
+		// destination Vertex
+		return o.removeDestination(new Edge(d, cost)) && d.removeSource(new Edge(o, cost));
 	}
 	
 	
@@ -183,8 +204,8 @@ public class ListGraph implements Graph
 	public boolean removeAllEdges(Object origin, Object destination)
 	{
 		// retrieve the origin and destination vertices
-		Vertex o = (Vertex)theItems.get(origin);
-		Vertex d = (Vertex)theItems.get(destination);
+		Vertex o = theItems.get(origin);
+		Vertex d = theItems.get(destination);
 		
 		if (o == null || d == null)
 		{
@@ -207,6 +228,21 @@ public class ListGraph implements Graph
 			}
 		}
 		
+		// remove their records from the destination
+		if (!d.incomingList.isEmpty())
+		{
+			for (ListIterator itr = d.incomingList.listIterator(0); itr.hasNext(); )
+			{
+				Edge e = (Edge)itr.getCurrent();
+			
+				// if Edge from origin exists remove it; otherwise advance
+				if (e.destination.equals(o))
+					itr.remove();
+				else
+					itr.next();
+			}
+		}
+		
 		// edges successfully removed
 		return true;
 	}
@@ -259,20 +295,158 @@ public class ListGraph implements Graph
 	}
 	 
 	 
+	/**
+	 *	Internal method for removing every Edge to or from the specified Vertex.
+	 */
+	private void detach(Vertex v)
+	{
+		// remove the edges into v, found through v's incoming list
+		while (!v.incomingList.isEmpty())
+			removeAllEdges(((Edge)v.incomingList.getFirst()).destination.theItem, v.theItem);
+		
+		// remove the edges out of v
+		while (!v.adjacencyList.isEmpty())
+			removeAllEdges(v.theItem, ((Edge)v.adjacencyList.getFirst()).destination.theItem);
+	}
+	
+	
 	/**
 	 *	Internal method for resetting all vertices prior to performing a
 	 *	shortest path computation.
 	 */
 	private void resetVertices()
 	{
+		// make room to number every Vertex
+		if (vertices == null || vertices.length < theItems.size())
+			vertices = new Vertex[theItems.size()];
+		
+		int index = 0;
 		for (Iterator itr = theItems.iterator(); itr.hasNext(); )
 		{
-			((Vertex)itr.getCurrent()).reset();
+			Vertex v = (Vertex)itr.getCurrent();
+			v.reset();
+			
+			// number v and record it by its number
+			v.index = index;
+			vertices[index++] = v;
+			
 			itr.next();
 		}
 	}
 	
 	
+	/**
+	 *	Internal method for starting a search that resets each Vertex only when
+	 *	touch() reaches it, so that a search which stops early never visits
+	 *	the rest of this ListGraph.
+	 */
+	private void beginSearch()
+	{
+		// make room to number every Vertex
+		if (vertices == null || vertices.length < theItems.size())
+			vertices = new Vertex[theItems.size()];
+		
+		if (searchNumber == Integer.MAX_VALUE)
+		{
+			// search numbers have run out, so start them again
+			for (Iterator itr = theItems.iterator(); itr.hasNext(); itr.next())
+				((Vertex)itr.getCurrent()).searchNumber = 0;
+			searchNumber = 0;
+		}
+		
+		searchNumber++;
+		touched = 0;
+	}
+	
+	
+	/**
+	 *	Internal method for preparing the specified Vertex for the current
+	 *	search: the first time the search reaches v, v is reset and numbered.
+	 *
+	 *	Returns v
+	 */
+	private Vertex touch(Vertex v)
+	{
+		if (v.searchNumber != searchNumber)
+		{
+			v.reset();
+			v.searchNumber = searchNumber;
+			
+			// number v and record it by its number
+			v.index = touched;
+			vertices[touched++] = v;
+		}
+		
+		return v;
+	}
+	
+	
+	/**
+	 *	Internal method for emptying the specified heap for reuse, or creating
+	 *	a new one if it is missing or too small for this ListGraph.
+	 */
+	private IndexedMinHeap emptyHeap(IndexedMinHeap h)
+	{
+		if (h == null || h.capacity() < theItems.size())
+			return new IndexedMinHeap(theItems.size());
+		
+		h.clear();
+		return h;
+	}
+	
+	
+	/**
+	 *	Return a CSRGraph with the same items and edges as this ListGraph.
+	 *
+	 *	The CSRGraph's vertices are numbered in the order this ListGraph's
+	 *	items are stored, and each vertex's edges keep their order; use
+	 *	CSRGraph.indexOf to find an item's vertex.
+	 */
+	public CSRGraph toCSRGraph()
+	{
+		// items of the CSRGraph's vertices
+		Object[] items = new Object[theItems.size()];
+		
+		// number each Vertex through its scratch field, and count the edges
+		int index = 0;
+		int edges = 0;
+		for (Iterator itr = theItems.iterator(); itr.hasNext(); itr.next())
+		{
+			Vertex v = (Vertex)itr.getCurrent();
+			v.scratch = index;
+			items[index++] = v.theItem;
+			edges += v.adjacencyList.size();
+		}
+		
+		// copy each Vertex's adjacency list into consecutive edges
+		int[] offsets = new int[items.length + 1];
+		int[] targets = new int[edges];
+		double[] costs = new double[edges];
+		index = 0;
+		edges = 0;
+		for (Iterator itr = theItems.iterator(); itr.hasNext(); itr.next())
+		{
+			Vertex v = (Vertex)itr.getCurrent();
+			offsets[index++] = edges;
+			if (!v.adjacencyList.isEmpty())
+			{
+				for (Iterator e = v.adjacencyList.iterator(); e.hasNext(); e.next())
+				{
+					Edge edge = (Edge)e.getCurrent();
+					targets[edges] = edge.destination.scratch;
+					costs[edges++] = edge.cost;
+				}
+			}
+		}
+		offsets[index] = edges;
+		
+		// leave the vertices in their default state
+		resetVertices();
+		
+		return new CSRGraph(offsets, targets, costs, items);
+	}
+	
+	
 	/**
 	 *	Return the unweighted shortest path from the specified origin to the
 	 *	specified destination.
@@ -283,10 +457,10 @@ public class ListGraph implements Graph
 		LinkedList path = new LinkedList();
 		
 		// origin Vertex
-		Vertex orig = (Vertex)theItems.get(origin);
+		Vertex orig = theItems.get(origin);
 		
 		// destination Vertex
-		Vertex dest = (Vertex)theItems.get(destination);
+		Vertex dest = theItems.get(destination);
 		
 		// path cost
 		double cost;
@@ -325,10 +499,10 @@ public class ListGraph implements Graph
 		LinkedList path = new LinkedList();
 		
 		// origin Vertex
-		Vertex orig = (Vertex)theItems.get(origin);
+		Vertex orig = theItems.get(origin);
 		
 		// destination Vertex
-		Vertex dest = (Vertex)theItems.get(destination);
+		Vertex dest = theItems.get(destination);
 		
 		// path cost
 		double cost;
@@ -367,10 +541,10 @@ public class ListGraph implements Graph
 		LinkedList path = new LinkedList();
 		
 		// origin Vertex
-		Vertex orig = (Vertex)theItems.get(origin);
+		Vertex orig = theItems.get(origin);
 		
 		// destination Vertex
-		Vertex dest = (Vertex)theItems.get(destination);
+		Vertex dest = theItems.get(destination);
 		
 		// path cost
 		double cost;
@@ -396,6 +570,111 @@ public class ListGraph implements Graph
 	}
 	
 	
+	/**
+	 *	For a graph containing only non-negative Edge costs, return the weighted
+	 *	shortest path from the specified origin to the specified destination,
+	 *	found with the A* algorithm.
+	 *
+	 *	The heuristic steers the search toward the destination, and the search
+	 *	stops as soon as the destination is reached, so usually only part of
+	 *	this ListGraph is visited.  The path is the shortest one as long as the
+	 *	heuristic never overestimates the cost of reaching the destination.
+	 */
+	public ShortestPath aStarShortestPath(Object origin, Object destination, Heuristic heuristic)
+	{
+		// origin Vertex
+		Vertex orig = theItems.get(origin);
+		
+		// destination Vertex
+		Vertex dest = theItems.get(destination);
+		
+		if (orig == null || dest == null)
+			throw new NoSuchElementException();
+		
+		// compute shortest path
+		computeAStarShortestPath(orig, dest, heuristic);
+		
+		// return shortest path as a ShortestPath instance
+		return buildPath(dest, dest);
+	}
+	
+	
+	/**
+	 *	Return the unweighted shortest path from the specified origin to the
+	 *	specified destination, found by searching forward from the origin and
+	 *	backward from the destination until the two searches meet.
+	 */
+	public ShortestPath bidirectionalShortestPath(Object origin, Object destination)
+	{
+		// origin Vertex
+		Vertex orig = theItems.get(origin);
+		
+		// destination Vertex
+		Vertex dest = theItems.get(destination);
+		
+		if (orig == null || dest == null)
+			throw new NoSuchElementException();
+		
+		// compute shortest path and return it as a ShortestPath instance
+		return buildPath(computeBidirectionalShortestPath(orig, dest), dest);
+	}
+	
+	
+	/**
+	 *	For a graph containing only non-negative Edge costs, return the weighted
+	 *	shortest path from the specified origin to the specified destination,
+	 *	found by running Dijkstra's algorithm forward from the origin and
+	 *	backward from the destination until the two searches meet.
+	 */
+	public ShortestPath bidirectionalWeightedShortestPath(Object origin, Object destination)
+	{
+		// origin Vertex
+		Vertex orig = theItems.get(origin);
+		
+		// destination Vertex
+		Vertex dest = theItems.get(destination);
+		
+		if (orig == null || dest == null)
+			throw new NoSuchElementException();
+		
+		// compute shortest path and return it as a ShortestPath instance
+		return buildPath(computeBidirectionalWeightedShortestPath(orig, dest), dest);
+	}
+	
+	
+	/**
+	 *	Internal method for building the ShortestPath found by a search that
+	 *	resets vertices with touch().
+	 *
+	 *	@param meet - the Vertex where the path was found: the path follows
+	 *		previousVertex back from meet to the origin, and nextVertex on from
+	 *		meet to the destination; null if there is no path
+	 *	@param dest - the destination Vertex
+	 */
+	private ShortestPath buildPath(Vertex meet, Vertex dest)
+	{
+		// the shortest path from origin to destination
+		LinkedList path = new LinkedList();
+		
+		if (meet == null)
+		{
+			// destination cannot be reached
+			path.add(dest.theItem);
+			return new ShortestPath(path, INFINITY);
+		}
+		
+		// store shortest path from origin to meet
+		for (Vertex v = meet; v != null; v = v.previousVertex)
+			path.addFirst(v.theItem);
+		
+		// store shortest path from meet to destination
+		for (Vertex v = meet.nextVertex; v != null; v = v.nextVertex)
+			path.addLast(v.theItem);
+		
+		return new ShortestPath(path, meet.distance + meet.reverseDistance);
+	}
+	
+	
 	/**
 	 *	For an acyclic graph, perform a topological sort and return the shortest
 	 *	weighted path from the origin to the destination, in List form.  The
@@ -409,10 +688,10 @@ public class ListGraph implements Graph
 		LinkedList path = new LinkedList();
 		
 		// origin Vertex
-		Vertex orig = (Vertex)theItems.get(origin);
+		Vertex orig = theItems.get(origin);
 		
 		// destination Vertex
-		Vertex dest = (Vertex)theItems.get(destination);
+		Vertex dest = theItems.get(destination);
 		
 		if (orig == null || dest == null)
 			throw new NoSuchElementException();
@@ -508,15 +787,6 @@ public class ListGraph implements Graph
 	 */
 	private void computeWeightedShortestPath(Vertex origin)
 	{
-		// priority queue to store paths that need to be visited
-		PriorityQueue pq = new PriorityQueue(PriorityQueue.PRIORITY_ASCENDING);
-		
-		// number of vertices visited
-		int visited;
-		
-		// current shortest path
-		Path shortestPath;
-		
 		// Vertex in current shortest path
 		Vertex v;
 		
@@ -529,41 +799,30 @@ public class ListGraph implements Graph
 		// cost of Edge from v to w
 		double vwCost;
 		
-		// reset shortest path info for vertices
+		// reset shortest path info for vertices, numbering them
 		resetVertices();
 		
-		// start with origin Vertex
-		pq.add(new Path(origin, 0.0));
+		// reuse the heap of vertices that need to be visited
+		heap = emptyHeap(heap);
 		
 		// distance from origin to itself is 0
 		origin.distance = 0.0;
-
-		// no vertices have been visited yet
-		visited = 0;
+		
+		// start with origin Vertex
+		heap.add(origin.index, 0.0);
 		
 		// find the shortest path
-		while (!pq.isEmpty() && visited < theItems.size())
+		while (!heap.isEmpty())
 		{
-			// retrieve and remove current path from priority queue
-			shortestPath = (Path)pq.get();
-			pq.remove();
-			
-			// retrieve destination Vertex of current Path
-			v = shortestPath.destination;
-			
-			if (v.scratch != 0)
-			{
-				// already processed v; get next Path from priority queue
-				continue;
-			}
+			// retrieve and remove the closest Vertex not yet visited
+			v = vertices[heap.removeMin()];
 			
 			// indicate Vertex v has been visited
 			v.scratch = 1;
 			
-			// increment total number of vertices visited
-			visited++;
-			
 			// search v's adjacent vertices
+			if (v.getAdjacentVertices().isEmpty())
+				continue;
 			for (Iterator itr = v.getAdjacentVertices().iterator(); itr.hasNext(); )
 			{
 				// retrieve current Edge
@@ -581,7 +840,7 @@ public class ListGraph implements Graph
 					throw new GraphException("Graph has negative edges");
 				}
 				
-				if (w.distance > v.distance + vwCost)
+				if (w.scratch == 0 && w.distance > v.distance + vwCost)
 				{
 					// new shortest path from v to w found
 					
@@ -591,8 +850,8 @@ public class ListGraph implements Graph
 					// update link to previous Vertex in shortest path
 					w.previousVertex = v;
 					
-					// add new shortest path to priority queue
-					pq.add(new Path(w, w.distance));
+					// queue w, or move it up the heap if already queued
+					heap.addOrDecrease(w.index, w.distance);
 				}
 				
 				// advance to next adjacent Vertex
@@ -602,6 +861,328 @@ public class ListGraph implements Graph
 	}
 	
 	
+	/**
+	 *	Internal method to compute the shortest weighted path from the specified
+	 *	origin Vertex to the specified destination Vertex.
+	 *
+	 *	This method uses the A* algorithm: vertices are visited in order of
+	 *	their distance from origin plus the heuristic's estimate of their
+	 *	distance to destination, and the search ends when destination is
+	 *	visited.  A Vertex that is reached again by a shorter path is visited
+	 *	again, so a heuristic that is admissible but not consistent still
+	 *	gives the shortest path.  Negative Edge costs are not permitted.
+	 *
+	 *	@param origin		first Vertex in shortest path; must be non-null
+	 *	@param destination	last Vertex in shortest path; must be non-null
+	 *	@param heuristic	estimate of the distance to destination
+	 */
+	private void computeAStarShortestPath(Vertex origin, Vertex destination, Heuristic heuristic)
+	{
+		// Vertex in current shortest path
+		Vertex v;
+		
+		// Vertex adjacent to v
+		Vertex w;
+		
+		// Edge connecting v to w
+		Edge e;
+		
+		// cost of Edge from v to w
+		double vwCost;
+		
+		// start a search, resetting vertices as they are reached
+		beginSearch();
+		heap = emptyHeap(heap);
+		
+		// the path ends at destination, so nothing lies beyond it
+		touch(destination).reverseDistance = 0.0;
+		
+		// distance from origin to itself is 0
+		touch(origin).distance = 0.0;
+		
+		// start with origin Vertex
+		heap.add(origin.index, heuristic.estimate(origin.theItem, destination.theItem));
+		
+		// find the shortest path
+		while (!heap.isEmpty())
+		{
+			// retrieve and remove the most promising Vertex
+			v = vertices[heap.removeMin()];
+			
+			if (v == destination)
+			{
+				// shortest path to destination found
+				return;
+			}
+			
+			// search v's adjacent vertices
+			if (v.getAdjacentVertices().isEmpty())
+				continue;
+			for (Iterator itr = v.getAdjacentVertices().iterator(); itr.hasNext(); itr.next())
+			{
+				// retrieve current Edge
+				e = (Edge)itr.getCurrent();
+				
+				// retrieve destination Vertex from Edge
+				w = touch(e.destination);
+				
+				// retrieve edge cost
+				vwCost = e.cost;
+				
+				if (vwCost < 0.0)
+				{
+					// graph has 1 or more negative edge costs
+					throw new GraphException("Graph has negative edges");
+				}
+				
+				if (w.distance > v.distance + vwCost)
+				{
+					// new shortest path from v to w found
+					w.distance = v.distance + vwCost;
+					w.previousVertex = v;
+					
+					// queue w, or move it up the heap if already queued
+					heap.addOrDecrease(w.index,
+						w.distance + heuristic.estimate(w.theItem, destination.theItem));
+				}
+			}
+		}
+	}
+	
+	
+	/**
+	 *	Internal method to compute the shortest unweighted path from the
+	 *	specified origin Vertex to the specified destination Vertex.
+	 *
+	 *	Breadth-first searches run forward from origin along adjacency lists
+	 *	and backward from destination along incoming lists, a whole level at a
+	 *	time from whichever side has the smaller frontier.  Once a level
+	 *	reaches a Vertex the other side has already reached, the best such
+	 *	Vertex on that level lies on a shortest path.
+	 *
+	 *	@param origin		first Vertex in shortest path; must be non-null
+	 *	@param destination	last Vertex in shortest path; must be non-null
+	 *
+	 *	Returns the Vertex where the searches met, or null if there is no path
+	 */
+	private Vertex computeBidirectionalShortestPath(Vertex origin, Vertex destination)
+	{
+		// vertices on the forward and backward frontiers
+		LinkedQueue forward = new LinkedQueue();
+		LinkedQueue backward = new LinkedQueue();
+		
+		// Vertex where the searches met, and the length of the path through it
+		Vertex meet = null;
+		double best = INFINITY;
+		
+		// current Vertex in traversal
+		Vertex v;
+		
+		// Vertex adjacent to v
+		Vertex w;
+		
+		// start a search, resetting vertices as they are reached
+		beginSearch();
+		
+		// start with origin going forward and destination going backward
+		touch(origin).distance = 0.0;
+		touch(destination).reverseDistance = 0.0;
+		forward.enqueue(origin);
+		backward.enqueue(destination);
+		
+		if (origin == destination)
+			return origin;
+		
+		while (meet == null && !forward.isEmpty() && !backward.isEmpty())
+		{
+			if (forward.size() <= backward.size())
+			{
+				// visit the next level forward
+				for (int level = forward.size(); level > 0; level--)
+				{
+					v = (Vertex)forward.dequeue();
+					
+					if (v.adjacencyList.isEmpty())
+						continue;
+					for (Iterator itr = v.adjacencyList.iterator(); itr.hasNext(); itr.next())
+					{
+						w = touch(((Edge)itr.getCurrent()).destination);
+						
+						if (w.distance == INFINITY)
+						{
+							// w reached forward for the first time
+							w.distance = v.distance + 1.0;
+							w.previousVertex = v;
+							forward.enqueue(w);
+							
+							if (w.distance + w.reverseDistance < best)
+							{
+								// a shorter path runs through w
+								best = w.distance + w.reverseDistance;
+								meet = w;
+							}
+						}
+					}
+				}
+			}
+			else
+			{
+				// visit the next level backward
+				for (int level = backward.size(); level > 0; level--)
+				{
+					v = (Vertex)backward.dequeue();
+					
+					if (v.incomingList.isEmpty())
+						continue;
+					for (Iterator itr = v.incomingList.iterator(); itr.hasNext(); itr.next())
+					{
+						w = touch(((Edge)itr.getCurrent()).destination);
+						
+						if (w.reverseDistance == INFINITY)
+						{
+							// w reached backward for the first time
+							w.reverseDistance = v.reverseDistance + 1.0;
+							w.nextVertex = v;
+							backward.enqueue(w);
+							
+							if (w.distance + w.reverseDistance < best)
+							{
+								// a shorter path runs through w
+								best = w.distance + w.reverseDistance;
+								meet = w;
+							}
+						}
+					}
+				}
+			}
+		}
+		
+		return meet;
+	}
+	
+	
+	/**
+	 *	Internal method to compute the shortest weighted path from the specified
+	 *	origin Vertex to the specified destination Vertex.
+	 *
+	 *	Dijkstra's algorithm runs forward from origin along adjacency lists and
+	 *	backward from destination along incoming lists, one Vertex at a time
+	 *	from whichever side has the smaller heap.  Every relaxed Vertex that
+	 *	both sides have reached is a candidate meeting point, and the search
+	 *	ends once the closest unvisited vertices of the two sides are together
+	 *	no closer than the best candidate.  Negative Edge costs are not
+	 *	permitted.
+	 *
+	 *	@param origin		first Vertex in shortest path; must be non-null
+	 *	@param destination	last Vertex in shortest path; must be non-null
+	 *
+	 *	Returns the Vertex where the searches met, or null if there is no path
+	 */
+	private Vertex computeBidirectionalWeightedShortestPath(Vertex origin, Vertex destination)
+	{
+		// Vertex where the searches met, and the cost of the path through it
+		Vertex meet = null;
+		double best = INFINITY;
+		
+		// Vertex being visited
+		Vertex v;
+		
+		// Vertex adjacent to v
+		Vertex w;
+		
+		// Edge connecting v and w
+		Edge e;
+		
+		// start a search, resetting vertices as they are reached
+		beginSearch();
+		heap = emptyHeap(heap);
+		reverseHeap = emptyHeap(reverseHeap);
+		
+		// start with origin going forward and destination going backward
+		touch(origin).distance = 0.0;
+		touch(destination).reverseDistance = 0.0;
+		heap.add(origin.index, 0.0);
+		reverseHeap.add(destination.index, 0.0);
+		
+		if (origin == destination)
+			return origin;
+		
+		while (!heap.isEmpty() && !reverseHeap.isEmpty())
+		{
+			if (heap.getPriority(heap.getMin()) + reverseHeap.getPriority(reverseHeap.getMin()) >= best)
+			{
+				// no unvisited Vertex can lead to a cheaper path
+				break;
+			}
+			
+			if (heap.size() <= reverseHeap.size())
+			{
+				// visit the closest Vertex going forward
+				v = vertices[heap.removeMin()];
+				
+				if (v.adjacencyList.isEmpty())
+					continue;
+				for (Iterator itr = v.adjacencyList.iterator(); itr.hasNext(); itr.next())
+				{
+					e = (Edge)itr.getCurrent();
+					w = touch(e.destination);
+					
+					if (e.cost < 0.0)
+						throw new GraphException("Graph has negative edges");
+					
+					if (w.distance > v.distance + e.cost)
+					{
+						// new shortest path from origin to w found
+						w.distance = v.distance + e.cost;
+						w.previousVertex = v;
+						heap.addOrDecrease(w.index, w.distance);
+						
+						if (w.reverseDistance != INFINITY && w.distance + w.reverseDistance < best)
+						{
+							// a cheaper path runs through w
+							best = w.distance + w.reverseDistance;
+							meet = w;
+						}
+					}
+				}
+			}
+			else
+			{
+				// visit the closest Vertex going backward
+				v = vertices[reverseHeap.removeMin()];
+				
+				if (v.incomingList.isEmpty())
+					continue;
+				for (Iterator itr = v.incomingList.iterator(); itr.hasNext(); itr.next())
+				{
+					e = (Edge)itr.getCurrent();
+					w = touch(e.destination);
+					
+					if (e.cost < 0.0)
+						throw new GraphException("Graph has negative edges");
+					
+					if (w.reverseDistance > v.reverseDistance + e.cost)
+					{
+						// new shortest path from w to destination found
+						w.reverseDistance = v.reverseDistance + e.cost;
+						w.nextVertex = v;
+						reverseHeap.addOrDecrease(w.index, w.reverseDistance);
+						
+						if (w.distance != INFINITY && w.distance + w.reverseDistance < best)
+						{
+							// a cheaper path runs through w
+							best = w.distance + w.reverseDistance;
+							meet = w;
+						}
+					}
+				}
+			}
+		}
+		
+		return meet;
+	}
+	
+	
 	/**
 	 *	Internal method to compute the shortest weighted path to all vertices
 	 *	from the specified origin Vertex.
@@ -843,7 +1424,7 @@ public class ListGraph implements Graph
 	public Object get(Object obj)
 	{
 		// retrieve Vertex containing specified item, if it exists
-		Vertex v = (Vertex)theItems.get(obj);
+		Vertex v = theItems.get(obj);
 		
 		// return null if item does not exist; otherwise return item
 		return v == null ? null : v.theItem;
@@ -859,7 +1440,7 @@ public class ListGraph implements Graph
 	public boolean remove(Object obj)
 	{
 		// retrieve Vertex containing the specified item, if it exists
-		Vertex v = (Vertex)theItems.get(obj);
+		Vertex v = theItems.get(obj);
 		
 		if (v == null)
 		{
@@ -867,15 +1448,8 @@ public class ListGraph implements Graph
 			return false;
 		}
 		
-		// first remove any Edges from all other vertices to v
-		for (Iterator itr = theItems.iterator(); itr.hasNext(); )
-		{
-			// remove all edges from current Vertex to v
-			removeAllEdges(((Vertex)itr.getCurrent()).theItem, v.theItem);
-			
-			// advance to next Vertex in this ListGraph
-			itr.next();
-		}
+		// first remove any Edges to and from v
+		detach(v);
 		
 		// remove the Vertex, v
 		theItems.remove(v.theItem);
@@ -963,15 +1537,8 @@ public class ListGraph implements Graph
 			// retrieve first Vertex in traversal
 			v = (Vertex)graphItr.getCurrent();
 			
-			// first remove any Edges from all other vertices to v
-			for (Iterator itr = theItems.iterator(); itr.hasNext(); )
-			{
-				// remove all edges from current Vertex to v
-				removeAllEdges(((Vertex)itr.getCurrent()).theItem, v.theItem);
-				
-				// advance to next Vertex in this ListGraph
-				itr.next();
-			}
+			// first remove any Edges to and from v
+			detach(v);
 			
 			// remove the Vertex, v
 			return theItems.remove(v.theItem);
@@ -988,7 +1555,7 @@ public class ListGraph implements Graph
 	public void clear()
 	{
 		// reset underlying HashMap
-		theItems = new HashMap();
+		theItems = new HashMap<Object, Vertex>();
 	}
 
 
@@ -1081,15 +1648,31 @@ public class ListGraph implements Graph
 		/** list of adjacent vertices */
 		LinkedList adjacencyList;
 		
+		/** list of edges into this Vertex; each Edge's destination is the
+		 *	Vertex the edge comes from */
+		LinkedList incomingList;
+		
 		/** distance to this Vertex */
 		double distance;
 		
 		/** Vertex that comes before this Vertex on shortest path to this Vertex */
 		Vertex previousVertex;
+		
+		/** distance from this Vertex to the destination of a backward search */
+		double reverseDistance;
+		
+		/** Vertex that comes after this Vertex on a backward search's path */
+		Vertex nextVertex;
 
 		/** temp storage for various info */
 		int scratch;
 		
+		/** number given to this Vertex by resetVertices() or touch() */
+		int index;
+		
+		/** number of the last search to touch() this Vertex */
+		int searchNumber;
+		
 		
 		/***************
 		 *	constructors
@@ -1106,8 +1689,9 @@ public class ListGraph implements Graph
 			// store item
 			theItem = item;
 			
-			// create adjacency list
+			// create adjacency and incoming lists
 			adjacencyList = new LinkedList();
+			incomingList = new LinkedList();
 			
 			// reset the state of this Vertex
 			reset();
@@ -1123,12 +1707,16 @@ public class ListGraph implements Graph
 		 *	reset the state of this Vertex to default state:
 		 *		previousVertex = null;
 		 *		distance = INFINITY
+		 *		nextVertex = null
+		 *		reverseDistance = INFINITY
 		 *		scratch = 0
 		 */
 		public void reset()
 		{
 			previousVertex = null;
 			distance = INFINITY;
+			nextVertex = null;
+			reverseDistance = INFINITY;
 			scratch = 0;
 		}
 		
@@ -1194,6 +1782,29 @@ public class ListGraph implements Graph
 		}
 		
 		
+		/**
+		 *	Add the specified Edge, whose destination is the Vertex it comes
+		 *	from, to this Vertex's incoming list.
+		 *
+		 *	Returns true if Edge was successfully added, false otherwise.
+		 */
+		public boolean addSource(Edge e)
+		{
+			incomingList.add(e);
+			
+			return true;
+		}
+		
+		
+		/**
+		 *	Remove the specified Edge from this Vertex's incoming list.
+		 */
+		public boolean removeSource(Edge e)
+		{
+			return incomingList.remove(e);
+		}
+		
+		
 		/**
 		 *	Return whether the specified item is adjacent to the item in this
 		 *	Vertex
@@ -1339,60 +1950,4 @@ public class ListGraph implements Graph
 			return (cost == e.cost) && destination.equals(e.destination);
 		}
 	}
-	
-	
-	/**
-	 *	Inner class Path
- 	 *
- 	 *	Represents an entry in the priority queue for weighted shortest path
- 	 *	(Djikstra's) algorithm.
- 	 */
-	public class Path implements Comparable
-	{
-		
-		/*************
-		 *	attributes
-		 ************/
-		
-		/** destination Vertex */
-		private Vertex destination;
-		
-		/** cost to destination */
-		private double cost;
-	
-	
-		/***************
-		 *	constructors
-		 **************/
-	
-		/**
-	 	 * Create a new Path with destination Vertex d and cost c.
-		 */
-		public Path(Vertex d, double c)
-		{
-			destination = d;
-			cost = c;
-		}
-		
-		
-		/**********************************************
-		 *	methods inherited from interface Comparable
-		 *********************************************/
-	
-		/**
-	 	 * Implementation for comparing two Path objects.
-	 	 *
-	 	 * Returns:
-	 	 *		-1 if cost for this Path < cost for otherPath
-	 	 *		 0 if cost for this Path == cost for otherPath
-	 	 *		 1 if cost for this Path > cost for otherPath
-	 	 */
-		public int compareTo(Object otherPath)
-		{
-			double otherCost = ((Path)otherPath).cost;
-		
-			return cost < otherCost ? -1 : cost > otherCost ? 1 : 0;
-		}
-	}
-
 }
\ No newline at end of file
@@ -11,9 +11,11 @@ package dataStructures;
  *	This interface does not provide iterators; rather, the keys or values in the
  *	Map can be returned in the form of a List, which can be traversed.
  *
+ *	The type parameters K and V give the types of the keys and the items.
+ *
  *	Written by Roger West, University of Illinois at Springfield
  */
-public interface Map
+public interface Map<K, V>
 {
 	
 	/**
@@ -25,7 +27,7 @@ public interface Map
 	 *
 	 *	returns true if the add was successful, false otherwise
 	 */
-	public boolean add(Object key, Object value);
+	public boolean add(K key, V value);
 
 
 	/**
@@ -60,7 +62,7 @@ public interface Map
 	/**
 	 *	return the item from the Map that is associated with the specified key
 	 */
-	public Object get(Object key);
+	public V get(Object key);
 	
 	
 	/**
@@ -0,0 +1,257 @@
+package dataStructures;
+
+import java.util.Arrays;
+
+/**
+ *	class SparseBitSet
+ *
+ *	Implementation of a set of non-negative ints that is sparse over a large
+ *	range but clustered within it, such as the cells of a grid one ant has
+ *	visited.
+ *
+ *	The range is cut into blocks of 64 ints, and only blocks holding at
+ *	least one member are stored: each as a long bit mask in an open
+ *	addressing table keyed by block number, like IntHashMap.  Members that
+ *	are close together share a block, so such a set takes a few bits per
+ *	member and creates no objects as it grows.
+ *
+ *	Removing a member clears its bit but keeps its block, so that removing
+ *	and adding again never moves entries in the table.
+ */
+public class SparseBitSet
+{
+
+	/************
+	 *	constants
+	 ***********/
+
+	/** load factor that determines when this SparseBitSet is resized */
+	private static final double LOAD_FACTOR = 0.75;
+
+	/** smallest table size */
+	private static final int MIN_CAPACITY = 16;
+
+	/** largest table size */
+	private static final int MAX_CAPACITY = 1 << 30;
+
+	/** number of bits to drop from a member to get its block number */
+	private static final int BLOCK_SHIFT = 6;
+
+	/** block number marking an empty table cell */
+	private static final int EMPTY = -1;
+
+
+	/*************
+	 *	attributes
+	 ************/
+
+	/** number of members currently in this SparseBitSet */
+	private int theSize;
+
+	/** number of blocks currently in the table */
+	private int blocks;
+
+	/** threshold number of blocks for resizing the table */
+	private int threshold;
+
+	/** table size - 1, for wrapping table indices */
+	private int mask;
+
+	/** number of bits to drop from a mixed block number to get its table index */
+	private int shift;
+
+	/** the table of block numbers; EMPTY marks an empty cell */
+	private int[] keys;
+
+	/** the table of block bit masks */
+	private long[] words;
+
+
+	/***************
+	 *	constructors
+	 **************/
+
+	/**
+	 *	create a new, empty SparseBitSet
+	 */
+	public SparseBitSet()
+	{
+		allocate(MIN_CAPACITY);
+	}
+
+
+	/**********
+	 *	methods
+	 *********/
+
+	/**
+	 *	add the specified int to this SparseBitSet
+	 *
+	 *	returns true if the add was successful, false if the int was already
+	 *	present
+	 *
+	 *	throws IllegalArgumentException if the int is negative
+	 */
+	public boolean add(int member)
+	{
+		if (member < 0)
+			throw new IllegalArgumentException("Members cannot be negative!");
+
+		int block = member >>> BLOCK_SHIFT;
+		long bit = 1L << member;
+		int index = find(block);
+
+		if (keys[index] == EMPTY)
+		{
+			// first member of its block
+			if (blocks >= threshold)
+			{
+				rehash();
+				index = find(block);
+			}
+			keys[index] = block;
+			words[index] = 0L;
+			blocks++;
+		}
+		else if ((words[index] & bit) != 0)
+		{
+			// already present
+			return false;
+		}
+
+		words[index] |= bit;
+		theSize++;
+		return true;
+	}
+
+
+	/**
+	 *	remove the specified int from this SparseBitSet
+	 *
+	 *	returns true if the remove was successful, false if the int was not
+	 *	present
+	 */
+	public boolean remove(int member)
+	{
+		if (!contains(member))
+			return false;
+
+		words[find(member >>> BLOCK_SHIFT)] &= ~(1L << member);
+		theSize--;
+		return true;
+	}
+
+
+	/**
+	 *	return whether this SparseBitSet contains the specified int
+	 */
+	public boolean contains(int member)
+	{
+		if (member < 0)
+			return false;
+
+		int index = find(member >>> BLOCK_SHIFT);
+
+		return keys[index] != EMPTY && (words[index] & (1L << member)) != 0;
+	}
+
+
+	/**
+	 *	return the number of ints in this SparseBitSet
+	 */
+	public int size()
+	{
+		return theSize;
+	}
+
+
+	/**
+	 *	return true if this SparseBitSet contains 0 ints, false otherwise
+	 */
+	public boolean isEmpty()
+	{
+		return theSize == 0;
+	}
+
+
+	/**
+	 *	return the ints in this SparseBitSet, in no particular order
+	 */
+	public int[] toArray()
+	{
+		int[] members = new int[theSize];
+		int count = 0;
+
+		for (int index = 0; index < keys.length; index++)
+			if (keys[index] != EMPTY)
+				for (long bits = words[index]; bits != 0; bits &= bits - 1)
+					members[count++] = (keys[index] << BLOCK_SHIFT)
+						+ Long.numberOfTrailingZeros(bits);
+
+		return members;
+	}
+
+
+	/**
+	 *	empty this SparseBitSet, keeping its capacity
+	 */
+	public void clear()
+	{
+		Arrays.fill(keys, EMPTY);
+		theSize = 0;
+		blocks = 0;
+	}
+
+
+	/**
+	 *	internal method for finding the table index of the specified block, or
+	 *	of the empty cell where it would be added
+	 */
+	private int find(int block)
+	{
+		int index = (block * 0x9E3779B9) >>> shift;
+
+		while (keys[index] != EMPTY && keys[index] != block)
+			index = (index + 1) & mask;
+
+		return index;
+	}
+
+
+	/**
+	 *	internal method for creating an empty table of the specified size
+	 */
+	private void allocate(int capacity)
+	{
+		keys = new int[capacity];
+		words = new long[capacity];
+		Arrays.fill(keys, EMPTY);
+		mask = capacity - 1;
+		shift = Integer.numberOfLeadingZeros(capacity) + 1;
+		threshold = (int)(capacity * LOAD_FACTOR);
+	}
+
+
+	/**
+	 *	internal method for doubling the table size and re-adding every block
+	 *
+	 *	throws CapacityExceededException if the table cannot grow any further
+	 */
+	private void rehash()
+	{
+		if (keys.length >= MAX_CAPACITY)
+			throw new CapacityExceededException("Capacity of hashtable has been exceeded!");
+
+		int[] oldKeys = keys;
+		long[] oldWords = words;
+
+		allocate(keys.length * 2);
+		for (int i = 0; i < oldKeys.length; i++)
+			if (oldKeys[i] != EMPTY)
+			{
+				int index = find(oldKeys[i]);
+				keys[index] = oldKeys[i];
+				words[index] = oldWords[i];
+			}
+	}
+}